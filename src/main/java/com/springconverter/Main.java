@@ -1,5 +1,6 @@
 package com.springconverter;
 
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
 import com.springconverter.config.ConverterConfig;
 import com.springconverter.engine.ConversionEngine;
 import com.springconverter.model.ConversionReport;
@@ -11,6 +12,9 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -96,8 +100,8 @@ public class Main {
         options.addOption("d", "dryRun", false, "Dry run mode (no files modified)");
         options.addOption("n", "noBackup", false, "Disable automatic backups");
         options.addOption("r", "report", true, "Report output path");
-        options.addOption("e", "exclude", true, "Exclude pattern (regex)");
-        options.addOption("i", "include", true, "Include pattern (regex)");
+        options.addOption("e", "exclude", true, "Exclude pattern (regex, or glob:pattern)");
+        options.addOption("i", "include", true, "Include pattern (regex, or glob:pattern)");
         options.addOption("V", "verbose", false, "Verbose output");
         
         return options;
@@ -251,6 +255,57 @@ public class Main {
                         case "reportOutputPath":
                             config.setReportOutputPath(value);
                             break;
+                        case "discoveryThreads":
+                            config.setDiscoveryThreads(Integer.parseInt(value));
+                            break;
+                        case "useScanCache":
+                            config.setUseScanCache(Boolean.parseBoolean(value));
+                            break;
+                        case "prunedDirectories":
+                            config.setPrunedDirectories(new LinkedHashSet<>(splitList(value)));
+                            break;
+                        case "streamingThresholdBytes":
+                            config.setStreamingThresholdBytes(Long.parseLong(value));
+                            break;
+                        case "parserThreads":
+                            config.setParserThreads(Integer.parseInt(value));
+                            break;
+                        case "javaLanguageLevel":
+                            config.setJavaLanguageLevel(value);
+                            break;
+                        case "typeResolution":
+                            config.setTypeResolution(Boolean.parseBoolean(value));
+                            break;
+                        case "typeResolutionCacheEntries":
+                            config.setTypeResolutionCacheEntries(Integer.parseInt(value));
+                            break;
+                        case "javaSkimMode":
+                            config.setJavaSkimMode(Boolean.parseBoolean(value));
+                            break;
+                        case "dependencyJars":
+                            config.setDependencyJars(splitList(value));
+                            break;
+                        case "compileVerification":
+                            config.setCompileVerification(Boolean.parseBoolean(value));
+                            break;
+                        case "compileClasspath":
+                            config.setCompileClasspath(splitList(value));
+                            break;
+                        case "javaModificationThreads":
+                            config.setJavaModificationThreads(Integer.parseInt(value));
+                            break;
+                        case "xmlRewriteThreads":
+                            config.setXmlRewriteThreads(Integer.parseInt(value));
+                            break;
+                        case "pipelineQueueCapacity":
+                            config.setPipelineQueueCapacity(Integer.parseInt(value));
+                            break;
+                        case "virtualThreads":
+                            config.setVirtualThreads(Boolean.parseBoolean(value));
+                            break;
+                        case "virtualThreadConcurrency":
+                            config.setVirtualThreadConcurrency(Integer.parseInt(value));
+                            break;
                     }
                 }
             }
@@ -298,6 +353,57 @@ public class Main {
             if (props.containsKey("reportOutputPath")) {
                 config.setReportOutputPath(props.getProperty("reportOutputPath"));
             }
+            if (props.containsKey("discoveryThreads")) {
+                config.setDiscoveryThreads(Integer.parseInt(props.getProperty("discoveryThreads")));
+            }
+            if (props.containsKey("useScanCache")) {
+                config.setUseScanCache(Boolean.parseBoolean(props.getProperty("useScanCache")));
+            }
+            if (props.containsKey("prunedDirectories")) {
+                config.setPrunedDirectories(new LinkedHashSet<>(splitList(props.getProperty("prunedDirectories"))));
+            }
+            if (props.containsKey("streamingThresholdBytes")) {
+                config.setStreamingThresholdBytes(Long.parseLong(props.getProperty("streamingThresholdBytes")));
+            }
+            if (props.containsKey("parserThreads")) {
+                config.setParserThreads(Integer.parseInt(props.getProperty("parserThreads")));
+            }
+            if (props.containsKey("javaLanguageLevel")) {
+                config.setJavaLanguageLevel(props.getProperty("javaLanguageLevel"));
+            }
+            if (props.containsKey("typeResolution")) {
+                config.setTypeResolution(Boolean.parseBoolean(props.getProperty("typeResolution")));
+            }
+            if (props.containsKey("typeResolutionCacheEntries")) {
+                config.setTypeResolutionCacheEntries(Integer.parseInt(props.getProperty("typeResolutionCacheEntries")));
+            }
+            if (props.containsKey("javaSkimMode")) {
+                config.setJavaSkimMode(Boolean.parseBoolean(props.getProperty("javaSkimMode")));
+            }
+            if (props.containsKey("dependencyJars")) {
+                config.setDependencyJars(splitList(props.getProperty("dependencyJars")));
+            }
+            if (props.containsKey("compileVerification")) {
+                config.setCompileVerification(Boolean.parseBoolean(props.getProperty("compileVerification")));
+            }
+            if (props.containsKey("compileClasspath")) {
+                config.setCompileClasspath(splitList(props.getProperty("compileClasspath")));
+            }
+            if (props.containsKey("javaModificationThreads")) {
+                config.setJavaModificationThreads(Integer.parseInt(props.getProperty("javaModificationThreads")));
+            }
+            if (props.containsKey("xmlRewriteThreads")) {
+                config.setXmlRewriteThreads(Integer.parseInt(props.getProperty("xmlRewriteThreads")));
+            }
+            if (props.containsKey("pipelineQueueCapacity")) {
+                config.setPipelineQueueCapacity(Integer.parseInt(props.getProperty("pipelineQueueCapacity")));
+            }
+            if (props.containsKey("virtualThreads")) {
+                config.setVirtualThreads(Boolean.parseBoolean(props.getProperty("virtualThreads")));
+            }
+            if (props.containsKey("virtualThreadConcurrency")) {
+                config.setVirtualThreadConcurrency(Integer.parseInt(props.getProperty("virtualThreadConcurrency")));
+            }
             
             return true;
             
@@ -315,6 +421,16 @@ public class Main {
         return "";
     }
 
+    private static List<String> splitList(String value) {
+        List<String> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) {
+                items.add(item.trim());
+            }
+        }
+        return items;
+    }
+
     private boolean validateConfiguration(ConverterConfig config) {
         // Validate project directory
         File projectDir = new File(config.getProjectDirectory());
@@ -356,6 +472,14 @@ public class Main {
             }
         }
         
+        // Validate Java language level
+        try {
+            LanguageLevel.valueOf(config.getJavaLanguageLevel());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            logger.error("Unknown Java language level: {}", config.getJavaLanguageLevel());
+            return false;
+        }
+        
         logger.info("Configuration validation passed");
         return true;
     }
@@ -1,9 +1,13 @@
 package com.springconverter.config;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Configuration settings for the XML to annotation converter.
@@ -22,10 +26,30 @@ public class ConverterConfig {
     private boolean addTODOsForAmbiguousCases = true;
     private String reportFormat = "markdown";
     private String reportOutputPath;
+    private Set<String> prunedDirectories;
+    private int discoveryThreads = Runtime.getRuntime().availableProcessors() * 2;
+    private boolean useScanCache = false;
+    private long streamingThresholdBytes = 16L * 1024 * 1024;
+    private int parserThreads = Runtime.getRuntime().availableProcessors();
+    private String javaLanguageLevel = "JAVA_17";
+    private boolean typeResolution = false;
+    private int typeResolutionCacheEntries = 4096;
+    private boolean javaSkimMode = true;
+    private List<String> dependencyJars = new ArrayList<>();
+    private boolean compileVerification = false;
+    private List<String> compileClasspath = new ArrayList<>();
+    private int javaModificationThreads = Runtime.getRuntime().availableProcessors();
+    private int xmlRewriteThreads = 2;
+    private int pipelineQueueCapacity = 256;
+    private boolean virtualThreads = false;
+    private int virtualThreadConcurrency = 256;
+    private volatile PathPatternMatcher excludeMatcher;
+    private volatile PathPatternMatcher includeMatcher;
 
     public ConverterConfig() {
         this.excludePatterns = new ArrayList<>();
         this.includePatterns = new ArrayList<>();
+        this.prunedDirectories = new LinkedHashSet<>(Arrays.asList("target", "build", ".git", "node_modules"));
         this.customMappings = new HashMap<>();
         this.annotationMappings = new HashMap<>();
         initializeDefaultMappings();
@@ -97,27 +121,31 @@ public class ConverterConfig {
     }
 
     public List<String> getExcludePatterns() {
-        return excludePatterns;
+        return Collections.unmodifiableList(excludePatterns);
     }
 
     public void setExcludePatterns(List<String> excludePatterns) {
-        this.excludePatterns = excludePatterns;
+        this.excludePatterns = new ArrayList<>(excludePatterns);
+        this.excludeMatcher = null;
     }
 
     public void addExcludePattern(String pattern) {
         this.excludePatterns.add(pattern);
+        this.excludeMatcher = null;
     }
 
     public List<String> getIncludePatterns() {
-        return includePatterns;
+        return Collections.unmodifiableList(includePatterns);
     }
 
     public void setIncludePatterns(List<String> includePatterns) {
-        this.includePatterns = includePatterns;
+        this.includePatterns = new ArrayList<>(includePatterns);
+        this.includeMatcher = null;
     }
 
     public void addIncludePattern(String pattern) {
         this.includePatterns.add(pattern);
+        this.includeMatcher = null;
     }
 
     public Map<String, String> getCustomMappings() {
@@ -172,29 +200,192 @@ public class ConverterConfig {
         this.reportOutputPath = reportOutputPath;
     }
 
+    public Set<String> getPrunedDirectories() {
+        return prunedDirectories;
+    }
+
+    public void setPrunedDirectories(Set<String> prunedDirectories) {
+        this.prunedDirectories = prunedDirectories;
+    }
+
+    public int getDiscoveryThreads() {
+        return discoveryThreads;
+    }
+
+    public void setDiscoveryThreads(int discoveryThreads) {
+        this.discoveryThreads = discoveryThreads;
+    }
+
+    /**
+     * Checks whether discovery reuses the previous run's answers for XML files whose size
+     * and modification time are unchanged. Off by default: an edit that keeps both, such as
+     * one restored from an archive, is not seen while the cache is on.
+     */
+    public boolean isUseScanCache() {
+        return useScanCache;
+    }
+
+    public void setUseScanCache(boolean useScanCache) {
+        this.useScanCache = useScanCache;
+    }
+
+    public long getStreamingThresholdBytes() {
+        return streamingThresholdBytes;
+    }
+
+    public void setStreamingThresholdBytes(long streamingThresholdBytes) {
+        this.streamingThresholdBytes = streamingThresholdBytes;
+    }
+
+    public int getParserThreads() {
+        return parserThreads;
+    }
+
+    public void setParserThreads(int parserThreads) {
+        this.parserThreads = parserThreads;
+    }
+
+    public String getJavaLanguageLevel() {
+        return javaLanguageLevel;
+    }
+
+    public void setJavaLanguageLevel(String javaLanguageLevel) {
+        this.javaLanguageLevel = javaLanguageLevel;
+    }
+
+    public boolean isTypeResolution() {
+        return typeResolution;
+    }
+
+    public void setTypeResolution(boolean typeResolution) {
+        this.typeResolution = typeResolution;
+    }
+
+    public int getTypeResolutionCacheEntries() {
+        return typeResolutionCacheEntries;
+    }
+
+    public void setTypeResolutionCacheEntries(int typeResolutionCacheEntries) {
+        this.typeResolutionCacheEntries = typeResolutionCacheEntries;
+    }
+
+    public boolean isJavaSkimMode() {
+        return javaSkimMode;
+    }
+
+    public void setJavaSkimMode(boolean javaSkimMode) {
+        this.javaSkimMode = javaSkimMode;
+    }
+
+    public List<String> getDependencyJars() {
+        return Collections.unmodifiableList(dependencyJars);
+    }
+
+    public void setDependencyJars(List<String> dependencyJars) {
+        this.dependencyJars = new ArrayList<>(dependencyJars);
+    }
+
+    public boolean isCompileVerification() {
+        return compileVerification;
+    }
+
+    public void setCompileVerification(boolean compileVerification) {
+        this.compileVerification = compileVerification;
+    }
+
+    public List<String> getCompileClasspath() {
+        return Collections.unmodifiableList(compileClasspath);
+    }
+
+    public void setCompileClasspath(List<String> compileClasspath) {
+        this.compileClasspath = new ArrayList<>(compileClasspath);
+    }
+
+    public int getJavaModificationThreads() {
+        return javaModificationThreads;
+    }
+
+    public void setJavaModificationThreads(int javaModificationThreads) {
+        this.javaModificationThreads = javaModificationThreads;
+    }
+
+    public int getXmlRewriteThreads() {
+        return xmlRewriteThreads;
+    }
+
+    public void setXmlRewriteThreads(int xmlRewriteThreads) {
+        this.xmlRewriteThreads = xmlRewriteThreads;
+    }
+
+    /**
+     * Gets how many items each stage of the conversion pipeline queues before the stage
+     * feeding it has to wait. This bounds the work in flight between stages, not memory:
+     * every parsed XML file is held until all imports are resolved, and every bean and its
+     * result until the run ends, so peak memory still grows with the size of the project.
+     */
+    public int getPipelineQueueCapacity() {
+        return pipelineQueueCapacity;
+    }
+
+    public void setPipelineQueueCapacity(int pipelineQueueCapacity) {
+        this.pipelineQueueCapacity = pipelineQueueCapacity;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public int getVirtualThreadConcurrency() {
+        return virtualThreadConcurrency;
+    }
+
+    public void setVirtualThreadConcurrency(int virtualThreadConcurrency) {
+        this.virtualThreadConcurrency = virtualThreadConcurrency;
+    }
+
     public String getAnnotationFor(String key) {
         return annotationMappings.get(key.toLowerCase());
     }
 
     public boolean shouldExcludeFile(String filePath) {
-        for (String pattern : excludePatterns) {
-            if (filePath.matches(pattern)) {
-                return true;
-            }
-        }
-        return false;
+        return getExcludeMatcher().matches(filePath);
     }
 
     public boolean shouldIncludeFile(String filePath) {
-        if (includePatterns.isEmpty()) {
-            return true;
+        PathPatternMatcher matcher = getIncludeMatcher();
+        return matcher.isEmpty() || matcher.matches(filePath);
+    }
+
+    /**
+     * Checks if any file below the directory could pass the include and exclude patterns,
+     * so that callers can skip matching for whole subtrees.
+     */
+    public boolean mayContainIncludedFiles(String directory) {
+        PathPatternMatcher includes = getIncludeMatcher();
+        return !getExcludeMatcher().matchesEverythingUnder(directory)
+                && (includes.isEmpty() || includes.canMatchUnder(directory));
+    }
+
+    private PathPatternMatcher getExcludeMatcher() {
+        PathPatternMatcher matcher = excludeMatcher;
+        if (matcher == null) {
+            matcher = PathPatternMatcher.compile(excludePatterns);
+            excludeMatcher = matcher;
         }
-        for (String pattern : includePatterns) {
-            if (filePath.matches(pattern)) {
-                return true;
-            }
+        return matcher;
+    }
+
+    private PathPatternMatcher getIncludeMatcher() {
+        PathPatternMatcher matcher = includeMatcher;
+        if (matcher == null) {
+            matcher = PathPatternMatcher.compile(includePatterns);
+            includeMatcher = matcher;
         }
-        return false;
+        return matcher;
     }
 
     @Override
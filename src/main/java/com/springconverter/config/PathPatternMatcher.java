@@ -0,0 +1,252 @@
+package com.springconverter.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A set of include or exclude path patterns compiled once. Patterns are regular expressions
+ * by default; a "glob:" prefix selects glob syntax and "regex:" makes regex explicit.
+ * The literal prefix of every pattern is merged into a trie, so a path is only tested
+ * against the patterns whose literal prefix it starts with, and whole directories can be
+ * ruled in or out without testing each file below them.
+ */
+public class PathPatternMatcher {
+    private static final String GLOB_SYNTAX = "glob:";
+    private static final String REGEX_SYNTAX = "regex:";
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+    private static final String GLOB_METACHARACTERS = "*?[{\\";
+
+    private final List<CompiledPattern> patterns = new ArrayList<>();
+    private final TrieNode root = new TrieNode();
+
+    private PathPatternMatcher() {
+    }
+
+    /**
+     * Compiles the given patterns into a matcher.
+     */
+    public static PathPatternMatcher compile(List<String> patternStrings) {
+        PathPatternMatcher matcher = new PathPatternMatcher();
+        for (String patternString : patternStrings) {
+            matcher.add(patternString);
+        }
+        return matcher;
+    }
+
+    private void add(String patternString) {
+        CompiledPattern compiled;
+        if (patternString.startsWith(GLOB_SYNTAX)) {
+            String glob = patternString.substring(GLOB_SYNTAX.length());
+            String regex = globToRegex(glob);
+            String subtreeRegex = glob.endsWith("**") ? globToRegex(glob.substring(0, glob.length() - 2)) : null;
+            compiled = new CompiledPattern(regex, subtreeRegex, globLiteralPrefix(glob));
+        } else {
+            String regex = patternString.startsWith(REGEX_SYNTAX) ?
+                    patternString.substring(REGEX_SYNTAX.length()) : patternString;
+            String subtreeRegex = endsWithUnescapedWildcard(regex) ? regex.substring(0, regex.length() - 2) : null;
+            compiled = new CompiledPattern(regex, subtreeRegex, regexLiteralPrefix(regex));
+        }
+
+        int index = patterns.size();
+        patterns.add(compiled);
+
+        TrieNode node = root;
+        for (int i = 0; i < compiled.literalPrefix.length(); i++) {
+            node = node.children.computeIfAbsent(compiled.literalPrefix.charAt(i), key -> new TrieNode());
+        }
+        node.patternIndexes.add(index);
+    }
+
+    /**
+     * Checks if the matcher holds no patterns.
+     */
+    public boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    /**
+     * Checks if any pattern matches the whole path.
+     */
+    public boolean matches(String path) {
+        TrieNode node = root;
+        int i = 0;
+        while (node != null) {
+            for (int index : node.patternIndexes) {
+                if (patterns.get(index).pattern.matcher(path).matches()) {
+                    return true;
+                }
+            }
+            node = i < path.length() ? node.children.get(path.charAt(i++)) : null;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if any pattern could match a path below the given directory.
+     */
+    public boolean canMatchUnder(String directory) {
+        String prefix = directoryPrefix(directory);
+        TrieNode node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (!node.patternIndexes.isEmpty()) {
+                return true;
+            }
+            node = node.children.get(prefix.charAt(i));
+            if (node == null) {
+                return false;
+            }
+        }
+        // Every remaining pattern has a literal prefix that extends below the directory
+        return true;
+    }
+
+    /**
+     * Checks if some pattern is guaranteed to match every path below the given directory.
+     * Only patterns ending in an unbounded wildcard (".*" or "**") can give that guarantee.
+     */
+    public boolean matchesEverythingUnder(String directory) {
+        String prefix = directoryPrefix(directory);
+        TrieNode node = root;
+        int i = 0;
+        while (node != null) {
+            for (int index : node.patternIndexes) {
+                Pattern subtreePattern = patterns.get(index).subtreePattern;
+                if (subtreePattern != null && subtreePattern.matcher(prefix).lookingAt()) {
+                    return true;
+                }
+            }
+            node = i < prefix.length() ? node.children.get(prefix.charAt(i++)) : null;
+        }
+        return false;
+    }
+
+    private static String directoryPrefix(String directory) {
+        return directory.endsWith("/") || directory.endsWith("\\") ? directory : directory + "/";
+    }
+
+    static String regexLiteralPrefix(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return "";
+        }
+
+        StringBuilder prefix = new StringBuilder();
+        int i = regex.startsWith("^") ? 1 : 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            int next;
+            char literal;
+            if (c == '\\' && i + 1 < regex.length() && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                literal = regex.charAt(i + 1);
+                next = i + 2;
+            } else if (REGEX_METACHARACTERS.indexOf(c) < 0) {
+                literal = c;
+                next = i + 1;
+            } else {
+                break;
+            }
+
+            // A quantifier makes the preceding character optional or repeatable
+            if (next < regex.length() && "?*{".indexOf(regex.charAt(next)) >= 0) {
+                break;
+            }
+            prefix.append(literal);
+            i = next;
+        }
+        return prefix.toString();
+    }
+
+    static String globLiteralPrefix(String glob) {
+        int end = 0;
+        while (end < glob.length() && GLOB_METACHARACTERS.indexOf(glob.charAt(end)) < 0) {
+            end++;
+        }
+        return glob.substring(0, end);
+    }
+
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        boolean inGroup = false;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            switch (c) {
+                case '*':
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        regex.append(".*");
+                        i++;
+                    } else {
+                        regex.append("[^/\\\\]*");
+                    }
+                    break;
+                case '?':
+                    regex.append("[^/\\\\]");
+                    break;
+                case '{':
+                    regex.append("(?:");
+                    inGroup = true;
+                    break;
+                case '}':
+                    regex.append(')');
+                    inGroup = false;
+                    break;
+                case ',':
+                    regex.append(inGroup ? "|" : ",");
+                    break;
+                case '[':
+                    int close = glob.indexOf(']', i + 1);
+                    if (close < 0) {
+                        regex.append("\\[");
+                    } else {
+                        String set = glob.substring(i + 1, close);
+                        if (set.startsWith("!")) {
+                            set = "^" + set.substring(1);
+                        }
+                        regex.append('[').append(set.replace("\\", "\\\\")).append(']');
+                        i = close;
+                    }
+                    break;
+                case '\\':
+                    if (i + 1 < glob.length()) {
+                        regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                    }
+                    break;
+                default:
+                    if (REGEX_METACHARACTERS.indexOf(c) >= 0) {
+                        regex.append('\\');
+                    }
+                    regex.append(c);
+            }
+        }
+        return regex.toString();
+    }
+
+    private static boolean endsWithUnescapedWildcard(String regex) {
+        if (!regex.endsWith(".*") || regex.indexOf('|') >= 0) {
+            return false;
+        }
+        int backslashes = 0;
+        for (int i = regex.length() - 3; i >= 0 && regex.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        return backslashes % 2 == 0;
+    }
+
+    private static final class CompiledPattern {
+        private final Pattern pattern;
+        private final Pattern subtreePattern;
+        private final String literalPrefix;
+
+        CompiledPattern(String regex, String subtreeRegex, String literalPrefix) {
+            this.pattern = Pattern.compile(regex);
+            this.subtreePattern = subtreeRegex != null ? Pattern.compile(subtreeRegex) : null;
+            this.literalPrefix = literalPrefix;
+        }
+    }
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private final List<Integer> patternIndexes = new ArrayList<>();
+    }
+}
@@ -1,9 +1,16 @@
 package com.springconverter.engine;
 
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import com.github.javaparser.resolution.cache.CacheStats;
 import com.springconverter.config.ConverterConfig;
 import com.springconverter.file.FileManager;
+import com.springconverter.file.VirtualThreads;
+import com.springconverter.java.CompileVerifier;
 import com.springconverter.java.JavaSourceModifier;
+import com.springconverter.java.TypeResolver;
 import com.springconverter.model.*;
+import com.springconverter.parser.ImportGraph;
+import com.springconverter.parser.ImportGraphResolver;
 import com.springconverter.parser.XmlParser;
 import com.springconverter.parser.XmlParser.XmlParsingException;
 import com.springconverter.report.ReportGenerator;
@@ -11,10 +18,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
 
 /**
  * Main engine that orchestrates the XML to annotation conversion process.
@@ -32,10 +49,15 @@ public class ConversionEngine {
     public ConversionEngine(ConverterConfig config) {
         this.config = config;
         this.report = new ConversionReport();
-        this.xmlParser = new XmlParser();
-        this.javaModifier = new JavaSourceModifier();
+        this.xmlParser = new XmlParser(config.getStreamingThresholdBytes());
+        this.javaModifier = new JavaSourceModifier(config.isDryRun(), LanguageLevel.valueOf(config.getJavaLanguageLevel()));
+        this.javaModifier.setSkimMode(config.isJavaSkimMode());
         this.fileManager = new FileManager(config, report);
         this.reportGenerator = new ReportGenerator();
+        if (config.isVirtualThreads() && !VirtualThreads.isSupported()) {
+            logger.warn("Virtual threads need Java 21 or later, this is Java {}; using platform threads",
+                    Runtime.version().feature());
+        }
         
         // Initialize report with configuration
         this.report.setProjectDirectory(config.getProjectDirectory());
@@ -60,8 +82,14 @@ public class ConversionEngine {
                 return report;
             }
             
-            // Find XML files
-            List<String> xmlFiles = fileManager.findXmlFiles(config.getProjectDirectory());
+            // Find XML files, parsing each one while the walk goes on
+            Map<String, List<SpringBean>> parsedBeans = new ConcurrentHashMap<>();
+            Map<String, XmlParsingException> parseFailures = new ConcurrentHashMap<>();
+            List<String> xmlFiles;
+            try (PipelineStage<String> parseStage = new PipelineStage<>("parse", config.getParserThreads(),
+                    config.getPipelineQueueCapacity(), xmlFile -> parseAhead(xmlFile, parsedBeans, parseFailures))) {
+                xmlFiles = fileManager.findXmlFiles(config.getProjectDirectory(), parseStage::submit);
+            }
             report.setTotalXmlFilesProcessed(xmlFiles.size());
             
             if (xmlFiles.isEmpty()) {
@@ -69,10 +97,19 @@ public class ConversionEngine {
                 return report;
             }
             
-            // Process each XML file
-            for (String xmlFile : xmlFiles) {
-                processXmlFile(xmlFile);
-            }
+            // Follow imports, parsing only the files the walk did not find
+            ImportGraph importGraph = resolveImports(xmlFiles, xmlFile -> {
+                XmlParsingException failure = parseFailures.remove(xmlFile);
+                if (failure != null) {
+                    throw failure;
+                }
+                List<SpringBean> beans = parsedBeans.remove(xmlFile);
+                return beans != null ? beans : xmlParser.parseXmlFile(xmlFile);
+            });
+            report.setTotalXmlFilesProcessed(importGraph.getFiles().size());
+            
+            // Convert the beans, one batch per Java file, then update the XML files
+            convertBeans(importGraph);
             
             // Generate final report
             report.finalize();
@@ -113,109 +150,332 @@ public class ConversionEngine {
         return true;
     }
 
-    private void processXmlFile(String xmlFilePath) {
-        logger.info("Processing XML file: {}", xmlFilePath);
+    /**
+     * Parses a discovered XML file on the parse stage, keeping the beans or the failure for
+     * the import resolution to pick up.
+     */
+    private void parseAhead(String xmlFile, Map<String, List<SpringBean>> parsedBeans,
+                            Map<String, XmlParsingException> parseFailures) {
+        try {
+            parsedBeans.put(xmlFile, xmlParser.parseXmlFile(xmlFile));
+        } catch (XmlParsingException e) {
+            parseFailures.put(xmlFile, e);
+        } catch (RuntimeException e) {
+            parseFailures.put(xmlFile, new XmlParsingException("Failed to parse XML file: " + xmlFile, e));
+        }
+    }
+
+    private ImportGraph resolveImports(List<String> xmlFiles, ImportGraphResolver.DefinitionSource definitions) {
+        Path projectDirectory = Path.of(config.getProjectDirectory()).toAbsolutePath().normalize();
+        List<Path> resourceRoots = ImportGraphResolver.resourceRootsFor(projectDirectory, xmlFiles);
         
+        // Only follow imports of files this run may modify
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, config.getParserThreads()));
+        ImportGraph importGraph;
         try {
-            // Parse XML file
-            List<SpringBean> beans = xmlParser.parseXmlFile(xmlFilePath);
+            importGraph = new ImportGraphResolver(definitions, resourceRoots,
+                    file -> file.startsWith(projectDirectory) && !config.shouldExcludeFile(file.toString()), pool)
+                    .resolve(xmlFiles);
+        } finally {
+            pool.shutdown();
+        }
+        
+        for (List<String> cycle : importGraph.getCycles()) {
+            logger.warn("Circular import: {}", String.join(" -> ", cycle));
+            TodoItem todo = new TodoItem("Circular import: " + String.join(" -> ", cycle),
+                    cycle.get(0), TodoItem.TodoCategory.CONFIGURATION_ISSUE);
+            todo.setPriority(TodoItem.TodoPriority.MEDIUM);
+            todo.setSuggestedAction("Remove one of the <import> elements in the chain");
+            report.addTodoItem(todo);
+        }
+        return importGraph;
+    }
+
+    /**
+     * Converts every bean in the import graph. Beans are first mapped to their Java files,
+     * then the Java files flow through the modify stage, which changes and writes each file
+     * once for all of its beans, and the merge stage, which takes their results in file
+     * order. With virtual threads, writing is a stage of its own, so that parsing keeps to
+     * its platform threads while many files are written at once. Each XML file goes on to
+     * the rewrite stage as soon as the last of its Java files is merged. Results are
+     * recorded in import graph order at the end, so the report matches a serial run.
+     * With type resolution, no file is written until every file is modified, as the type
+     * resolver reads the project's sources from disk and must see them unchanged.
+     * The stages bound how much work waits between them, but every bean and its result is
+     * held from here until the end of the run.
+     */
+    private void convertBeans(ImportGraph importGraph) {
+        Map<String, List<SpringBean>> beansByXmlFile = new LinkedHashMap<>();
+        Map<String, List<SpringBean>> beansByJavaFile = new LinkedHashMap<>();
+        Map<String, Set<String>> xmlFilesByJavaFile = new HashMap<>();
+        Map<SpringBean, ConversionResult> results = new IdentityHashMap<>();
+        
+        for (String xmlFile : importGraph.getFiles()) {
+            logger.info("Processing XML file: {}", xmlFile);
             
-            if (beans.isEmpty()) {
-                logger.info("No beans found in XML file: {}", xmlFilePath);
-                return;
+            List<SpringBean> beans;
+            try {
+                // Parsed once while resolving imports
+                beans = importGraph.getBeans(xmlFile);
+            } catch (XmlParsingException e) {
+                logger.error("Failed to parse XML file: {}", xmlFile, e);
+                report.addError(new ConversionError("XML parsing error: " + e.getMessage(), 
+                        xmlFile, ConversionError.ErrorType.XML_PARSING_ERROR));
+                continue;
             }
             
-            // Track converted beans for this file
-            List<String> convertedBeanIds = new ArrayList<>();
+            if (beans.isEmpty()) {
+                logger.info("No beans found in XML file: {}", xmlFile);
+                continue;
+            }
+            beansByXmlFile.put(xmlFile, beans);
             
-            // Process each bean
             for (SpringBean bean : beans) {
-                ConversionResult result = processBean(bean);
-                report.addConversionResult(result);
+                if (ImportGraphResolver.isImportDefinition(bean)) {
+                    results.put(bean, processImport(bean, importGraph));
+                    continue;
+                }
                 
-                if (result.isSuccessful()) {
-                    convertedBeanIds.add(bean.getId());
-                    report.setTotalBeansConverted(report.getTotalBeansConverted() + 1);
-                    report.setTotalPropertiesConverted(report.getTotalPropertiesConverted() + bean.getProperties().size());
-                    report.setTotalConstructorArgsConverted(report.getTotalConstructorArgsConverted() + bean.getConstructorArgs().size());
-                } else {
-                    logger.warn("Failed to convert bean: {} - {}", bean.getId(), result.getErrorMessage());
+                ConversionResult result = resolveJavaFile(bean);
+                if (result.getTargetFile() != null) {
+                    beansByJavaFile.computeIfAbsent(result.getTargetFile(), key -> new ArrayList<>()).add(bean);
+                    xmlFilesByJavaFile.computeIfAbsent(result.getTargetFile(), key -> new LinkedHashSet<>()).add(xmlFile);
                 }
+                results.put(bean, result);
             }
+        }
+        
+        TypeResolver typeResolver = null;
+        if (config.isTypeResolution()) {
+            typeResolver = createTypeResolver(beansByXmlFile);
+            javaModifier.setTypeResolver(typeResolver);
+        }
+        
+        // Each XML file waits for the Java files its beans map to
+        Map<String, Integer> pendingJavaFiles = new HashMap<>();
+        xmlFilesByJavaFile.values().forEach(xmlFiles -> xmlFiles.forEach(xmlFile -> pendingJavaFiles.merge(xmlFile, 1, Integer::sum)));
+        
+        int capacity = config.getPipelineQueueCapacity();
+        ThreadFactory writeThreads = ioThreads("write");
+        ThreadFactory rewriteThreads = ioThreads("rewrite");
+        // Rendered edits held back until the type resolver is done reading sources
+        List<JavaFileWork> deferredWrites = config.isTypeResolution() ? new ArrayList<>() : null;
+        Map<String, IOException> rewriteFailures = new ConcurrentHashMap<>();
+        try (PipelineStage<String> rewriteStage = new PipelineStage<>("rewrite",
+                    rewriteThreads != null ? config.getVirtualThreadConcurrency() : config.getXmlRewriteThreads(), capacity,
+                    rewriteThreads, xmlFile -> rewriteXmlFile(xmlFile, beansByXmlFile.get(xmlFile), results, rewriteFailures));
+             PipelineStage<JavaFileWork> mergeStage = new PipelineStage<>("merge", 1, capacity,
+                    new JavaResultMerger(pendingJavaFiles, results, rewriteStage));
+             PipelineStage<JavaFileWork> writeStage = writeThreads == null && deferredWrites == null ? null
+                    : new PipelineStage<>("write", writeThreads != null ? config.getVirtualThreadConcurrency()
+                            : config.getJavaModificationThreads(), capacity, writeThreads, work -> writeJavaFile(work, mergeStage),
+                            (work, e) -> publishFailed(work, e, mergeStage))) {
             
-            // Update XML file to comment out converted beans
-            if (!convertedBeanIds.isEmpty()) {
-                fileManager.updateXmlFile(xmlFilePath, convertedBeanIds);
+            for (String xmlFile : beansByXmlFile.keySet()) {
+                if (!pendingJavaFiles.containsKey(xmlFile)) {
+                    rewriteStage.submit(xmlFile);
+                }
             }
-            
-            // Remove empty XML file if configured
-            fileManager.removeEmptyXmlFile(xmlFilePath);
-            
-        } catch (XmlParsingException e) {
-            logger.error("Failed to parse XML file: {}", xmlFilePath, e);
-            report.addError(new ConversionError("XML parsing error: " + e.getMessage(), 
-                    xmlFilePath, ConversionError.ErrorType.XML_PARSING_ERROR));
-        } catch (IOException e) {
-            logger.error("Failed to process XML file: {}", xmlFilePath, e);
-            report.addError(new ConversionError("File processing error: " + e.getMessage(), 
-                    xmlFilePath, ConversionError.ErrorType.WRITE_ERROR));
+            Consumer<JavaFileWork> writer;
+            if (deferredWrites != null) {
+                writer = work -> {
+                    synchronized (deferredWrites) {
+                        deferredWrites.add(work);
+                    }
+                };
+            } else if (writeStage != null) {
+                writer = writeStage::submit;
+            } else {
+                writer = work -> writeJavaFile(work, mergeStage);
+            }
+            try (PipelineStage<JavaFileWork> modifyStage = new PipelineStage<>("modify", config.getJavaModificationThreads(),
+                    capacity, null, work -> modifyJavaFile(work, writer), (work, e) -> publishFailed(work, e, mergeStage))) {
+                // Each Java file is parsed once here, for all of its beans. With type resolution,
+                // the solver parses the sources it looks into again and keeps them in its
+                // bounded cache; compile verification has javac parse the written files anew
+                int index = 0;
+                for (Map.Entry<String, List<SpringBean>> entry : beansByJavaFile.entrySet()) {
+                    modifyStage.submit(new JavaFileWork(index++, entry.getKey(), entry.getValue(),
+                            xmlFilesByJavaFile.get(entry.getKey())));
+                }
+            } finally {
+                if (deferredWrites != null) {
+                    // Every file has been modified, so writing can no longer affect resolution
+                    deferredWrites.sort(Comparator.comparingInt(work -> work.index));
+                    deferredWrites.forEach(writeStage::submit);
+                }
+            }
+        }
+        
+        if (typeResolver != null) {
+            CacheStats parseCache = typeResolver.getParseCacheStats();
+            report.setParseCacheHits(parseCache.hitCount());
+            report.setParseCacheMisses(parseCache.missCount());
+            report.setParseCacheEvictions(parseCache.evictionCount());
         }
+        
+        if (config.isCompileVerification()) {
+            verifyJavaFiles(beansByJavaFile, results);
+        }
+        
+        beansByXmlFile.forEach((xmlFile, beans) -> recordXmlFile(xmlFile, beans, results, rewriteFailures.get(xmlFile)));
     }
 
-    private ConversionResult processBean(SpringBean bean) {
+    /**
+     * Finds the Java file a bean maps to. The returned result carries the file as its target,
+     * or is already final if there is no single matching file.
+     */
+    private ConversionResult resolveJavaFile(SpringBean bean) {
         logger.debug("Processing bean: {} ({})", bean.getId(), bean.getClassName());
         
         ConversionResult result = new ConversionResult(bean.getSourceFile(), bean.getId(), 
                 ConversionResult.ConversionType.BEAN_TO_COMPONENT);
+        result.setClassName(bean.getClassName());
         
-        try {
-            // Find corresponding Java file
-            List<String> javaFiles = javaModifier.findJavaFilesForClass(config.getProjectDirectory(), bean.getClassName());
+        // Find corresponding Java file
+        List<String> javaFiles = javaModifier.findJavaFilesForClass(fileManager.getProjectIndex(), bean.getClassName());
+        
+        if (javaFiles.isEmpty()) {
+            // No Java file found - create TODO
+            TodoItem todo = new TodoItem(
+                "No Java file found for bean: " + bean.getId() + " (class: " + bean.getClassName() + ")",
+                bean.getSourceFile(),
+                TodoItem.TodoCategory.AMBIGUOUS_BEAN_MAPPING
+            );
+            todo.setLineNumber(bean.getLineNumber());
+            todo.setPriority(TodoItem.TodoPriority.HIGH);
+            todo.setRelatedBeanId(bean.getId());
+            todo.setRelatedClassName(bean.getClassName());
+            todo.setSuggestedAction("Create or locate the Java class: " + bean.getClassName());
+            report.addTodoItem(todo);
             
-            if (javaFiles.isEmpty()) {
-                // No Java file found - create TODO
-                TodoItem todo = new TodoItem(
-                    "No Java file found for bean: " + bean.getId() + " (class: " + bean.getClassName() + ")",
-                    bean.getSourceFile(),
-                    TodoItem.TodoCategory.AMBIGUOUS_BEAN_MAPPING
-                );
-                todo.setPriority(TodoItem.TodoPriority.HIGH);
-                todo.setRelatedBeanId(bean.getId());
-                todo.setRelatedClassName(bean.getClassName());
-                todo.setSuggestedAction("Create or locate the Java class: " + bean.getClassName());
-                report.addTodoItem(todo);
-                
-                result.setStatus(ConversionResult.ConversionStatus.SKIPPED);
-                result.setErrorMessage("No Java file found for class: " + bean.getClassName());
-                return result;
-            }
+            result.setStatus(ConversionResult.ConversionStatus.SKIPPED);
+            result.setErrorMessage("No Java file found for class: " + bean.getClassName());
+            return result;
+        }
+        
+        if (javaFiles.size() > 1) {
+            // Multiple Java files found - create TODO
+            TodoItem todo = new TodoItem(
+                "Multiple Java files found for bean: " + bean.getId() + " (class: " + bean.getClassName() + ")",
+                bean.getSourceFile(),
+                TodoItem.TodoCategory.AMBIGUOUS_BEAN_MAPPING
+            );
+            todo.setLineNumber(bean.getLineNumber());
+            todo.setPriority(TodoItem.TodoPriority.HIGH);
+            todo.setRelatedBeanId(bean.getId());
+            todo.setRelatedClassName(bean.getClassName());
+            todo.setSuggestedAction("Manually specify which Java file to use: " + String.join(", ", javaFiles));
+            report.addTodoItem(todo);
             
-            if (javaFiles.size() > 1) {
-                // Multiple Java files found - create TODO
-                TodoItem todo = new TodoItem(
-                    "Multiple Java files found for bean: " + bean.getId() + " (class: " + bean.getClassName() + ")",
-                    bean.getSourceFile(),
-                    TodoItem.TodoCategory.AMBIGUOUS_BEAN_MAPPING
-                );
-                todo.setPriority(TodoItem.TodoPriority.HIGH);
-                todo.setRelatedBeanId(bean.getId());
-                todo.setRelatedClassName(bean.getClassName());
-                todo.setSuggestedAction("Manually specify which Java file to use: " + String.join(", ", javaFiles));
-                report.addTodoItem(todo);
+            result.setStatus(ConversionResult.ConversionStatus.SKIPPED);
+            result.setErrorMessage("Multiple Java files found for class: " + bean.getClassName());
+            return result;
+        }
+        
+        result.setTargetFile(javaFiles.get(0));
+        return result;
+    }
+
+    /**
+     * Builds the run's one type resolver, over the project's source roots and the configured
+     * dependency JARs, knowing every bean the run defines.
+     */
+    private TypeResolver createTypeResolver(Map<String, List<SpringBean>> beansByXmlFile) {
+        List<SpringBean> beans = new ArrayList<>();
+        for (List<SpringBean> fileBeans : beansByXmlFile.values()) {
+            for (SpringBean bean : fileBeans) {
+                if (!ImportGraphResolver.isImportDefinition(bean)) {
+                    beans.add(bean);
+                }
+            }
+        }
+        List<Path> dependencyJars = new ArrayList<>();
+        for (String jar : config.getDependencyJars()) {
+            dependencyJars.add(Path.of(config.getProjectDirectory()).resolve(jar));
+        }
+        return TypeResolver.create(fileManager.getProjectIndex().getSourceRoots(), dependencyJars,
+                LanguageLevel.valueOf(config.getJavaLanguageLevel()), config.getTypeResolutionCacheEntries(), beans);
+    }
+
+    /**
+     * Gets virtual threads for a stage that mostly waits on the file system, or null to use
+     * platform threads.
+     */
+    private ThreadFactory ioThreads(String stage) {
+        return config.isVirtualThreads() ? VirtualThreads.factory("converter-" + stage + "-") : null;
+    }
+
+    /**
+     * Modifies one Java file in memory on the modify stage, then hands it to the writer.
+     */
+    private void modifyJavaFile(JavaFileWork work, Consumer<JavaFileWork> writer) {
+        try {
+            work.edit = javaModifier.editJavaFile(work.javaFile, work.beans);
+        } catch (RuntimeException e) {
+            work.failure = e;
+        }
+        writer.accept(work);
+    }
+
+    /**
+     * Writes one modified Java file and passes it on to be merged.
+     */
+    private void writeJavaFile(JavaFileWork work, PipelineStage<JavaFileWork> mergeStage) {
+        try {
+            if (work.edit != null) {
+                javaModifier.writeJavaFile(work.edit);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to write Java file: {}", work.javaFile, e);
+            work.writeFailure = e;
+        } catch (RuntimeException e) {
+            logger.error("Failed to write Java file: {}", work.javaFile, e);
+            work.writeFailure = new IOException(e.getMessage(), e);
+        }
+        mergeStage.submit(work);
+    }
+
+    /**
+     * Passes a Java file that a stage failed on straight to the merge stage, marked as failed.
+     * The merge stage takes files in order and would otherwise wait for it forever.
+     */
+    private void publishFailed(JavaFileWork work, Throwable failure, PipelineStage<JavaFileWork> mergeStage) {
+        work.failure = failure;
+        mergeStage.submit(work);
+    }
+
+    /**
+     * Copies the results of modifying one Java file onto its beans' results.
+     */
+    private void mergeJavaResults(JavaFileWork work, Map<SpringBean, ConversionResult> results) {
+        String javaFile = work.javaFile;
+        List<SpringBean> beans = work.beans;
+        if (work.failure != null) {
+            logger.error("Error processing Java file: {}", javaFile, work.failure);
+            for (SpringBean bean : beans) {
+                ConversionResult result = results.get(bean);
+                result.setStatus(ConversionResult.ConversionStatus.FAILED);
+                result.setErrorMessage("Unexpected error: " + work.failure.getMessage());
                 
-                result.setStatus(ConversionResult.ConversionStatus.SKIPPED);
-                result.setErrorMessage("Multiple Java files found for class: " + bean.getClassName());
-                return result;
+                ConversionError error = new ConversionError("Bean processing error: " + work.failure.getMessage(), 
+                        bean.getSourceFile(), ConversionError.ErrorType.INVALID_BEAN_DEFINITION);
+                error.setLineNumber(bean.getLineNumber());
+                report.addError(error);
             }
-            
-            // Modify Java file
-            String javaFile = javaFiles.get(0);
-            ConversionResult javaResult = javaModifier.modifyJavaFile(javaFile, bean);
+            return;
+        }
+        
+        List<ConversionResult> javaResults = work.edit.getResults();
+        boolean modified = false;
+        for (int i = 0; i < beans.size(); i++) {
+            SpringBean bean = beans.get(i);
+            ConversionResult result = results.get(bean);
+            ConversionResult javaResult = javaResults.get(i);
             
             if (javaResult.isSuccessful()) {
-                report.setTotalJavaFilesModified(report.getTotalJavaFilesModified() + 1);
+                modified |= !javaResult.getAnnotationsAdded().isEmpty();
                 result.setStatus(ConversionResult.ConversionStatus.SUCCESS);
-                result.setTargetFile(javaFile);
                 result.setAnnotationsAdded(javaResult.getAnnotationsAdded());
                 result.setModifications(javaResult.getModifications());
             } else {
@@ -234,19 +494,227 @@ public class ConversionEngine {
                 todo.setSuggestedAction("Manually add Spring annotations to: " + javaFile);
                 report.addTodoItem(todo);
             }
+        }
+        
+        if (work.writeFailure != null) {
+            // XML is only updated for beans whose annotations reached disk
+            report.addError(new ConversionError("Failed to write Java file: " + work.writeFailure.getMessage(),
+                    javaFile, ConversionError.ErrorType.WRITE_ERROR));
+            for (SpringBean bean : beans) {
+                ConversionResult result = results.get(bean);
+                result.setStatus(ConversionResult.ConversionStatus.FAILED);
+                result.setErrorMessage("Failed to write Java file: " + work.writeFailure.getMessage());
+            }
+        } else if (modified) {
+            report.incrementTotalJavaFilesModified();
+        }
+    }
+
+    /**
+     * Compiles the Java files that were given annotations and attaches each compiler
+     * diagnostic to the results of the beans in that file. Errors are also reported, but
+     * leave the results as they are, since the annotations are already on disk.
+     */
+    private void verifyJavaFiles(Map<String, List<SpringBean>> beansByJavaFile, Map<SpringBean, ConversionResult> results) {
+        if (config.isDryRun()) {
+            logger.info("Skipping compile verification in dry run, as no Java files were written");
+            return;
+        }
+        List<String> modifiedFiles = new ArrayList<>();
+        beansByJavaFile.forEach((javaFile, beans) -> {
+            if (beans.stream().map(results::get)
+                    .anyMatch(result -> result.isSuccessful() && !result.getAnnotationsAdded().isEmpty())) {
+                modifiedFiles.add(javaFile);
+            }
+        });
+        if (modifiedFiles.isEmpty()) {
+            return;
+        }
+        
+        Path projectDirectory = Path.of(config.getProjectDirectory());
+        List<Path> classpath = new ArrayList<>();
+        classpath.add(projectDirectory.resolve("target/classes"));
+        classpath.add(projectDirectory.resolve("build/classes/java/main"));
+        for (String entry : config.getDependencyJars()) {
+            classpath.add(projectDirectory.resolve(entry));
+        }
+        for (String entry : config.getCompileClasspath()) {
+            classpath.add(projectDirectory.resolve(entry));
+        }
+        
+        long start = System.currentTimeMillis();
+        int errors = 0;
+        try (CompileVerifier verifier = CompileVerifier.create(fileManager.getProjectIndex().getSourceRoots(),
+                classpath, LanguageLevel.valueOf(config.getJavaLanguageLevel()))) {
+            if (verifier == null) {
+                return;
+            }
+            for (Map.Entry<String, List<CompileVerifier.Problem>> entry : verifier.verify(modifiedFiles).entrySet()) {
+                for (CompileVerifier.Problem problem : entry.getValue()) {
+                    for (SpringBean bean : beansByJavaFile.get(entry.getKey())) {
+                        results.get(bean).addCompileDiagnostic(problem.toString());
+                    }
+                    if (problem.isError()) {
+                        ConversionError error = new ConversionError("Does not compile: " + problem.getMessage(),
+                                entry.getKey(), ConversionError.ErrorType.COMPILE_ERROR);
+                        error.setLineNumber((int) problem.getLine());
+                        report.addError(error);
+                        errors++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Error closing the compile verifier", e);
+        }
+        report.setTotalJavaFilesVerified(modifiedFiles.size());
+        report.setTotalCompileErrors(errors);
+        logger.info("Compiled {} modified Java files in {} ms: {} errors", modifiedFiles.size(),
+                System.currentTimeMillis() - start, errors);
+    }
+
+    /**
+     * Comments out the converted beans of one XML file on the rewrite stage, removing the
+     * file if nothing is left in it.
+     */
+    private void rewriteXmlFile(String xmlFilePath, List<SpringBean> beans, Map<SpringBean, ConversionResult> results,
+                                Map<String, IOException> rewriteFailures) {
+        List<SpringBean> convertedBeans = new ArrayList<>();
+        for (SpringBean bean : beans) {
+            if (!ImportGraphResolver.isImportDefinition(bean) && results.get(bean).isSuccessful()) {
+                convertedBeans.add(bean);
+            }
+        }
+        
+        try {
+            // Update XML file to comment out converted beans
+            boolean empty = false;
+            if (!convertedBeans.isEmpty()) {
+                empty = fileManager.updateXmlFile(xmlFilePath, convertedBeans);
+            }
             
-        } catch (Exception e) {
-            logger.error("Error processing bean: {}", bean.getId(), e);
-            result.setStatus(ConversionResult.ConversionStatus.FAILED);
-            result.setErrorMessage("Unexpected error: " + e.getMessage());
+            // Remove empty XML file if configured
+            fileManager.removeEmptyXmlFile(xmlFilePath, empty);
             
-            report.addError(new ConversionError("Bean processing error: " + e.getMessage(), 
-                    bean.getSourceFile(), ConversionError.ErrorType.INVALID_BEAN_DEFINITION));
+        } catch (IOException e) {
+            logger.error("Failed to process XML file: {}", xmlFilePath, e);
+            rewriteFailures.put(xmlFilePath, e);
+        }
+    }
+
+    /**
+     * Records the results for the beans of one XML file, and the failure to rewrite it if any.
+     */
+    private void recordXmlFile(String xmlFilePath, List<SpringBean> beans, Map<SpringBean, ConversionResult> results,
+                               IOException rewriteFailure) {
+        for (SpringBean bean : beans) {
+            ConversionResult result = results.get(bean);
+            report.addConversionResult(result);
+            
+            if (ImportGraphResolver.isImportDefinition(bean)) {
+                continue;
+            }
+            if (result.isSuccessful()) {
+                report.incrementTotalBeansConverted();
+                report.addTotalPropertiesConverted(bean.getProperties().size());
+                report.addTotalConstructorArgsConverted(bean.getConstructorArgs().size());
+            } else {
+                logger.warn("Failed to convert bean: {} - {}", bean.getId(), result.getErrorMessage());
+            }
         }
         
+        if (rewriteFailure != null) {
+            report.addError(new ConversionError("File processing error: " + rewriteFailure.getMessage(), 
+                    xmlFilePath, ConversionError.ErrorType.WRITE_ERROR));
+        }
+    }
+
+    /**
+     * Records an import. Imported files are converted in their own right, so the import
+     * itself is left in place.
+     */
+    private ConversionResult processImport(SpringBean importBean, ImportGraph importGraph) {
+        String resource = ImportGraphResolver.getImportResource(importBean);
+        ConversionResult result = new ConversionResult(importBean.getSourceFile(), importBean.getId(),
+                ConversionResult.ConversionType.IMPORT_RESOURCE);
+        result.setClassName(importBean.getClassName());
+        result.setStatus(ConversionResult.ConversionStatus.SKIPPED);
+        
+        List<Path> targets = importGraph.getImportTargets(importBean);
+        if (targets.isEmpty()) {
+            result.setErrorMessage("Unresolved import: " + resource);
+            
+            TodoItem todo = new TodoItem("Could not resolve imported resource: " + resource,
+                    importBean.getSourceFile(), TodoItem.TodoCategory.CONFIGURATION_ISSUE);
+            todo.setLineNumber(importBean.getLineNumber());
+            todo.setPriority(TodoItem.TodoPriority.MEDIUM);
+            todo.setSuggestedAction("Convert the imported configuration manually or add @ImportResource(\"" + resource + "\")");
+            report.addTodoItem(todo);
+        } else {
+            result.setErrorMessage("Import resolved to " + targets.size() + " file(s); converted separately");
+        }
         return result;
     }
 
+    /**
+     * A Java file on its way through the modify and merge stages.
+     */
+    private static final class JavaFileWork {
+        final int index;
+        final String javaFile;
+        final List<SpringBean> beans;
+        final Set<String> xmlFiles;
+        // Set on the modify and write stages
+        JavaSourceModifier.Edit edit;
+        Throwable failure;
+        IOException writeFailure;
+
+        JavaFileWork(int index, String javaFile, List<SpringBean> beans, Set<String> xmlFiles) {
+            this.index = index;
+            this.javaFile = javaFile;
+            this.beans = beans;
+            this.xmlFiles = xmlFiles;
+        }
+    }
+
+    /**
+     * Merges modified Java files in the order they were submitted, whatever order the modify
+     * stage finishes them in, and sends each XML file to the rewrite stage once the last of
+     * its Java files is merged. Runs on the single merge worker.
+     */
+    private final class JavaResultMerger implements Consumer<JavaFileWork> {
+        private final Map<Integer, JavaFileWork> waiting = new HashMap<>();
+        private final Map<String, Integer> pendingJavaFiles;
+        private final Map<SpringBean, ConversionResult> results;
+        private final PipelineStage<String> rewriteStage;
+        private int next;
+
+        JavaResultMerger(Map<String, Integer> pendingJavaFiles, Map<SpringBean, ConversionResult> results,
+                         PipelineStage<String> rewriteStage) {
+            this.pendingJavaFiles = pendingJavaFiles;
+            this.results = results;
+            this.rewriteStage = rewriteStage;
+        }
+
+        @Override
+        public void accept(JavaFileWork work) {
+            waiting.put(work.index, work);
+            for (JavaFileWork ready = waiting.remove(next); ready != null; ready = waiting.remove(next)) {
+                next++;
+                try {
+                    mergeJavaResults(ready, results);
+                } catch (RuntimeException e) {
+                    // Keep going, so the files queued behind this one are still merged
+                    logger.error("Failed to merge the results of Java file: {}", ready.javaFile, e);
+                }
+                for (String xmlFile : ready.xmlFiles) {
+                    if (pendingJavaFiles.merge(xmlFile, -1, Integer::sum) == 0) {
+                        rewriteStage.submit(xmlFile);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Gets the conversion report.
      */
@@ -0,0 +1,143 @@
+package com.springconverter.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * One stage of the conversion pipeline: a bounded queue drained by a fixed number of worker
+ * threads. Submitting blocks while the queue is full, so a stage that falls behind slows
+ * down the stages feeding it rather than letting work pile up in memory. Closing the stage
+ * waits for it to drain, so stages closed in the order they are fed from shut down cleanly.
+ */
+final class PipelineStage<T> implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PipelineStage.class);
+
+    // Tells one worker that no more work is coming
+    private static final Object END = new Object();
+
+    private final String name;
+    private final Consumer<T> handler;
+    private final BiConsumer<T, Throwable> failureHandler;
+    private final BlockingQueue<Object> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    PipelineStage(String name, int workerCount, int capacity, Consumer<T> handler) {
+        this(name, workerCount, capacity, null, handler);
+    }
+
+    /**
+     * Creates a stage whose workers come from the given factory, or are daemon platform
+     * threads if it is null.
+     */
+    PipelineStage(String name, int workerCount, int capacity, ThreadFactory threadFactory, Consumer<T> handler) {
+        this(name, workerCount, capacity, threadFactory, handler, null);
+    }
+
+    /**
+     * Creates a stage that also hands every item the handler fails on, with the failure, to
+     * the failure handler. A stage that feeds one waiting for every item can use it to pass
+     * on a failed item in place of the one that was lost.
+     */
+    PipelineStage(String name, int workerCount, int capacity, ThreadFactory threadFactory, Consumer<T> handler,
+                  BiConsumer<T, Throwable> failureHandler) {
+        this.name = name;
+        this.handler = handler;
+        this.failureHandler = failureHandler;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            Thread worker;
+            if (threadFactory != null) {
+                worker = threadFactory.newThread(this::drain);
+            } else {
+                worker = new Thread(this::drain, "converter-" + name + "-" + i);
+                worker.setDaemon(true);
+            }
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues an item for the workers, waiting while the queue is full.
+     */
+    void submit(T item) {
+        put(item);
+    }
+
+    /**
+     * Waits for every queued item to be handled and stops the workers. Throws if a worker
+     * failed on an item; the remaining items are still handled first.
+     */
+    @Override
+    public void close() {
+        for (int i = 0; i < workers.size(); i++) {
+            put(END);
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for the " + name + " stage", e);
+            }
+        }
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new IllegalStateException("The " + name + " stage failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    private void put(Object item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted queueing work for the " + name + " stage", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        while (true) {
+            Object item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (item == END) {
+                return;
+            }
+            try {
+                handler.accept((T) item);
+            } catch (RuntimeException | Error e) {
+                // Keep draining, so producers waiting on a full queue are not stuck
+                logger.error("Error in the {} stage", name, e);
+                failure.compareAndSet(null, e);
+                handleFailure((T) item, e);
+            }
+        }
+    }
+
+    private void handleFailure(T item, Throwable cause) {
+        if (failureHandler == null) {
+            return;
+        }
+        try {
+            failureHandler.accept(item, cause);
+        } catch (RuntimeException | Error e) {
+            logger.error("Error handling a failed item in the {} stage", name, e);
+        }
+    }
+}
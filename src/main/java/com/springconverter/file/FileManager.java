@@ -3,65 +3,259 @@ package com.springconverter.file;
 import com.springconverter.config.ConverterConfig;
 import com.springconverter.model.ConversionError;
 import com.springconverter.model.ConversionReport;
+import com.springconverter.model.SourcePosition;
+import com.springconverter.model.SpringBean;
+import com.springconverter.parser.PositionTrackingReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Manages file operations, backups, and directory traversal for the conversion process.
  */
 public class FileManager {
     private static final Logger logger = LoggerFactory.getLogger(FileManager.class);
+    // Build files that mark a directory as the root of a module
+    private static final List<String> MODULE_MARKERS = List.of("pom.xml", "build.gradle", "build.gradle.kts", "package.json");
+    private static final String PRINTABLE_ASCII = printableAscii();
     private final ConverterConfig config;
     private final ConversionReport report;
+    private final SpringXmlSniffer sniffer;
+    private ProjectIndex projectIndex;
 
     public FileManager(ConverterConfig config, ConversionReport report) {
         this.config = config;
         this.report = report;
+        this.sniffer = new SpringXmlSniffer();
+        this.projectIndex = new ProjectIndex();
     }
 
     /**
      * Finds all XML files in the project directory that match Spring configuration patterns.
+     * Java sources seen during the same traversal are recorded in the project index.
      */
     public List<String> findXmlFiles(String projectDirectory) {
-        List<String> xmlFiles = new ArrayList<>();
+        return findXmlFiles(projectDirectory, xmlFile -> { });
+    }
+
+    /**
+     * Finds all Spring XML files like {@link #findXmlFiles(String)}, also handing each one to
+     * the consumer as soon as it is found. The consumer is called concurrently from
+     * discovery threads.
+     */
+    public List<String> findXmlFiles(String projectDirectory, Consumer<String> xmlFileConsumer) {
+        ConcurrentLinkedQueue<String> found = new ConcurrentLinkedQueue<>();
+        scanProject(projectDirectory, xmlFile -> {
+            found.add(xmlFile);
+            xmlFileConsumer.accept(xmlFile);
+        });
         
-        try {
-            Files.walk(Path.of(projectDirectory))
-                    .filter(path -> path.toString().endsWith(".xml"))
-                    .filter(path -> isSpringXmlFile(path.toString()))
-                    .filter(path -> !config.shouldExcludeFile(path.toString()))
-                    .filter(path -> config.shouldIncludeFile(path.toString()))
-                    .forEach(path -> xmlFiles.add(path.toString()));
-        } catch (IOException e) {
+        // The walk is parallel, so restore a stable processing order
+        List<String> xmlFiles = new ArrayList<>(found);
+        Collections.sort(xmlFiles);
+        
+        logger.info("Found {} XML files and {} Java files in project directory", 
+                xmlFiles.size(), projectIndex.getJavaFileCount());
+        return xmlFiles;
+    }
+
+    /**
+     * Walks the project directory once, streaming Spring XML files to the consumer as they are
+     * found and rebuilding the project index from the Java sources seen along the way.
+     * The consumer is called concurrently from discovery threads.
+     */
+    public void scanProject(String projectDirectory, Consumer<String> xmlFileConsumer) {
+        Path cacheFile = config.isUseScanCache() ? resolveScanCacheFile(projectDirectory) : null;
+        ScanCache previousScan = cacheFile != null ? ScanCache.load(cacheFile) : new ScanCache();
+        ScanCache currentScan = new ScanCache();
+        LongAdder reusedEntries = new LongAdder();
+        ConcurrentLinkedQueue<Path> javaFiles = new ConcurrentLinkedQueue<>();
+        Map<Path, Boolean> candidateDirectories = new ConcurrentHashMap<>();
+        
+        List<IOException> failures = walkProject(projectDirectory, (path, attrs) -> {
+            String pathString = path.toString();
+            if (pathString.endsWith(".java")) {
+                // Derived from the path alone, so cheaper to redo than to look up in the cache
+                javaFiles.add(path);
+            } else if (pathString.endsWith(".xml")
+                    && isCandidateDirectory(path.getParent(), candidateDirectories)
+                    && !config.shouldExcludeFile(pathString)
+                    && config.shouldIncludeFile(pathString)
+                    && isSpringXmlFile(pathString, attrs, previousScan, currentScan, reusedEntries)) {
+                xmlFileConsumer.accept(pathString);
+            }
+        });
+        
+        for (IOException e : failures) {
             logger.error("Error searching for XML files in: {}", projectDirectory, e);
             report.addError(new ConversionError("Failed to search for XML files: " + e.getMessage(), 
                     projectDirectory, ConversionError.ErrorType.FILE_NOT_FOUND));
         }
         
-        logger.info("Found {} XML files in project directory", xmlFiles.size());
-        return xmlFiles;
+        // Index in sorted order so that files declaring the same class are listed the same way every run
+        List<Path> sortedJavaFiles = new ArrayList<>(javaFiles);
+        Collections.sort(sortedJavaFiles);
+        ProjectIndex index = new ProjectIndex();
+        sortedJavaFiles.forEach(index::addJavaFile);
+        projectIndex = index;
+        
+        if (cacheFile != null) {
+            logger.info("Scan cache: reused {} of {} entries", reusedEntries.sum(), currentScan.size());
+            if (config.isDryRun()) {
+                logger.info("DRY RUN: Would write scan cache: {}", cacheFile);
+                return;
+            }
+            try {
+                currentScan.save(cacheFile);
+            } catch (IOException e) {
+                logger.warn("Could not write scan cache: {}", cacheFile, e);
+            }
+        }
+    }
+
+    /**
+     * Places the scan cache in the backup directory, else next to the report. Returns null,
+     * leaving the cache unused, if neither is set or the place is inside the scanned tree.
+     */
+    private Path resolveScanCacheFile(String projectDirectory) {
+        Path directory = null;
+        String backupDir = config.getBackupDirectory();
+        String reportPath = config.getReportOutputPath();
+        if (backupDir != null && !backupDir.isEmpty()) {
+            directory = Path.of(backupDir);
+        } else if (reportPath != null && !reportPath.isEmpty()) {
+            directory = Path.of(reportPath).toAbsolutePath().getParent();
+        }
+        if (directory == null) {
+            logger.info("Not using the scan cache, as neither a backup directory nor a report path is set");
+            return null;
+        }
+        
+        directory = directory.toAbsolutePath().normalize();
+        if (directory.startsWith(Path.of(projectDirectory).toAbsolutePath().normalize())) {
+            logger.info("Not using the scan cache, as {} is inside the project directory", directory);
+            return null;
+        }
+        return directory.resolve(ScanCache.CACHE_FILE_NAME);
+    }
+
+    /**
+     * Checks once per directory whether the include/exclude patterns can accept anything
+     * below it; directories they rule out skip per-file matching and sniffing entirely.
+     */
+    private boolean isCandidateDirectory(Path directory, Map<Path, Boolean> candidateDirectories) {
+        if (directory == null) {
+            return true;
+        }
+        return candidateDirectories.computeIfAbsent(directory, 
+                dir -> config.mayContainIncludedFiles(dir.toString()));
+    }
+
+    private List<IOException> walkProject(String projectDirectory, BiConsumer<Path, BasicFileAttributes> fileConsumer) {
+        Path root = Path.of(projectDirectory);
+        ThreadFactory virtualThreads = config.isVirtualThreads() ? VirtualThreads.factory("converter-discovery-") : null;
+        if (virtualThreads != null) {
+            // Listing and sniffing wait on the file system, so a virtual thread per directory
+            ExecutorService executor = Executors.newCachedThreadPool(virtualThreads);
+            try {
+                ParallelFileWalker walker = new ParallelFileWalker(executor, config.getVirtualThreadConcurrency(),
+                        directory -> shouldDescendInto(root, directory));
+                return walker.walk(root, fileConsumer);
+            } finally {
+                executor.shutdown();
+            }
+        }
+        
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, config.getDiscoveryThreads()));
+        try {
+            ParallelFileWalker walker = new ParallelFileWalker(pool, directory -> shouldDescendInto(root, directory));
+            return walker.walk(root, fileConsumer);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Skips build output and tool directories, such as target or node_modules, that sit
+     * directly in the project directory or in a module. A source package that happens to
+     * share the name, such as com/acme/build, is still walked.
+     */
+    private boolean shouldDescendInto(Path root, Path directory) {
+        if (!config.getPrunedDirectories().contains(directory.getFileName().toString())) {
+            return true;
+        }
+        Path parent = directory.getParent();
+        return parent != null && !parent.equals(root) && !isModuleRoot(parent);
+    }
+
+    private static boolean isModuleRoot(Path directory) {
+        for (String marker : MODULE_MARKERS) {
+            if (Files.isRegularFile(directory.resolve(marker))) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * Determines if a file is a Spring XML configuration file.
+     * Gets the index of Java sources built by the last call to {@link #findXmlFiles(String)}.
      */
-    private boolean isSpringXmlFile(String filePath) {
+    public ProjectIndex getProjectIndex() {
+        return projectIndex;
+    }
+
+    /**
+     * Determines if a file is a Spring XML configuration file, reusing the previous scan's
+     * answer when the file is unchanged and recording the answer for the next scan.
+     */
+    private boolean isSpringXmlFile(String filePath, BasicFileAttributes attrs, ScanCache previousScan, 
+                                    ScanCache currentScan, LongAdder reusedEntries) {
+        ScanCache.Entry entry = previousScan.lookup(filePath, attrs);
+        if (entry != null) {
+            reusedEntries.increment();
+            currentScan.put(entry);
+            return entry.isSpringXml();
+        }
+        
         try {
-            String content = Files.readString(Path.of(filePath));
-            return content.contains("xmlns:beans") || 
-                   content.contains("http://www.springframework.org/schema/beans") ||
-                   content.contains("<bean") ||
-                   content.contains("context:component-scan") ||
-                   content.contains("aop:config") ||
-                   content.contains("tx:advice");
+            boolean springXml = sniffer.isSpringXml(Path.of(filePath));
+            currentScan.put(new ScanCache.Entry(filePath, attrs, springXml));
+            return springXml;
         } catch (IOException e) {
             logger.warn("Could not read file to determine if it's a Spring XML: {}", filePath);
             return false;
@@ -155,60 +349,240 @@ public class FileManager {
     }
 
     /**
-     * Removes or comments out bean definitions from XML files after conversion.
+     * Comments out the definitions of converted beans, writing the new content to a
+     * temporary file that then replaces the original. Beans are located by the source
+     * offsets the parser recorded. Files below the streaming threshold are rewritten in
+     * memory, which keeps the rest of the file byte for byte. Larger files are streamed, with
+     * the XML reader matching each bean's start as it goes, and are likewise copied unchanged
+     * around them. An inner bean is only commented out as part of its enclosing bean. Either
+     * way, returns whether the file is left with nothing but comments, decided in the same
+     * pass.
      */
-    public void updateXmlFile(String xmlFilePath, List<String> convertedBeanIds) throws IOException {
+    public boolean updateXmlFile(String xmlFilePath, List<SpringBean> convertedBeans) throws IOException {
         if (config.isDryRun()) {
             logger.info("DRY RUN: Would update XML file: {}", xmlFilePath);
-            return;
+            return false;
         }
         
-        String content = Files.readString(Path.of(xmlFilePath));
-        String originalContent = content;
+        // An inner bean goes with its enclosing bean: into its comment if that was converted too,
+        // and otherwise it stays where it is
+        List<SpringBean> outermostBeans = new ArrayList<>();
+        for (SpringBean bean : convertedBeans) {
+            if (bean.getEnclosingBean() == null) {
+                outermostBeans.add(bean);
+            }
+        }
         
-        // Comment out converted bean definitions
-        for (String beanId : convertedBeanIds) {
-            content = commentOutBeanDefinition(content, beanId);
+        Path path = Path.of(xmlFilePath);
+        boolean remaining;
+        if (Files.size(path) >= config.getStreamingThresholdBytes()) {
+            remaining = rewriteStreaming(path, outermostBeans);
+        } else {
+            byte[] content = Files.readAllBytes(path);
+            Charset charset = detectCharset(content);
+            if (isAsciiCompatible(charset)) {
+                remaining = rewriteInMemory(path, content, charset, outermostBeans);
+            } else {
+                // Byte offsets and markup bytes only line up with ASCII in such charsets; the
+                // streaming rewrite works on decoded text and keeps the encoding as it is
+                logger.debug("Rewriting {} XML file as a stream: {}", charset, path);
+                remaining = rewriteStreaming(path, outermostBeans);
+            }
+        }
+        logger.info("Updated XML file: {}", xmlFilePath);
+        return !remaining;
+    }
+
+    private boolean rewriteInMemory(Path path, byte[] content, Charset charset, List<SpringBean> convertedBeans)
+            throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        List<String> unlocatedBeanIds = new ArrayList<>();
+        for (SpringBean bean : convertedBeans) {
+            SourcePosition start = bean.getStartPosition();
+            SourcePosition end = bean.getEndPosition();
+            if (start != null && end != null && start.getByteOffset() >= 0 && end.getByteOffset() > start.getByteOffset()
+                    && end.getByteOffset() <= content.length) {
+                ranges.add(new long[] {start.getByteOffset(), end.getByteOffset()});
+            } else {
+                unlocatedBeanIds.add(bean.getId());
+            }
+        }
+        if (!unlocatedBeanIds.isEmpty()) {
+            // Only when the parser could not place a bean; found again by searching the text
+            logger.warn("No source offsets for {} beans in {}; searching the text for them", unlocatedBeanIds.size(), path);
+            String text = new String(content, charset);
+            for (String beanId : unlocatedBeanIds) {
+                long[] range = findBeanDefinition(text, charset, beanId);
+                if (range != null) {
+                    ranges.add(range);
+                }
+            }
         }
         
-        // Write updated content if changed
-        if (!content.equals(originalContent)) {
-            writeFile(xmlFilePath, content);
-            logger.info("Updated XML file: {}", xmlFilePath);
+        // Whatever lies outside the commented ranges is left, so emptiness needs no parse
+        List<long[]> commented = outermostRanges(ranges);
+        boolean remaining = XmlRewriter.hasDefinitionsOutside(content, commented);
+        List<Splice> splices = commentOutSplices(content, commented);
+        replaceFile(path, out -> Splice.write(content, splices, charset, out));
+        return remaining;
+    }
+
+    private boolean rewriteStreaming(Path path, List<SpringBean> convertedBeans) throws IOException {
+        // Beans are matched by where the parser found them, as in the in-memory rewrite
+        Set<Long> convertedBeanOffsets = new HashSet<>();
+        for (SpringBean bean : convertedBeans) {
+            if (bean.getStartPosition() == null) {
+                logger.warn("Bean {} of class {} in {} has no source position and is left in place",
+                        bean.getId(), bean.getClassName(), path);
+            } else {
+                convertedBeanOffsets.add(bean.getStartPosition().getCharOffset());
+            }
         }
+        
+        logger.info("Rewriting XML file as a stream: {}", path);
+        boolean[] remaining = new boolean[1];
+        replaceFile(path, out -> {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+                remaining[0] = XmlRewriter.rewrite(in, out, convertedBeanOffsets);
+            } catch (XMLStreamException e) {
+                throw new IOException("Failed to rewrite XML file: " + path, e);
+            }
+        });
+        return remaining[0];
     }
 
     /**
-     * Comments out a bean definition in XML content.
+     * Writes new content for a file to a temporary file beside it, with the file's
+     * permissions, then moves that into place, so the original is never left half written.
+     * A backup is taken first if enabled.
      */
-    private String commentOutBeanDefinition(String content, String beanId) {
-        // Simple regex to find and comment out bean definitions
-        // This is a basic implementation - could be enhanced with proper XML parsing
-        String pattern = "(<bean[^>]*id=\"" + beanId + "\"[^>]*>.*?</bean>)";
-        String replacement = "<!-- Converted to annotation: $1 -->";
-        
-        return content.replaceAll(pattern, replacement);
+    private void replaceFile(Path path, ContentWriter writer) throws IOException {
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel))) {
+                writer.write(out);
+                out.flush();
+                channel.force(false);
+            }
+            // The temporary file is created private to its owner; keep the original's mode
+            if (Files.getFileStore(path).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(path));
+            }
+            createBackup(path.toString());
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
     }
 
     /**
-     * Removes empty XML files if configured to do so.
+     * Writes a file's new content.
      */
-    public void removeEmptyXmlFile(String xmlFilePath) throws IOException {
-        if (!config.isRemoveEmptyXmlFiles()) {
+    private interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Sorts ranges by where they start and drops those inside another range, such as a
+     * nested bean, which the outer comment covers.
+     */
+    private static List<long[]> outermostRanges(List<long[]> ranges) {
+        List<long[]> ordered = new ArrayList<>(ranges);
+        ordered.sort(Comparator.comparingLong(range -> range[0]));
+        List<long[]> outermost = new ArrayList<>();
+        long covered = 0;
+        for (long[] range : ordered) {
+            if (range[0] >= covered) {
+                outermost.add(range);
+                covered = range[1];
+            }
+        }
+        return outermost;
+    }
+
+    /**
+     * Builds the insertions that turn each of the ordered, non-overlapping ranges into a
+     * comment. A "--" inside a range would end the comment early, so a space is put between
+     * the dashes.
+     */
+    private static List<Splice> commentOutSplices(byte[] content, List<long[]> ranges) {
+        List<Splice> splices = new ArrayList<>();
+        for (long[] range : ranges) {
+            int start = (int) range[0];
+            int end = (int) range[1];
+            splices.add(Splice.insert(start, "<!-- " + XmlRewriter.COMMENT_PREFIX));
+            for (int i = start; i + 1 < end; i++) {
+                if (content[i] == '-' && content[i + 1] == '-') {
+                    splices.add(Splice.insert(i + 1, " "));
+                }
+            }
+            splices.add(Splice.insert(end, " -->"));
+        }
+        return splices;
+    }
+
+    /**
+     * Finds the byte range of a bean definition by its id in XML content decoded from the
+     * given charset, or returns null if it is not there.
+     */
+    private static long[] findBeanDefinition(String content, Charset charset, String beanId) {
+        Pattern pattern = Pattern.compile("<bean\\b[^>]*\\bid=\"" + Pattern.quote(beanId) + "\"[^>]*?(/>|>.*?</bean>)",
+                Pattern.DOTALL);
+        Matcher matcher = pattern.matcher(content);
+        if (!matcher.find()) {
+            return null;
+        }
+        long start = encodedLength(content, 0, matcher.start(), charset);
+        return new long[] {start, start + encodedLength(content, matcher.start(), matcher.end(), charset)};
+    }
+
+    private static long encodedLength(String content, int from, int to, Charset charset) {
+        return content.substring(from, to).getBytes(charset).length;
+    }
+
+    /**
+     * Detects the encoding of XML content the way the parser does, from the byte order mark
+     * or the XML declaration.
+     */
+    private static Charset detectCharset(byte[] content) throws IOException {
+        try (PositionTrackingReader reader = PositionTrackingReader.open(new ByteArrayInputStream(content))) {
+            return reader.getCharset();
+        }
+    }
+
+    /**
+     * Checks whether a charset is UTF-8 or a single-byte charset that encodes ASCII as ASCII
+     * does. Only then are the parser's byte offsets known and markup found by its bytes.
+     */
+    static boolean isAsciiCompatible(Charset charset) {
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            return true;
+        }
+        if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1.0f) {
+            return false;
+        }
+        return Arrays.equals(PRINTABLE_ASCII.getBytes(charset), PRINTABLE_ASCII.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Removes an XML file left with nothing but comments, if configured to do so. Whether it
+     * is empty comes from the rewrite, so the file is not read again.
+     */
+    public void removeEmptyXmlFile(String xmlFilePath, boolean empty) throws IOException {
+        if (!config.isRemoveEmptyXmlFiles() || !empty) {
             return;
         }
         
-        String content = Files.readString(Path.of(xmlFilePath));
-        String trimmedContent = content.trim();
-        
-        // Check if file is essentially empty (only contains XML declaration and empty root element)
-        if (trimmedContent.matches("^<\\?xml[^>]*\\?>\\s*<[^>]*>\\s*</[^>]*>\\s*$")) {
-            if (config.isDryRun()) {
-                logger.info("DRY RUN: Would remove empty XML file: {}", xmlFilePath);
-            } else {
-                Files.delete(Path.of(xmlFilePath));
-                logger.info("Removed empty XML file: {}", xmlFilePath);
-            }
+        if (config.isDryRun()) {
+            logger.info("DRY RUN: Would remove empty XML file: {}", xmlFilePath);
+        } else {
+            Files.delete(Path.of(xmlFilePath));
+            logger.info("Removed empty XML file: {}", xmlFilePath);
         }
     }
 
@@ -291,13 +665,20 @@ public class FileManager {
      * Gets the total number of files in the project directory.
      */
     public long getTotalFileCount(String projectDirectory) {
-        try {
-            return Files.walk(Path.of(projectDirectory))
-                    .filter(Files::isRegularFile)
-                    .count();
-        } catch (IOException e) {
+        LongAdder count = new LongAdder();
+        List<IOException> failures = walkProject(projectDirectory, (path, attrs) -> count.increment());
+        if (!failures.isEmpty()) {
             logger.warn("Could not count files in project directory: {}", projectDirectory);
             return -1;
         }
+        return count.sum();
+    }
+
+    private static String printableAscii() {
+        StringBuilder ascii = new StringBuilder("\t\n\r");
+        for (char c = ' '; c < 0x7F; c++) {
+            ascii.append(c);
+        }
+        return ascii.toString();
     }
-} 
\ No newline at end of file
+}
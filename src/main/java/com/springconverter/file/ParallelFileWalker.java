@@ -0,0 +1,167 @@
+package com.springconverter.file;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Walks a directory tree in parallel on a work-stealing pool, fanning out one task per
+ * directory. Regular files are streamed to a consumer together with the attributes read
+ * while listing their directory, so no extra stat calls are issued.
+ * <p>
+ * Alternatively the tasks run on a plain executor, such as one starting a virtual thread per
+ * task, with a cap on how many directories are listed at once.
+ */
+public class ParallelFileWalker {
+    private final ForkJoinPool pool;
+    private final Executor executor;
+    private final Semaphore listings;
+    private final Predicate<Path> directoryFilter;
+
+    /**
+     * Creates a walker that descends only into directories accepted by the filter.
+     */
+    public ParallelFileWalker(ForkJoinPool pool, Predicate<Path> directoryFilter) {
+        this.pool = pool;
+        this.executor = null;
+        this.listings = null;
+        this.directoryFilter = directoryFilter;
+    }
+
+    /**
+     * Creates a walker that runs one task per directory on the executor, listing at most the
+     * given number of directories at once, and descends only into directories accepted by
+     * the filter.
+     */
+    public ParallelFileWalker(Executor executor, int maxConcurrentListings, Predicate<Path> directoryFilter) {
+        this.pool = null;
+        this.executor = executor;
+        this.listings = new Semaphore(Math.max(1, maxConcurrentListings));
+        this.directoryFilter = directoryFilter;
+    }
+
+    /**
+     * Walks the tree below the root, passing every regular file to the consumer as it is found.
+     * The consumer is called concurrently from pool threads and must be thread-safe.
+     *
+     * @return the failures met while listing directories; the walk continues past them
+     */
+    public List<IOException> walk(Path root, BiConsumer<Path, BasicFileAttributes> fileConsumer) {
+        ConcurrentLinkedQueue<IOException> failures = new ConcurrentLinkedQueue<>();
+        if (pool != null) {
+            pool.invoke(new DirectoryTask(root, fileConsumer, failures));
+        } else {
+            walkOnExecutor(root, fileConsumer, failures);
+        }
+        return new ArrayList<>(failures);
+    }
+
+    private void walkOnExecutor(Path root, BiConsumer<Path, BasicFileAttributes> fileConsumer,
+                                ConcurrentLinkedQueue<IOException> failures) {
+        AtomicInteger pending = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        submit(root, fileConsumer, failures, pending, done);
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.add(new IOException("Interrupted while walking " + root, e));
+        }
+    }
+
+    private void submit(Path directory, BiConsumer<Path, BasicFileAttributes> fileConsumer,
+                        ConcurrentLinkedQueue<IOException> failures, AtomicInteger pending, CountDownLatch done) {
+        pending.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                listings.acquire();
+                try {
+                    list(directory, fileConsumer, failures,
+                            subdirectory -> submit(subdirectory, fileConsumer, failures, pending, done));
+                } finally {
+                    listings.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.add(new IOException("Interrupted while listing " + directory, e));
+            } finally {
+                if (pending.decrementAndGet() == 0) {
+                    done.countDown();
+                }
+            }
+        });
+    }
+
+    /**
+     * Lists one directory, passing its regular files to the consumer and the subdirectories
+     * to descend into to the other handler.
+     */
+    private void list(Path directory, BiConsumer<Path, BasicFileAttributes> fileConsumer,
+                      ConcurrentLinkedQueue<IOException> failures, Consumer<Path> subdirectoryHandler) {
+        try {
+            // With a depth of one, entries (directories included) arrive at visitFile
+            // together with the attributes read while listing this directory
+            Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isDirectory()) {
+                        if (directoryFilter.test(file)) {
+                            subdirectoryHandler.accept(file);
+                        }
+                    } else if (attrs.isRegularFile()) {
+                        fileConsumer.accept(file, attrs);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    failures.add(exc);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            failures.add(e);
+        }
+    }
+
+    private class DirectoryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+        private final BiConsumer<Path, BasicFileAttributes> fileConsumer;
+        private final ConcurrentLinkedQueue<IOException> failures;
+
+        DirectoryTask(Path directory, BiConsumer<Path, BasicFileAttributes> fileConsumer,
+                      ConcurrentLinkedQueue<IOException> failures) {
+            this.directory = directory;
+            this.fileConsumer = fileConsumer;
+            this.failures = failures;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+            list(directory, fileConsumer, failures,
+                    subdirectory -> subdirectories.add(new DirectoryTask(subdirectory, fileConsumer, failures)));
+            invokeAll(subdirectories);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.springconverter.file;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the Java sources in a project, built once per run during file discovery.
+ * Maps fully-qualified class names (derived from the source root and package path)
+ * and simple class names to source file paths.
+ */
+public class ProjectIndex {
+    private static final String JAVA_EXTENSION = ".java";
+
+    private final Map<String, List<String>> filesByQualifiedName = new HashMap<>();
+    private final Map<String, List<String>> filesBySimpleName = new HashMap<>();
+    private final Set<Path> sourceRoots = new LinkedHashSet<>();
+
+    /**
+     * Adds a Java source file to the index.
+     */
+    public void addJavaFile(Path javaFile) {
+        String qualifiedName = qualifiedNameOf(javaFile);
+        if (qualifiedName != null) {
+            addJavaFile(javaFile, qualifiedName);
+        }
+    }
+
+    /**
+     * Adds a Java source file whose fully-qualified class name is already known.
+     */
+    public void addJavaFile(Path javaFile, String qualifiedName) {
+        String simpleName = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+        String filePath = javaFile.toString();
+
+        filesBySimpleName.computeIfAbsent(simpleName, key -> new ArrayList<>()).add(filePath);
+        filesByQualifiedName.computeIfAbsent(qualifiedName, key -> new ArrayList<>()).add(filePath);
+
+        // The source root is as many directories up as the class has package segments
+        Path root = javaFile.toAbsolutePath().normalize().getParent();
+        for (int i = qualifiedName.indexOf('.'); i >= 0 && root != null; i = qualifiedName.indexOf('.', i + 1)) {
+            root = root.getParent();
+        }
+        if (root != null) {
+            sourceRoots.add(root);
+        }
+    }
+
+    /**
+     * Gets the source roots the indexed files were found under, in the order first seen.
+     */
+    public List<Path> getSourceRoots() {
+        return new ArrayList<>(sourceRoots);
+    }
+
+    /**
+     * Finds the Java source files that may declare the given class. Exact fully-qualified
+     * matches win, all of them if several modules declare the same class; otherwise all
+     * files with the same simple name are returned.
+     */
+    public List<String> findJavaFiles(String className) {
+        if (className == null || className.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> qualifiedMatches = filesByQualifiedName.get(className);
+        if (qualifiedMatches != null) {
+            return Collections.unmodifiableList(qualifiedMatches);
+        }
+
+        String simpleClassName = className.contains(".") ?
+                className.substring(className.lastIndexOf('.') + 1) : className;
+        List<String> simpleMatches = filesBySimpleName.get(simpleClassName);
+        return simpleMatches != null ? Collections.unmodifiableList(simpleMatches) : Collections.emptyList();
+    }
+
+    /**
+     * Gets the number of indexed Java source files.
+     */
+    public int getJavaFileCount() {
+        return filesBySimpleName.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Gets the fully-qualified class name a Java source file is expected to declare,
+     * or null if the path is not a Java source file.
+     */
+    public static String qualifiedNameOf(Path javaFile) {
+        String fileName = javaFile.getFileName().toString();
+        if (!fileName.endsWith(JAVA_EXTENSION)) {
+            return null;
+        }
+        return deriveQualifiedName(javaFile, fileName.substring(0, fileName.length() - JAVA_EXTENSION.length()));
+    }
+
+    /**
+     * Derives the fully-qualified class name of a source file from its path below the
+     * nearest source root (src/main/java, src/test/java or, failing those, src).
+     */
+    static String deriveQualifiedName(Path javaFile, String simpleName) {
+        Path parent = javaFile.getParent();
+        if (parent == null) {
+            return simpleName;
+        }
+
+        int nameCount = parent.getNameCount();
+        int packageStart = -1;
+        for (int i = nameCount - 1; i >= 2 && packageStart < 0; i--) {
+            String name = parent.getName(i).toString();
+            String previous = parent.getName(i - 1).toString();
+            if ("java".equals(name) && ("main".equals(previous) || "test".equals(previous))
+                    && "src".equals(parent.getName(i - 2).toString())) {
+                packageStart = i + 1;
+            }
+        }
+        for (int i = nameCount - 1; i >= 0 && packageStart < 0; i--) {
+            if ("src".equals(parent.getName(i).toString())) {
+                packageStart = i + 1;
+            }
+        }
+        if (packageStart < 0) {
+            return simpleName;
+        }
+
+        StringBuilder qualifiedName = new StringBuilder();
+        for (int i = packageStart; i < nameCount; i++) {
+            qualifiedName.append(parent.getName(i)).append('.');
+        }
+        return qualifiedName.append(simpleName).toString();
+    }
+}
@@ -0,0 +1,160 @@
+package com.springconverter.file;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * On-disk record of what discovery learned about each XML file on the previous run: size,
+ * modification time and whether it is a Spring XML file. Entries are keyed on size and
+ * modification time alone, with no content hash, so a file whose size and modification
+ * time are unchanged is not read again. Java sources are not recorded, as their class
+ * names come from their paths.
+ */
+public class ScanCache {
+    private static final Logger logger = LoggerFactory.getLogger(ScanCache.class);
+
+    public static final String CACHE_FILE_NAME = ".xml-converter-scan-cache";
+    private static final String HEADER = "# xml-to-annotation-converter scan cache v2";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Loads a cache file. A missing, unreadable or outdated file yields an empty cache.
+     */
+    public static ScanCache load(Path cacheFile) {
+        ScanCache cache = new ScanCache();
+        try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                logger.info("Ignoring scan cache with unknown format: {}", cacheFile);
+                return cache;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry = Entry.parse(line);
+                if (entry != null) {
+                    cache.entries.put(entry.path, entry);
+                }
+            }
+            logger.debug("Loaded {} scan cache entries from {}", cache.entries.size(), cacheFile);
+        } catch (NoSuchFileException e) {
+            logger.debug("No scan cache found at {}", cacheFile);
+        } catch (IOException e) {
+            logger.warn("Could not read scan cache: {}", cacheFile, e);
+        }
+        return cache;
+    }
+
+    /**
+     * Writes the cache atomically, replacing any previous cache file.
+     */
+    public void save(Path cacheFile) throws IOException {
+        Path directory = cacheFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, CACHE_FILE_NAME, ".tmp");
+
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                for (Entry entry : new TreeMap<>(entries).values()) {
+                    writer.write(entry.format());
+                    writer.newLine();
+                }
+            }
+            try {
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Gets the entry for a file if the file's size and modification time still match it.
+     */
+    public Entry lookup(String path, BasicFileAttributes attrs) {
+        Entry entry = entries.get(path);
+        if (entry != null && entry.size == attrs.size() && entry.modifiedNanos == modifiedNanos(attrs)) {
+            return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Records an entry, replacing any previous entry for the same path.
+     */
+    public void put(Entry entry) {
+        entries.put(entry.path, entry);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    static long modifiedNanos(BasicFileAttributes attrs) {
+        return attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * What discovery knows about one file.
+     */
+    public static final class Entry {
+        private final String path;
+        private final long size;
+        private final long modifiedNanos;
+        private final boolean springXml;
+
+        public Entry(String path, BasicFileAttributes attrs, boolean springXml) {
+            this(path, attrs.size(), modifiedNanos(attrs), springXml);
+        }
+
+        private Entry(String path, long size, long modifiedNanos, boolean springXml) {
+            this.path = path;
+            this.size = size;
+            this.modifiedNanos = modifiedNanos;
+            this.springXml = springXml;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public boolean isSpringXml() {
+            return springXml;
+        }
+
+        private String format() {
+            return size + "\t" + modifiedNanos + "\t" + springXml + "\t" + path;
+        }
+
+        private static Entry parse(String line) {
+            String[] fields = line.split("\t", 4);
+            if (fields.length != 4) {
+                return null;
+            }
+            try {
+                return new Entry(fields[3], Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                        Boolean.parseBoolean(fields[2]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
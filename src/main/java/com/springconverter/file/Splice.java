@@ -0,0 +1,120 @@
+package com.springconverter.file;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A replacement of a range of a file's content, addressed by offset. A list of splices is
+ * applied in one pass over the original content, so offsets never shift as edits are made.
+ */
+public final class Splice {
+    private final int offset;
+    private final int length;
+    private final String replacement;
+
+    private Splice(int offset, int length, String replacement) {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Invalid splice range: " + offset + "+" + length);
+        }
+        this.offset = offset;
+        this.length = length;
+        this.replacement = replacement;
+    }
+
+    /**
+     * Inserts text at an offset.
+     */
+    public static Splice insert(int offset, String text) {
+        return new Splice(offset, 0, text);
+    }
+
+    /**
+     * Replaces the given number of units, starting at an offset, with text.
+     */
+    public static Splice replace(int offset, int length, String text) {
+        return new Splice(offset, length, text);
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public String getReplacement() {
+        return replacement;
+    }
+
+    /**
+     * Applies splices to text, with offsets counted in chars. Insertions at the same offset
+     * keep the order they were given in.
+     */
+    public static String apply(String content, List<Splice> splices) {
+        StringBuilder result = new StringBuilder(content.length() + 64 * splices.size());
+        int copied = 0;
+        for (Splice splice : ordered(splices, content.length())) {
+            result.append(content, copied, splice.offset).append(splice.replacement);
+            copied = splice.offset + splice.length;
+        }
+        return result.append(content, copied, content.length()).toString();
+    }
+
+    /**
+     * Applies splices to raw bytes, with offsets counted in bytes and replacements encoded
+     * as UTF-8.
+     */
+    public static byte[] apply(byte[] content, List<Splice> splices) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream(content.length + 64 * splices.size());
+        try {
+            write(content, splices, result);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result.toByteArray();
+    }
+
+    /**
+     * Writes raw bytes with the splices applied straight to a stream, without building the
+     * spliced content in memory first.
+     */
+    public static void write(byte[] content, List<Splice> splices, OutputStream out) throws IOException {
+        write(content, splices, StandardCharsets.UTF_8, out);
+    }
+
+    /**
+     * Writes raw bytes with the splices applied straight to a stream, encoding replacements
+     * in the given charset, which must be the one the content is in.
+     */
+    public static void write(byte[] content, List<Splice> splices, Charset charset, OutputStream out) throws IOException {
+        int copied = 0;
+        for (Splice splice : ordered(splices, content.length)) {
+            out.write(content, copied, splice.offset - copied);
+            out.write(splice.replacement.getBytes(charset));
+            copied = splice.offset + splice.length;
+        }
+        out.write(content, copied, content.length - copied);
+    }
+
+    private static List<Splice> ordered(List<Splice> splices, long contentLength) {
+        List<Splice> ordered = new ArrayList<>(splices);
+        // Stable, so same-offset insertions stay in the order given
+        ordered.sort(Comparator.comparingInt(Splice::getOffset));
+        long end = 0;
+        for (Splice splice : ordered) {
+            if (splice.offset < end || (long) splice.offset + splice.length > contentLength) {
+                throw new IllegalArgumentException("Overlapping or out-of-range splice at offset " + splice.offset);
+            }
+            end = splice.offset + splice.length;
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,274 @@
+package com.springconverter.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Decides whether an XML file is a Spring configuration file by reading only a bounded
+ * prefix: the prolog, any DOCTYPE and the root element's start tag. The decision is made
+ * from the root element (its name and namespace declarations) and the DOCTYPE, so the cost
+ * depends on the number of files rather than their total size.
+ */
+public class SpringXmlSniffer {
+    static final int PREFIX_LIMIT = 32 * 1024;
+
+    private static final byte[] BEANS_NAMESPACE = bytes("http://www.springframework.org/schema/beans");
+    private static final byte[] BEANS_PREFIX_DECLARATION = bytes("xmlns:beans");
+    private static final byte[] BEANS_DTD = bytes("spring-beans");
+    private static final byte[] BEANS_ROOT = bytes("<beans");
+    private static final byte[] COMMENT_START = bytes("<!--");
+
+    private static final BytePatterns ROOT_PATTERNS = new BytePatterns(BEANS_NAMESPACE, BEANS_PREFIX_DECLARATION);
+    private static final BytePatterns DOCTYPE_PATTERNS = new BytePatterns(BEANS_DTD);
+
+    private final ConcurrentLinkedQueue<ByteBuffer> bufferPool = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Determines if the file is a Spring XML configuration file.
+     */
+    public boolean isSpringXml(Path xmlFile) throws IOException {
+        ByteBuffer buffer = acquireBuffer();
+        try {
+            readPrefix(xmlFile, buffer);
+            return isSpringXml(buffer);
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * Reads the file prefix into the buffer, stopping once the root start tag is complete,
+     * the buffer is full, or the file ends. On return the buffer holds the prefix from 0 to its limit.
+     */
+    void readPrefix(Path xmlFile, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(xmlFile, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                if (findRootTag(buffer, buffer.position()) != null) {
+                    break;
+                }
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Makes the Spring XML decision for a prefix held in the buffer between 0 and its limit.
+     */
+    boolean isSpringXml(ByteBuffer prefix) {
+        Charset utf16 = utf16Charset(prefix);
+        if (utf16 != null) {
+            // The byte order is fixed, so a byte order mark is decoded as U+FEFF and skipped as UTF-8
+            byte[] decoded = utf16.decode(prefix.duplicate()).toString().getBytes(StandardCharsets.UTF_8);
+            prefix = ByteBuffer.wrap(decoded);
+        }
+
+        int limit = prefix.limit();
+        int[] rootTag = findRootTag(prefix, limit);
+        if (rootTag == null) {
+            // No complete root tag within the bounded prefix: fall back to scanning what was read
+            return ROOT_PATTERNS.containsAny(prefix, 0, limit) || DOCTYPE_PATTERNS.containsAny(prefix, 0, limit);
+        }
+
+        int doctypeStart = rootTag[2];
+        if (doctypeStart >= 0 && DOCTYPE_PATTERNS.containsAny(prefix, doctypeStart, rootTag[0])) {
+            return true;
+        }
+        if (ROOT_PATTERNS.containsAny(prefix, rootTag[0], rootTag[1])) {
+            return true;
+        }
+        // Legacy un-namespaced <beans> root without a DOCTYPE
+        return startsWith(prefix, rootTag[0], limit, BEANS_ROOT) && rootTag[0] + BEANS_ROOT.length < rootTag[1]
+                && isNameTerminator(prefix.get(rootTag[0] + BEANS_ROOT.length));
+    }
+
+    /**
+     * Locates the root element's start tag. Returns {start, end, doctypeStart} where end is
+     * exclusive and doctypeStart is -1 without a DOCTYPE, or null if the prefix ends first.
+     */
+    static int[] findRootTag(ByteBuffer buffer, int limit) {
+        int pos = skipByteOrderMark(buffer, limit);
+        int doctypeStart = -1;
+
+        while (pos < limit) {
+            byte b = buffer.get(pos);
+            if (b != '<') {
+                pos++;
+                continue;
+            }
+            if (pos + 1 >= limit) {
+                return null;
+            }
+
+            byte next = buffer.get(pos + 1);
+            if (next == '?') {
+                pos = indexOf(buffer, pos + 2, limit, (byte) '?', (byte) '>');
+                if (pos < 0) {
+                    return null;
+                }
+                pos += 2;
+            } else if (next == '!' && startsWith(buffer, pos, limit, COMMENT_START)) {
+                pos = indexOf(buffer, pos + 4, limit, (byte) '-', (byte) '-');
+                if (pos < 0) {
+                    return null;
+                }
+                pos += 2;
+            } else if (next == '!') {
+                doctypeStart = pos;
+                pos = skipDeclaration(buffer, pos + 2, limit);
+                if (pos < 0) {
+                    return null;
+                }
+            } else {
+                int end = skipTag(buffer, pos + 1, limit);
+                return end < 0 ? null : new int[]{pos, end, doctypeStart};
+            }
+        }
+        return null;
+    }
+
+    private static int skipByteOrderMark(ByteBuffer buffer, int limit) {
+        if (limit >= 3 && (buffer.get(0) & 0xFF) == 0xEF && (buffer.get(1) & 0xFF) == 0xBB
+                && (buffer.get(2) & 0xFF) == 0xBF) {
+            return 3;
+        }
+        return 0;
+    }
+
+    private static int skipDeclaration(ByteBuffer buffer, int pos, int limit) {
+        int bracketDepth = 0;
+        byte quote = 0;
+        for (; pos < limit; pos++) {
+            byte b = buffer.get(pos);
+            if (quote != 0) {
+                if (b == quote) {
+                    quote = 0;
+                }
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '[') {
+                bracketDepth++;
+            } else if (b == ']') {
+                bracketDepth--;
+            } else if (b == '>' && bracketDepth <= 0) {
+                return pos + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipTag(ByteBuffer buffer, int pos, int limit) {
+        byte quote = 0;
+        for (; pos < limit; pos++) {
+            byte b = buffer.get(pos);
+            if (quote != 0) {
+                if (b == quote) {
+                    quote = 0;
+                }
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '>') {
+                return pos + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(ByteBuffer buffer, int pos, int limit, byte first, byte second) {
+        for (; pos + 1 < limit; pos++) {
+            if (buffer.get(pos) == first && buffer.get(pos + 1) == second) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int pos, int limit, byte[] pattern) {
+        if (pos + pattern.length > limit) {
+            return false;
+        }
+        for (int i = 0; i < pattern.length; i++) {
+            if (buffer.get(pos + i) != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNameTerminator(byte b) {
+        return b == '>' || b == '/' || b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    /**
+     * Returns the UTF-16 byte order the prefix is encoded in, from its byte order mark or,
+     * without one, from the zero byte next to the leading '<', or null if it is not UTF-16.
+     */
+    private static Charset utf16Charset(ByteBuffer buffer) {
+        if (buffer.limit() < 2) {
+            return null;
+        }
+        int first = buffer.get(0) & 0xFF;
+        int second = buffer.get(1) & 0xFF;
+        if ((first == 0xFE && second == 0xFF) || (first == 0 && second == '<')) {
+            return StandardCharsets.UTF_16BE;
+        }
+        if ((first == 0xFF && second == 0xFE) || (first == '<' && second == 0)) {
+            return StandardCharsets.UTF_16LE;
+        }
+        return null;
+    }
+
+    private ByteBuffer acquireBuffer() {
+        ByteBuffer buffer = bufferPool.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(PREFIX_LIMIT);
+    }
+
+    private void releaseBuffer(ByteBuffer buffer) {
+        bufferPool.offer(buffer);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * A small set of byte patterns matched in a single scan, bucketed by first byte.
+     */
+    static final class BytePatterns {
+        private final byte[][][] patternsByFirstByte = new byte[256][][];
+
+        BytePatterns(byte[]... patterns) {
+            for (byte[] pattern : patterns) {
+                int first = pattern[0] & 0xFF;
+                byte[][] bucket = patternsByFirstByte[first];
+                byte[][] grown = new byte[bucket == null ? 1 : bucket.length + 1][];
+                if (bucket != null) {
+                    System.arraycopy(bucket, 0, grown, 0, bucket.length);
+                }
+                grown[grown.length - 1] = pattern;
+                patternsByFirstByte[first] = grown;
+            }
+        }
+
+        boolean containsAny(ByteBuffer buffer, int from, int to) {
+            for (int pos = from; pos < to; pos++) {
+                byte[][] bucket = patternsByFirstByte[buffer.get(pos) & 0xFF];
+                if (bucket == null) {
+                    continue;
+                }
+                for (byte[] pattern : bucket) {
+                    if (startsWith(buffer, pos, to, pattern)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.springconverter.file;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads on runtimes that have them, for tasks that mostly wait on the file
+ * system. The build targets Java 11, so the Java 21 API is looked up reflectively; on older
+ * runtimes no factory is returned and callers keep to platform threads.
+ */
+public final class VirtualThreads {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final Method OF_VIRTUAL = findOfVirtual();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Checks whether this runtime can create virtual threads.
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates a factory of virtual threads named with the prefix and a counter, or returns
+     * null if this runtime cannot create virtual threads.
+     */
+    public static ThreadFactory factory(String namePrefix) {
+        if (OF_VIRTUAL == null) {
+            return null;
+        }
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("Cannot create virtual threads; using platform threads", e);
+            return null;
+        }
+    }
+
+    private static Method findOfVirtual() {
+        // Virtual threads were a preview before Java 21 and fail without --enable-preview
+        if (Runtime.version().feature() < 21) {
+            return null;
+        }
+        try {
+            return Thread.class.getMethod("ofVirtual");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.springconverter.file;
+
+import com.springconverter.parser.OfflineEntityResolver;
+import com.springconverter.parser.PositionTrackingReader;
+import com.springconverter.parser.XmlParser;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rewrites a Spring XML file in one streaming pass, turning converted bean definitions into
+ * comments. The file is read through StAX only to find where each converted bean starts and
+ * ends; everything else, from the prolog and DOCTYPE to attribute order and CDATA sections,
+ * is copied from the source text unchanged. Only the bean being commented out is held in
+ * memory, so files of any size can be rewritten. The same pass tells whether anything but
+ * comments is left inside the root element, so an emptied file is recognized without
+ * reading it again.
+ */
+final class XmlRewriter {
+    static final String COMMENT_PREFIX = "Converted to annotation: ";
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+    private static final byte[] COMMENT_START = bytes("<!--");
+    private static final byte[] COMMENT_END = bytes("-->");
+    private static final byte[] CDATA_START = bytes("<![CDATA[");
+    private static final byte[] CDATA_END = bytes("]]>");
+    private static final byte[] PI_START = bytes("<?");
+    private static final byte[] PI_END = bytes("?>");
+    private static final byte[] DECLARATION_START = bytes("<!");
+    private static final byte[] END_TAG_START = bytes("</");
+    private static final byte[] TAG_END = bytes(">");
+
+    private XmlRewriter() {
+    }
+
+    /**
+     * Copies the document to the output with the beans starting at the given character
+     * offsets commented out, keeping its encoding and byte order mark. The offsets are the
+     * start positions the parser recorded, so beans are found whether or not they have an
+     * id. Returns true if definitions other than those remain.
+     */
+    static boolean rewrite(InputStream input, OutputStream output, Set<Long> convertedBeanOffsets)
+            throws XMLStreamException, IOException {
+        PositionTrackingReader decoded = PositionTrackingReader.open(input);
+        RecordingReader source = new RecordingReader(decoded);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, decoded.getCharset()));
+        if (decoded.hasByteOrderMark()) {
+            writer.write('\uFEFF');
+        }
+
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(source);
+        try {
+            boolean remaining = false;
+            int depth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    // The reader is just past the start tag, which begins at the last '<' before it
+                    long end = characterOffset(reader);
+                    if (depth > 0 && isBean(reader)) {
+                        long start = source.lastIndexOf('<', end);
+                        if (convertedBeanOffsets.contains(start)) {
+                            source.copyTo(start, writer);
+                            skipElement(reader);
+                            writer.write(commentText(source.take(characterOffset(reader))));
+                            continue;
+                        }
+                    }
+                    remaining |= depth == 1;
+                    depth++;
+                    source.copyTo(end, writer);
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                    source.copyTo(characterOffset(reader), writer);
+                } else if (depth == 1 && isText(event) && !reader.isWhiteSpace()) {
+                    remaining = true;
+                }
+            }
+            source.copyRest(writer);
+            writer.flush();
+            return remaining;
+        } finally {
+            reader.close();
+            source.close();
+        }
+    }
+
+    /**
+     * Checks, without parsing, whether anything but comments would be left inside the root
+     * element of a document once the given byte ranges, ordered and not overlapping, are
+     * commented out. Every element and every piece of non-blank text outside the ranges
+     * counts, not just bean definitions.
+     */
+    static boolean hasDefinitionsOutside(byte[] content, List<long[]> commentedRanges) {
+        int depth = 0;
+        int nextRange = 0;
+        int i = 0;
+        while (i < content.length) {
+            if (nextRange < commentedRanges.size() && i >= commentedRanges.get(nextRange)[0]) {
+                i = Math.max(i, (int) commentedRanges.get(nextRange++)[1]);
+                continue;
+            }
+            if (content[i] != '<') {
+                if (depth == 1 && !isWhitespace(content[i])) {
+                    return true;
+                }
+                i++;
+            } else if (startsWith(content, i, COMMENT_START)) {
+                i = indexAfter(content, i + COMMENT_START.length, COMMENT_END);
+            } else if (startsWith(content, i, CDATA_START)) {
+                int end = indexAfter(content, i + CDATA_START.length, CDATA_END);
+                for (int j = i + CDATA_START.length; depth == 1 && j < end - CDATA_END.length; j++) {
+                    if (!isWhitespace(content[j])) {
+                        return true;
+                    }
+                }
+                i = end;
+            } else if (startsWith(content, i, PI_START)) {
+                i = indexAfter(content, i + PI_START.length, PI_END);
+            } else if (startsWith(content, i, DECLARATION_START)) {
+                i = skipDeclaration(content, i + DECLARATION_START.length);
+            } else if (startsWith(content, i, END_TAG_START)) {
+                depth--;
+                i = indexAfter(content, i + END_TAG_START.length, TAG_END);
+            } else {
+                if (depth == 1) {
+                    return true;
+                }
+                int end = skipTag(content, i + 1);
+                if (content[end - 2] != '/') {
+                    depth++;
+                }
+                i = end;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBean(XMLStreamReader reader) {
+        String namespace = reader.getNamespaceURI();
+        return "bean".equals(reader.getLocalName())
+                && (namespace == null || namespace.isEmpty() || XmlParser.BEANS_NAMESPACE.equals(namespace));
+    }
+
+    private static boolean isText(int event) {
+        return event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                || event == XMLStreamConstants.ENTITY_REFERENCE;
+    }
+
+    /**
+     * Moves the reader from an element's start tag to its end tag.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Wraps the source text of an element in a comment.
+     */
+    private static String commentText(String element) {
+        // "--" would end the comment early
+        while (element.contains("--")) {
+            element = element.replace("--", "- -");
+        }
+        return "<!-- " + COMMENT_PREFIX + element + " -->";
+    }
+
+    private static long characterOffset(XMLStreamReader reader) {
+        return reader.getLocation().getCharacterOffset();
+    }
+
+    /**
+     * Returns the index just past the first occurrence of the pattern from the given index,
+     * or the end of the content if there is none.
+     */
+    private static int indexAfter(byte[] content, int from, byte[] pattern) {
+        for (int i = from; i + pattern.length <= content.length; i++) {
+            if (startsWith(content, i, pattern)) {
+                return i + pattern.length;
+            }
+        }
+        return content.length;
+    }
+
+    /**
+     * Returns the index just past the '>' that ends a tag, skipping quoted attribute values.
+     */
+    private static int skipTag(byte[] content, int from) {
+        byte quote = 0;
+        for (int i = from; i < content.length; i++) {
+            byte b = content[i];
+            if (quote != 0) {
+                quote = b == quote ? 0 : quote;
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '>') {
+                return i + 1;
+            }
+        }
+        return content.length;
+    }
+
+    /**
+     * Returns the index just past a declaration such as DOCTYPE, skipping its internal
+     * subset and quoted identifiers.
+     */
+    private static int skipDeclaration(byte[] content, int from) {
+        byte quote = 0;
+        int brackets = 0;
+        for (int i = from; i < content.length; i++) {
+            byte b = content[i];
+            if (quote != 0) {
+                quote = b == quote ? 0 : quote;
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '[') {
+                brackets++;
+            } else if (b == ']') {
+                brackets--;
+            } else if (b == '>' && brackets <= 0) {
+                return i + 1;
+            }
+        }
+        return content.length;
+    }
+
+    private static boolean startsWith(byte[] content, int from, byte[] pattern) {
+        if (from + pattern.length > content.length) {
+            return false;
+        }
+        for (int i = 0; i < pattern.length; i++) {
+            if (content[from + i] != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setXMLResolver(new OfflineEntityResolver());
+        return factory;
+    }
+
+    /**
+     * Keeps the characters the XML reader has read but the rewrite has not yet copied, so
+     * that any part of them can be copied as it is or turned into a comment.
+     */
+    private static final class RecordingReader extends Reader {
+        private final Reader source;
+        private final StringBuilder pending = new StringBuilder();
+        // Offset of the first pending character in the document
+        private long pendingStart;
+
+        RecordingReader(Reader source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int read = source.read(buffer, offset, length);
+            if (read > 0) {
+                pending.append(buffer, offset, read);
+            }
+            return read;
+        }
+
+        /**
+         * Copies the pending characters before the given offset to the writer.
+         */
+        void copyTo(long offset, Writer writer) throws IOException {
+            writer.append(take(offset));
+        }
+
+        /**
+         * Removes and returns the pending characters before the given offset.
+         */
+        String take(long offset) throws IOException {
+            int end = (int) (offset - pendingStart);
+            if (end < 0 || end > pending.length()) {
+                throw new IOException("XML reader reported offset " + offset + " outside the text read so far");
+            }
+            String text = pending.substring(0, end);
+            pending.delete(0, end);
+            pendingStart = offset;
+            return text;
+        }
+
+        /**
+         * Finds the last occurrence of the character before the given offset among the
+         * pending characters.
+         */
+        long lastIndexOf(char c, long beforeOffset) throws IOException {
+            int index = pending.lastIndexOf(String.valueOf(c), (int) (beforeOffset - pendingStart) - 1);
+            if (index < 0) {
+                throw new IOException("No '" + c + "' before offset " + beforeOffset);
+            }
+            return pendingStart + index;
+        }
+
+        /**
+         * Copies everything still pending or unread to the writer.
+         */
+        void copyRest(Writer writer) throws IOException {
+            char[] buffer = new char[8192];
+            do {
+                writer.append(pending);
+                pendingStart += pending.length();
+                pending.setLength(0);
+            } while (read(buffer, 0, buffer.length) >= 0);
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+    }
+}
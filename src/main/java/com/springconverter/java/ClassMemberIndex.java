@@ -0,0 +1,196 @@
+package com.springconverter.java;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.nodeTypes.NodeWithAnnotations;
+import com.springconverter.model.ConstructorArg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The injectable members of one class declaration, looked up by name instead of by scanning
+ * the class for every property. Built once per class and kept current as annotations are
+ * added through it.
+ */
+class ClassMemberIndex {
+    private final ClassOrInterfaceDeclaration classDecl;
+    private final Map<String, FieldDeclaration> fieldsByName = new HashMap<>();
+    private final Map<String, MethodDeclaration> settersByProperty = new HashMap<>();
+    private final Map<Integer, List<ConstructorDeclaration>> constructorsByArity = new HashMap<>();
+    private final Map<Node, Set<String>> annotationNames = new IdentityHashMap<>();
+
+    private ClassMemberIndex(ClassOrInterfaceDeclaration classDecl) {
+        this.classDecl = classDecl;
+    }
+
+    /**
+     * Indexes the fields, setters and constructors declared directly in a class.
+     */
+    static ClassMemberIndex of(ClassOrInterfaceDeclaration classDecl) {
+        ClassMemberIndex index = new ClassMemberIndex(classDecl);
+        for (FieldDeclaration field : classDecl.getFields()) {
+            for (VariableDeclarator variable : field.getVariables()) {
+                index.fieldsByName.putIfAbsent(variable.getNameAsString(), field);
+            }
+        }
+        for (MethodDeclaration method : classDecl.getMethods()) {
+            String name = method.getNameAsString();
+            if (name.length() > 3 && name.startsWith("set") && method.getParameters().size() == 1
+                    && !method.isStatic()) {
+                index.settersByProperty.putIfAbsent(propertyName(name.substring(3)), method);
+            }
+        }
+        for (ConstructorDeclaration constructor : classDecl.getConstructors()) {
+            index.constructorsByArity.computeIfAbsent(constructor.getParameters().size(), key -> new ArrayList<>())
+                    .add(constructor);
+        }
+        return index;
+    }
+
+    ClassOrInterfaceDeclaration getClassDeclaration() {
+        return classDecl;
+    }
+
+    Optional<FieldDeclaration> findField(String name) {
+        return Optional.ofNullable(fieldsByName.get(name));
+    }
+
+    /**
+     * Finds the single-argument setter for a bean property, such as {@code setUserDao} for
+     * {@code userDao}.
+     */
+    Optional<MethodDeclaration> findSetter(String propertyName) {
+        return Optional.ofNullable(settersByProperty.get(propertyName));
+    }
+
+    /**
+     * Finds the constructor the arguments bind to: one with as many parameters whose names
+     * and types agree with every argument that declares a name or type. Arguments are
+     * matched to parameters by their index when the indexes cover every position. With a
+     * type resolver, each parameter must also accept the argument's declared type or the
+     * class of the bean it refers to.
+     */
+    Optional<ConstructorDeclaration> findConstructor(List<ConstructorArg> args, TypeResolver typeResolver) {
+        List<ConstructorDeclaration> candidates = constructorsByArity.getOrDefault(args.size(), Collections.emptyList());
+        List<ConstructorArg> ordered = byIndex(args);
+        for (ConstructorDeclaration candidate : candidates) {
+            if (matches(candidate, ordered, typeResolver)) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Orders constructor arguments by parameter position, falling back to declaration order
+     * when their indexes do not name each position exactly once.
+     */
+    static List<ConstructorArg> byIndex(List<ConstructorArg> args) {
+        ConstructorArg[] ordered = new ConstructorArg[args.size()];
+        for (ConstructorArg arg : args) {
+            int position = arg.getIndex();
+            if (position < 0 || position >= ordered.length || ordered[position] != null) {
+                return args;
+            }
+            ordered[position] = arg;
+        }
+        List<ConstructorArg> result = new ArrayList<>(ordered.length);
+        Collections.addAll(result, ordered);
+        return result;
+    }
+
+    /**
+     * Checks whether a node has an annotation with the given simple name, whether it is
+     * written simple or qualified.
+     */
+    boolean hasAnnotation(NodeWithAnnotations<?> node, String simpleName) {
+        return annotationsOf(node).contains(simpleName);
+    }
+
+    /**
+     * Records an annotation that was added to a node.
+     */
+    void annotationAdded(NodeWithAnnotations<?> node, String simpleName) {
+        annotationsOf(node).add(simpleName);
+    }
+
+    private Set<String> annotationsOf(NodeWithAnnotations<?> node) {
+        return annotationNames.computeIfAbsent((Node) node, key -> {
+            Set<String> names = new HashSet<>();
+            for (AnnotationExpr annotation : node.getAnnotations()) {
+                names.add(annotation.getName().getIdentifier());
+            }
+            return names;
+        });
+    }
+
+    private static boolean matches(ConstructorDeclaration constructor, List<ConstructorArg> args,
+                                   TypeResolver typeResolver) {
+        for (int i = 0; i < args.size(); i++) {
+            ConstructorArg arg = args.get(i);
+            Parameter param = constructor.getParameter(i);
+            if (arg.getName() != null && !arg.getName().isEmpty()
+                    && !arg.getName().equals(param.getNameAsString())) {
+                return false;
+            }
+            if (arg.getType() != null && !arg.getType().isEmpty() && !typeMatches(param, arg.getType())) {
+                return false;
+            }
+            if (typeResolver != null && !accepts(typeResolver, param, arg)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks a parameter against the resolved type of an argument. Either side that cannot
+     * be resolved is not held against the match.
+     */
+    private static boolean accepts(TypeResolver typeResolver, Parameter param, ConstructorArg arg) {
+        Optional<String> paramType = typeResolver.resolve(param.getType(), param);
+        if (paramType.isEmpty()) {
+            return true;
+        }
+        String argType = arg.getType();
+        if ((argType == null || argType.isEmpty()) && arg.isReference()) {
+            argType = typeResolver.getBeanClass(arg.getRef()).orElse(null);
+        }
+        return argType == null || argType.isEmpty() || typeResolver.isAssignable(paramType.get(), argType);
+    }
+
+    private static boolean typeMatches(Parameter param, String type) {
+        // The XML usually names the type qualified, the source usually simple
+        String declared = param.getType().asString();
+        return declared.equals(type) || declared.equals(simpleName(type)) || type.endsWith("." + declared);
+    }
+
+    private static String simpleName(String type) {
+        return type.substring(type.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Turns the part of a setter name after "set" into a property name the way JavaBeans
+     * introspection does: "UserDao" becomes "userDao", but "URL" stays "URL".
+     */
+    private static String propertyName(String suffix) {
+        if (suffix.length() > 1 && Character.isUpperCase(suffix.charAt(0)) && Character.isUpperCase(suffix.charAt(1))) {
+            return suffix;
+        }
+        return Character.toLowerCase(suffix.charAt(0)) + suffix.substring(1);
+    }
+}
@@ -0,0 +1,218 @@
+package com.springconverter.java;
+
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Compiles modified Java files in-process to check they still compile, without a build.
+ * Only the given files are compiled; other project classes come from the source roots and
+ * the classpath. Class files are kept in memory and dropped, so nothing is written to disk.
+ * One verifier reuses its file manager, and with it the opened JARs, across calls.
+ */
+public class CompileVerifier implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(CompileVerifier.class);
+
+    /**
+     * A compiler diagnostic for one file.
+     */
+    public static final class Problem {
+        private final Diagnostic.Kind kind;
+        private final long line;
+        private final String message;
+
+        Problem(Diagnostic.Kind kind, long line, String message) {
+            this.kind = kind;
+            this.line = line;
+            this.message = message;
+        }
+
+        public Diagnostic.Kind getKind() {
+            return kind;
+        }
+
+        public boolean isError() {
+            return kind == Diagnostic.Kind.ERROR;
+        }
+
+        /**
+         * Gets the line the diagnostic points at, or 0 if it has none.
+         */
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return kind + (line > 0 ? " at line " + line : "") + ": " + message;
+        }
+    }
+
+    private final JavaCompiler compiler;
+    private final StandardJavaFileManager standardFileManager;
+    private final InMemoryClassFileManager fileManager;
+    private final List<String> options;
+
+    private CompileVerifier(JavaCompiler compiler, List<String> options) {
+        this.compiler = compiler;
+        this.standardFileManager = compiler.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8);
+        this.fileManager = new InMemoryClassFileManager(standardFileManager);
+        this.options = options;
+    }
+
+    /**
+     * Creates a verifier compiling at the given language level against the source roots and
+     * classpath entries (JARs or class directories). Returns null if this JVM has no system
+     * Java compiler, as on a plain JRE.
+     */
+    public static CompileVerifier create(List<Path> sourceRoots, List<Path> classpath, LanguageLevel languageLevel) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            logger.warn("No Java compiler available in this runtime; run on a JDK to verify modified files");
+            return null;
+        }
+        List<String> options = new ArrayList<>();
+        options.add("-proc:none");
+        options.add("-implicit:none");
+        options.add("-Xlint:none");
+        String release = releaseFor(languageLevel);
+        if (release != null) {
+            options.add("--release");
+            options.add(release);
+        }
+        // Empty paths are left out, as javac reads an empty classpath as the working directory
+        String sourcePath = joinExisting(sourceRoots);
+        if (!sourcePath.isEmpty()) {
+            options.add("-sourcepath");
+            options.add(sourcePath);
+        }
+        String classPath = joinExisting(classpath);
+        if (!classPath.isEmpty()) {
+            options.add("-classpath");
+            options.add(classPath);
+        }
+        logger.info("Compile verification over {} source roots and {} classpath entries", sourceRoots.size(), classpath.size());
+        return new CompileVerifier(compiler, options);
+    }
+
+    /**
+     * Compiles the files together and gets the diagnostics reported for each of them, keyed
+     * by the paths as given. Files without diagnostics map to an empty list.
+     */
+    public synchronized Map<String, List<Problem>> verify(Collection<String> javaFiles) {
+        Map<String, List<Problem>> problems = new LinkedHashMap<>();
+        Map<Path, String> filesByPath = new LinkedHashMap<>();
+        for (String javaFile : javaFiles) {
+            problems.put(javaFile, new ArrayList<>());
+            filesByPath.put(normalize(Path.of(javaFile)), javaFile);
+        }
+        if (javaFiles.isEmpty()) {
+            return problems;
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Iterable<? extends JavaFileObject> units = standardFileManager.getJavaFileObjectsFromPaths(
+                filesByPath.keySet());
+        boolean compiled = compiler.getTask(null, fileManager, diagnostics, options, null, units).call();
+        logger.debug("Compiled {} Java files: {}", javaFiles.size(), compiled ? "ok" : "failed");
+
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            String javaFile = diagnostic.getSource() != null
+                    ? filesByPath.get(normalize(Path.of(diagnostic.getSource().toUri()))) : null;
+            if (javaFile == null) {
+                // Reported against a file that was not modified, or against no file at all
+                logger.debug("Compile diagnostic outside the verified files: {}", diagnostic.getMessage(Locale.ROOT));
+                continue;
+            }
+            problems.get(javaFile).add(new Problem(diagnostic.getKind(),
+                    Math.max(diagnostic.getLineNumber(), 0), diagnostic.getMessage(Locale.ROOT)));
+        }
+        return problems;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileManager.close();
+    }
+
+    /**
+     * Gets the --release value for a language level, or null to compile at the level of the
+     * running JDK.
+     */
+    static String releaseFor(LanguageLevel languageLevel) {
+        String name = languageLevel.name();
+        if (!name.startsWith("JAVA_") || name.endsWith("_PREVIEW")) {
+            return null;
+        }
+        try {
+            int version = Integer.parseInt(name.substring("JAVA_".length()));
+            return version >= 8 && version <= Runtime.version().feature() ? String.valueOf(version) : null;
+        } catch (NumberFormatException e) {
+            // JAVA_1_x levels predate what javac still accepts
+            return null;
+        }
+    }
+
+    private static String joinExisting(List<Path> paths) {
+        return paths.stream()
+                .filter(Files::exists)
+                .map(Path::toString)
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Serves sources and libraries from disk but keeps compiled classes in memory.
+     */
+    private static final class InMemoryClassFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        InMemoryClassFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension),
+                    kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return new ByteArrayOutputStream();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.springconverter.java;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import com.github.javaparser.ast.CompilationUnit;
+
+/**
+ * Hands out one preconfigured {@link JavaParser} per thread. Unlike {@code StaticJavaParser},
+ * no configuration is shared between threads, and tokens and comments are only kept when
+ * the parsed files will be printed back with lexical preservation.
+ */
+public class JavaParserFactory {
+    public static final LanguageLevel DEFAULT_LANGUAGE_LEVEL = LanguageLevel.JAVA_17;
+
+    private final LanguageLevel languageLevel;
+    private final boolean lexicalPreservation;
+    private final boolean attributeComments;
+    private final ThreadLocal<JavaParser> parsers = ThreadLocal.withInitial(this::createParser);
+
+    /**
+     * Creates a factory for parsers that keep everything needed to print files back with
+     * their original formatting.
+     */
+    public JavaParserFactory(LanguageLevel languageLevel) {
+        this(languageLevel, true, true);
+    }
+
+    /**
+     * Creates a factory for parsers of the given language level. Without lexical preservation
+     * no tokens are stored; comments are then only attributed to nodes if asked for.
+     */
+    public JavaParserFactory(LanguageLevel languageLevel, boolean lexicalPreservation, boolean attributeComments) {
+        this.languageLevel = languageLevel;
+        this.lexicalPreservation = lexicalPreservation;
+        // Lexical preservation reprints comments from the tree, so they must stay attached
+        this.attributeComments = attributeComments || lexicalPreservation;
+    }
+
+    /**
+     * Gets the parser confined to the calling thread.
+     */
+    public JavaParser get() {
+        return parsers.get();
+    }
+
+    /**
+     * Parses source text with the calling thread's parser.
+     */
+    public CompilationUnit parse(String source) {
+        ParseResult<CompilationUnit> result = get().parse(source);
+        if (!result.isSuccessful() || result.getResult().isEmpty()) {
+            throw new ParseProblemException(result.getProblems());
+        }
+        return result.getResult().get();
+    }
+
+    public boolean isLexicalPreservation() {
+        return lexicalPreservation;
+    }
+
+    private JavaParser createParser() {
+        ParserConfiguration configuration = new ParserConfiguration()
+                .setLanguageLevel(languageLevel)
+                .setStoreTokens(lexicalPreservation)
+                .setLexicalPreservationEnabled(lexicalPreservation)
+                .setAttributeComments(attributeComments);
+        return new JavaParser(configuration);
+    }
+}
@@ -1,86 +1,426 @@
 package com.springconverter.java;
 
-import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.PackageDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
 import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.Parameter;
 import com.github.javaparser.ast.expr.AnnotationExpr;
 import com.github.javaparser.ast.expr.MarkerAnnotationExpr;
-import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.Name;
 import com.github.javaparser.ast.expr.SingleMemberAnnotationExpr;
+import com.github.javaparser.ast.expr.StringLiteralExpr;
+import com.github.javaparser.ast.nodeTypes.NodeWithAnnotations;
 import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.printer.lexicalpreservation.LexicalPreservingPrinter;
+import com.springconverter.file.ProjectIndex;
 import com.springconverter.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
 
 /**
  * Analyzes and modifies Java source files to add Spring annotations.
+ * All beans that map to the same file are applied to one parsed compilation unit, so each
+ * file is parsed once and written at most once however many beans point at it. Output goes
+ * through the lexical-preserving printer: only the added annotations and imports differ from
+ * the original source. Different files may be modified concurrently; calls for the same
+ * file are serialized.
  */
 public class JavaSourceModifier {
     private static final Logger logger = LoggerFactory.getLogger(JavaSourceModifier.class);
+    
+    private static final Map<String, String> ANNOTATION_PACKAGES = Map.of(
+            "Component", "org.springframework.stereotype",
+            "Service", "org.springframework.stereotype",
+            "Repository", "org.springframework.stereotype",
+            "Controller", "org.springframework.stereotype",
+            "Configuration", "org.springframework.context.annotation",
+            "Primary", "org.springframework.context.annotation",
+            "Lazy", "org.springframework.context.annotation",
+            "Scope", "org.springframework.context.annotation",
+            "Autowired", "org.springframework.beans.factory.annotation",
+            "Qualifier", "org.springframework.beans.factory.annotation");
+    private static final String VALUE_PACKAGE = "org.springframework.beans.factory.annotation";
+
+    private final boolean dryRun;
+    private final JavaParserFactory parserFactory;
+    private final StripedLock fileLocks = new StripedLock(StripedLock.DEFAULT_STRIPES);
+    private volatile TypeResolver typeResolver;
+    private volatile boolean skimMode = true;
+
+    public JavaSourceModifier() {
+        this(false);
+    }
+
+    /**
+     * Creates a modifier. In dry-run mode files are analyzed and modified in memory only.
+     */
+    public JavaSourceModifier(boolean dryRun) {
+        this(dryRun, JavaParserFactory.DEFAULT_LANGUAGE_LEVEL);
+    }
 
     /**
-     * Modifies a Java source file to add Spring annotations based on bean definitions.
+     * Creates a modifier that parses sources at the given Java language level.
+     */
+    public JavaSourceModifier(boolean dryRun, LanguageLevel languageLevel) {
+        this.dryRun = dryRun;
+        // A dry run never prints files, so it needs neither tokens nor comments
+        this.parserFactory = dryRun ? new JavaParserFactory(languageLevel, false, false) : new JavaParserFactory(languageLevel);
+    }
+
+    /**
+     * Modifies a Java source file to add Spring annotations based on a bean definition.
      */
     public ConversionResult modifyJavaFile(String filePath, SpringBean bean) {
-        logger.info("Modifying Java file: {} for bean: {}", filePath, bean.getId());
+        return modifyJavaFile(filePath, Collections.singletonList(bean)).get(0);
+    }
+
+    /**
+     * Modifies a Java source file to add Spring annotations for all of the given bean
+     * definitions, and writes it. Returns one result per bean, in the same order.
+     */
+    public List<ConversionResult> modifyJavaFile(String filePath, List<SpringBean> beans) {
+        ReentrantLock lock = fileLocks.forFile(Path.of(filePath));
+        lock.lock();
+        try {
+            Edit edit = editJavaFile(filePath, beans);
+            try {
+                writeJavaFile(edit);
+            } catch (IOException e) {
+                logger.error("Error writing Java file: {}", filePath, e);
+                edit.failWrite(e);
+            }
+            return edit.getResults();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the beans to a Java source file in memory, leaving the file on disk as it is.
+     * Pass the returned edit to {@link #writeJavaFile} to write it.
+     */
+    public Edit editJavaFile(String filePath, List<SpringBean> beans) {
+        logger.info("Modifying Java file: {} for beans: {}", filePath,
+                beans.stream().map(SpringBean::getId).collect(Collectors.joining(", ")));
         
-        ConversionResult result = new ConversionResult(filePath, bean.getId(), 
-                ConversionResult.ConversionType.BEAN_TO_COMPONENT);
+        List<ConversionResult> results = new ArrayList<>();
+        for (SpringBean bean : beans) {
+            results.add(new ConversionResult(filePath, bean.getId(), 
+                    ConversionResult.ConversionType.BEAN_TO_COMPONENT));
+        }
         
+        Path path = Path.of(filePath);
+        Edit edit = new Edit(path, results);
+        ReentrantLock lock = fileLocks.forFile(path);
+        lock.lock();
         try {
-            // Parse the Java file
-            CompilationUnit cu = StaticJavaParser.parse(new File(filePath));
-            
-            // Find the class that matches the bean
-            Optional<ClassOrInterfaceDeclaration> classOpt = findClassByName(cu, bean.getClassName());
-            
-            if (classOpt.isPresent()) {
-                ClassOrInterfaceDeclaration classDecl = classOpt.get();
-                
-                // Add class-level annotations
-                addClassAnnotations(classDecl, bean, result);
-                
-                // Add field-level annotations for properties
-                addFieldAnnotations(classDecl, bean, result);
-                
-                // Add constructor annotations
-                addConstructorAnnotations(classDecl, bean, result);
-                
-                // Write the modified file
-                if (!result.isFailed()) {
-                    writeModifiedFile(cu, filePath);
-                    result.setStatus(ConversionResult.ConversionStatus.SUCCESS);
-                    result.setTargetFile(filePath);
+            editLocked(edit, beans);
+        } finally {
+            lock.unlock();
+        }
+        return edit;
+    }
+
+    /**
+     * Writes the modified source of an edit, if it changed the file. Does nothing in a dry
+     * run. The file's lock is held from checking that it still holds the source the edit was
+     * made from until the new source has replaced it, so an edit made from an older read
+     * fails instead of overwriting a newer one.
+     */
+    public void writeJavaFile(Edit edit) throws IOException {
+        if (!edit.isModified()) {
+            return;
+        }
+        if (dryRun) {
+            logger.info("DRY RUN: Would write modified Java file: {}", edit.file);
+            return;
+        }
+        ReentrantLock lock = fileLocks.forFile(edit.file);
+        lock.lock();
+        try {
+            if (!edit.readFrom(Files.readAllBytes(edit.file))) {
+                throw new IOException("File changed since it was read: " + edit.file);
+            }
+            replaceFile(edit.file, edit.content);
+        } finally {
+            lock.unlock();
+        }
+        logger.debug("Successfully wrote modified file: {}", edit.file);
+    }
+
+    /**
+     * Writes the content to a temporary file beside the file, with the file's permissions,
+     * then moves it into place, so the file is never seen half written.
+     */
+    private static void replaceFile(Path file, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content);
+            if (Files.getFileStore(file).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(file));
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads the source of the edit's file, remembering what was read so that the write can
+     * tell if the file has changed since.
+     */
+    private static String readSource(Edit edit) throws IOException {
+        byte[] bytes = Files.readAllBytes(edit.file);
+        edit.setOriginal(bytes);
+        return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+    }
+
+    /**
+     * Applies the beans to one file while its lock is held, keeping the modified source in
+     * the edit.
+     */
+    private void editLocked(Edit edit, List<SpringBean> beans) {
+        Path path = edit.file;
+        String filePath = path.toString();
+        List<ConversionResult> results = edit.results;
+        if (settledWithoutParsing(path, beans, results)) {
+            logger.debug("Skipped parsing Java file that needs no changes: {}", filePath);
+            return;
+        }
+        if (settledBySkimming(edit, beans)) {
+            logger.debug("Annotated Java file without a full parse: {}", filePath);
+            return;
+        }
+        
+        CompilationUnit cu;
+        try {
+            // Parse the Java file once for all beans
+            cu = parseSource(readSource(edit));
+        } catch (NoSuchFileException e) {
+            failAll(results, "File not found: " + filePath);
+            return;
+        } catch (Exception e) {
+            logger.error("Error modifying Java file: {}", filePath, e);
+            failAll(results, "Error modifying file: " + e.getMessage());
+            return;
+        }
+        
+        // Beans of the same class share one index of its members
+        Map<ClassOrInterfaceDeclaration, ClassMemberIndex> memberIndexes = new IdentityHashMap<>();
+        boolean modified = false;
+        for (int i = 0; i < beans.size(); i++) {
+            SpringBean bean = beans.get(i);
+            ConversionResult result = results.get(i);
+            try {
+                modified |= applyBean(cu, bean, memberIndexes, result);
+            } catch (Exception e) {
+                result.setStatus(ConversionResult.ConversionStatus.FAILED);
+                result.setErrorMessage("Error modifying file: " + e.getMessage());
+                logger.error("Error applying bean {} to Java file: {}", bean.getId(), filePath, e);
+            }
+        }
+        if (!modified) {
+            return;
+        }
+        if (dryRun) {
+            edit.modified = true;
+            return;
+        }
+        
+        try {
+            // Untouched source text is reproduced exactly; only added nodes are printed
+            edit.setContent(LexicalPreservingPrinter.print(cu).getBytes(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            logger.error("Error printing Java file: {}", filePath, e);
+            for (ConversionResult result : results) {
+                if (result.isSuccessful()) {
+                    result.setStatus(ConversionResult.ConversionStatus.FAILED);
+                    result.setErrorMessage("Error modifying file: " + e.getMessage());
                 }
-                
+            }
+        }
+    }
+
+    /**
+     * Applies one bean definition to the parsed file. Returns true if the file was changed.
+     */
+    private boolean applyBean(CompilationUnit cu, SpringBean bean,
+                              Map<ClassOrInterfaceDeclaration, ClassMemberIndex> memberIndexes, ConversionResult result) {
+        // Find the class that matches the bean
+        Optional<ClassOrInterfaceDeclaration> classOpt = findClassByName(cu, bean.getClassName());
+        
+        if (classOpt.isEmpty()) {
+            result.setStatus(ConversionResult.ConversionStatus.FAILED);
+            result.setErrorMessage("Class not found: " + bean.getClassName());
+            return false;
+        }
+        
+        ClassMemberIndex members = memberIndexes.computeIfAbsent(classOpt.get(), ClassMemberIndex::of);
+        
+        // Add class-level annotations
+        addClassAnnotations(members, bean, result);
+        
+        // Add field or setter annotations for properties
+        addFieldAnnotations(members, bean, result);
+        
+        // Add constructor annotations
+        addConstructorAnnotations(members, bean, result);
+        
+        result.setStatus(ConversionResult.ConversionStatus.SUCCESS);
+        result.setTargetFile(result.getSourceFile());
+        return !result.getAnnotationsAdded().isEmpty();
+    }
+
+    /**
+     * Sets the resolver used to pick constructors by parameter type and to leave out
+     * qualifiers no other bean could compete for. Without one, constructors are matched by
+     * arity and declared types only, and every reference gets a qualifier.
+     */
+    public void setTypeResolver(TypeResolver typeResolver) {
+        this.typeResolver = typeResolver;
+    }
+
+    /**
+     * Sets whether common cases are handled by skimming the source and splicing annotations
+     * in, without a full parse. On by default; files the skim cannot follow are parsed.
+     */
+    public void setSkimMode(boolean skimMode) {
+        this.skimMode = skimMode;
+    }
+
+    /**
+     * Parses source text, keeping its original text for lexical-preserving output.
+     */
+    private CompilationUnit parseSource(String source) {
+        // Lexical preservation, where needed, is set up by the parser configuration
+        return parserFactory.parse(source);
+    }
+
+    /**
+     * Scans the raw bytes of a file, and settles the results without a full parse if every
+     * bean either names a class the file does not declare or is already fully annotated.
+     * Returns false if the file has to be parsed.
+     */
+    private boolean settledWithoutParsing(Path path, List<SpringBean> beans, List<ConversionResult> results) {
+        SourcePreFilter.Summary summary;
+        try {
+            summary = SourcePreFilter.scan(path);
+        } catch (IOException e) {
+            // Let the parse report the problem
+            return false;
+        }
+        
+        for (SpringBean bean : beans) {
+            if (declaresClass(summary, bean.getClassName()) && !isAlreadyAnnotated(summary, bean)) {
+                return false;
+            }
+        }
+        for (int i = 0; i < beans.size(); i++) {
+            SpringBean bean = beans.get(i);
+            ConversionResult result = results.get(i);
+            if (declaresClass(summary, bean.getClassName())) {
+                result.setStatus(ConversionResult.ConversionStatus.SUCCESS);
+                result.setTargetFile(result.getSourceFile());
             } else {
                 result.setStatus(ConversionResult.ConversionStatus.FAILED);
                 result.setErrorMessage("Class not found: " + bean.getClassName());
             }
-            
-        } catch (FileNotFoundException e) {
-            result.setStatus(ConversionResult.ConversionStatus.FAILED);
-            result.setErrorMessage("File not found: " + filePath);
-        } catch (Exception e) {
-            result.setStatus(ConversionResult.ConversionStatus.FAILED);
-            result.setErrorMessage("Error modifying file: " + e.getMessage());
-            logger.error("Error modifying Java file: {}", filePath, e);
+        }
+        return true;
+    }
+
+    /**
+     * Tries to apply the beans by skimming the source and splicing the annotations in.
+     * Returns false, with the results untouched, if the file has to be parsed. Runs with
+     * type resolution always go through the parse.
+     */
+    private boolean settledBySkimming(Edit edit, List<SpringBean> beans) {
+        if (!skimMode || typeResolver != null) {
+            return false;
+        }
+        String source;
+        try {
+            source = readSource(edit);
+        } catch (IOException e) {
+            // Let the parse report the problem
+            return false;
+        }
+        String modified = SkimAnnotator.annotate(source, beans, edit.results);
+        if (modified == null) {
+            return false;
         }
         
-        return result;
+        if (!modified.equals(source)) {
+            edit.setContent(modified.getBytes(StandardCharsets.UTF_8));
+        }
+        return true;
+    }
+
+    private static boolean declaresClass(SourcePreFilter.Summary summary, String className) {
+        return className != null && !className.isEmpty()
+                && isInPackage(className, summary.getPackageName())
+                && summary.declaresType(simpleNameOf(className));
+    }
+
+    /**
+     * Checks whether a bean needs nothing beyond the stereotype annotation its class
+     * already carries.
+     */
+    private boolean isAlreadyAnnotated(SourcePreFilter.Summary summary, SpringBean bean) {
+        String annotation = determineClassAnnotation(bean);
+        return bean.getProperties().isEmpty() && bean.getConstructorArgs().isEmpty()
+                && !bean.isPrimary() && !bean.isLazyInit() && "singleton".equals(bean.getScope())
+                && annotation != null
+                && summary.getAnnotations(simpleNameOf(bean.getClassName())).contains(annotation.substring(1));
+    }
+
+    /**
+     * Checks whether a class name, if qualified, lies in the given package. A class in
+     * another package is a same-named class from elsewhere, not the one declared here.
+     */
+    private static boolean isInPackage(String className, String packageName) {
+        return !className.contains(".") || packageName.isEmpty() || className.startsWith(packageName + ".");
+    }
+
+    private static String simpleNameOf(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private static void failAll(List<ConversionResult> results, String errorMessage) {
+        for (ConversionResult result : results) {
+            result.setStatus(ConversionResult.ConversionStatus.FAILED);
+            result.setErrorMessage(errorMessage);
+        }
     }
 
     private Optional<ClassOrInterfaceDeclaration> findClassByName(CompilationUnit cu, String className) {
@@ -88,54 +428,45 @@ public class JavaSourceModifier {
             return Optional.empty();
         }
         
+        // A qualified name must be in this file's package
+        String packageName = cu.getPackageDeclaration().map(PackageDeclaration::getNameAsString).orElse("");
+        if (!isInPackage(className, packageName)) {
+            return Optional.empty();
+        }
+        
         // Extract simple class name from full class name
-        final String simpleClassName = className.contains(".") ? 
-                className.substring(className.lastIndexOf('.') + 1) : className;
+        final String simpleClassName = simpleNameOf(className);
         
         return cu.findFirst(ClassOrInterfaceDeclaration.class, 
                 classDecl -> classDecl.getNameAsString().equals(simpleClassName));
     }
 
-    private void addClassAnnotations(ClassOrInterfaceDeclaration classDecl, SpringBean bean, ConversionResult result) {
+    private void addClassAnnotations(ClassMemberIndex members, SpringBean bean, ConversionResult result) {
+        ClassOrInterfaceDeclaration classDecl = members.getClassDeclaration();
         // Determine the appropriate annotation based on class name or bean attributes
         String annotation = determineClassAnnotation(bean);
         
         if (annotation != null) {
-            // Check if annotation already exists
-            boolean annotationExists = classDecl.getAnnotations().stream()
-                    .anyMatch(ann -> ann.getNameAsString().equals(annotation.substring(1)));
-            
-            if (!annotationExists) {
-                AnnotationExpr annotationExpr = new MarkerAnnotationExpr(annotation);
-                classDecl.addAnnotation(annotationExpr);
-                result.addAnnotation(annotation);
-                result.addModification("Added " + annotation + " to class");
-                logger.debug("Added {} annotation to class {}", annotation, classDecl.getNameAsString());
-            }
+            addMarkerAnnotation(members, classDecl, annotation, "class", result);
         }
         
         // Add @Primary if specified
         if (bean.isPrimary()) {
-            addAnnotationIfNotExists(classDecl, "@Primary", result);
+            addMarkerAnnotation(members, classDecl, "@Primary", "class", result);
         }
         
         // Add @Lazy if specified
         if (bean.isLazyInit()) {
-            addAnnotationIfNotExists(classDecl, "@Lazy", result);
+            addMarkerAnnotation(members, classDecl, "@Lazy", "class", result);
         }
         
         // Add @Scope if not singleton
         if (!"singleton".equals(bean.getScope())) {
-            SingleMemberAnnotationExpr scopeAnnotation = new SingleMemberAnnotationExpr();
-            scopeAnnotation.setName("Scope");
-            scopeAnnotation.setMemberValue(new NameExpr("\"" + bean.getScope() + "\""));
-            classDecl.addAnnotation(scopeAnnotation);
-            result.addAnnotation("@Scope(\"" + bean.getScope() + "\")");
-            result.addModification("Added @Scope annotation");
+            addSingleMemberAnnotation(members, classDecl, "@Scope", bean.getScope(), "class", result);
         }
     }
 
-    private String determineClassAnnotation(SpringBean bean) {
+    static String determineClassAnnotation(SpringBean bean) {
         String className = bean.getClassName();
         if (className == null) {
             return "@Component";
@@ -159,156 +490,249 @@ public class JavaSourceModifier {
         }
     }
 
-    private void addFieldAnnotations(ClassOrInterfaceDeclaration classDecl, SpringBean bean, ConversionResult result) {
+    private void addFieldAnnotations(ClassMemberIndex members, SpringBean bean, ConversionResult result) {
         for (Property property : bean.getProperties()) {
-            if (property.isReference()) {
-                // Find the field with the property name
-                Optional<FieldDeclaration> fieldOpt = classDecl.getFields().stream()
-                        .filter(field -> field.getVariable(0).getNameAsString().equals(property.getName()))
-                        .findFirst();
-                
-                if (fieldOpt.isPresent()) {
-                    FieldDeclaration field = fieldOpt.get();
-                    addAnnotationIfNotExists(field, "@Autowired", result);
+            if (!property.isReference() && !property.isValue()) {
+                continue;
+            }
+            
+            Optional<FieldDeclaration> fieldOpt = members.findField(property.getName());
+            if (fieldOpt.isPresent()) {
+                FieldDeclaration field = fieldOpt.get();
+                String target = "field " + property.getName();
+                if (property.isReference()) {
+                    addMarkerAnnotation(members, field, "@Autowired", target, result);
                     
                     // Add @Qualifier if needed
-                    if (property.getRef() != null && !property.getRef().isEmpty()) {
-                        addQualifierAnnotation(field, property.getRef(), result);
+                    if (property.getRef() != null && !property.getRef().isEmpty()
+                            && needsQualifier(field.getElementType(), field)) {
+                        addSingleMemberAnnotation(members, field, "@Qualifier", property.getRef(), target, result);
                     }
                 } else {
-                    // Field doesn't exist, add TODO
-                    result.addModification("TODO: Add field '" + property.getName() + "' with @Autowired annotation");
+                    addSingleMemberAnnotation(members, field, "@Value", property.getValue(), target, result);
                 }
-            } else if (property.isValue()) {
-                // Handle @Value annotations
-                Optional<FieldDeclaration> fieldOpt = classDecl.getFields().stream()
-                        .filter(field -> field.getVariable(0).getNameAsString().equals(property.getName()))
-                        .findFirst();
-                
-                if (fieldOpt.isPresent()) {
-                    FieldDeclaration field = fieldOpt.get();
-                    addValueAnnotation(field, property.getValue(), result);
+                continue;
+            }
+            
+            // No field of that name: inject through the setter instead
+            Optional<MethodDeclaration> setterOpt = members.findSetter(property.getName());
+            if (setterOpt.isPresent()) {
+                MethodDeclaration setter = setterOpt.get();
+                String target = "setter " + setter.getNameAsString();
+                if (property.isReference()) {
+                    addMarkerAnnotation(members, setter, "@Autowired", target, result);
+                    Parameter param = setter.getParameter(0);
+                    if (property.getRef() != null && !property.getRef().isEmpty()
+                            && needsQualifier(param.getType(), param)) {
+                        addSingleMemberAnnotation(members, param, "@Qualifier", property.getRef(),
+                                "parameter " + param.getNameAsString(), result);
+                    }
+                } else {
+                    addSingleMemberAnnotation(members, setter, "@Value", property.getValue(), target, result);
                 }
+            } else if (property.isReference()) {
+                // Neither field nor setter exists, add TODO
+                result.addModification("TODO: Add field '" + property.getName() + "' with @Autowired annotation");
             }
         }
     }
 
-    private void addConstructorAnnotations(ClassOrInterfaceDeclaration classDecl, SpringBean bean, ConversionResult result) {
-        if (!bean.getConstructorArgs().isEmpty()) {
-            // Find constructor with matching number of parameters
-            Optional<MethodDeclaration> constructorOpt = classDecl.getMethods().stream()
-                    .filter(method -> method.getNameAsString().equals(classDecl.getNameAsString()) && 
-                            method.getParameters().size() == bean.getConstructorArgs().size())
-                    .findFirst();
+    private void addConstructorAnnotations(ClassMemberIndex members, SpringBean bean, ConversionResult result) {
+        if (bean.getConstructorArgs().isEmpty()) {
+            return;
+        }
+        
+        Optional<ConstructorDeclaration> constructorOpt = members.findConstructor(bean.getConstructorArgs(), typeResolver);
+        if (constructorOpt.isEmpty()) {
+            result.addModification("TODO: No constructor of " + members.getClassDeclaration().getNameAsString()
+                    + " matches " + bean.getConstructorArgs().size() + " constructor-arg(s)");
+            return;
+        }
+        
+        ConstructorDeclaration constructor = constructorOpt.get();
+        addMarkerAnnotation(members, constructor, "@Autowired", "constructor", result);
+        
+        // Add @Qualifier or @Value annotations to parameters if needed
+        List<ConstructorArg> args = ClassMemberIndex.byIndex(bean.getConstructorArgs());
+        for (int i = 0; i < args.size(); i++) {
+            Parameter param = constructor.getParameter(i);
+            ConstructorArg arg = args.get(i);
+            String target = "parameter " + param.getNameAsString();
             
-            if (constructorOpt.isPresent()) {
-                MethodDeclaration constructor = constructorOpt.get();
-                addAnnotationIfNotExists(constructor, "@Autowired", result);
-                
-                // Add @Qualifier annotations to parameters if needed
-                for (int i = 0; i < constructor.getParameters().size() && i < bean.getConstructorArgs().size(); i++) {
-                    Parameter param = constructor.getParameter(i);
-                    ConstructorArg arg = bean.getConstructorArgs().get(i);
-                    
-                    if (arg.isReference() && arg.getRef() != null) {
-                        addQualifierAnnotation(param, arg.getRef(), result);
-                    }
+            if (arg.isReference() && arg.getRef() != null) {
+                if (needsQualifier(param.getType(), param)) {
+                    addSingleMemberAnnotation(members, param, "@Qualifier", arg.getRef(), target, result);
                 }
+            } else if (arg.getValue() != null) {
+                addSingleMemberAnnotation(members, param, "@Value", arg.getValue(), target, result);
             }
         }
     }
 
-    private void addAnnotationIfNotExists(ClassOrInterfaceDeclaration classDecl, String annotation, ConversionResult result) {
-        boolean exists = classDecl.getAnnotations().stream()
-                .anyMatch(ann -> ann.getNameAsString().equals(annotation.substring(1)));
-        
-        if (!exists) {
-            AnnotationExpr annotationExpr = new MarkerAnnotationExpr(annotation);
-            classDecl.addAnnotation(annotationExpr);
-            result.addAnnotation(annotation);
-            result.addModification("Added " + annotation + " annotation");
-        }
+    /**
+     * Checks whether an injection point of the given type needs a qualifier to pick its bean.
+     */
+    private boolean needsQualifier(Type type, Node context) {
+        TypeResolver resolver = typeResolver;
+        return resolver == null || resolver.needsQualifier(type, context);
     }
 
-    private void addAnnotationIfNotExists(FieldDeclaration field, String annotation, ConversionResult result) {
-        boolean exists = field.getAnnotations().stream()
-                .anyMatch(ann -> ann.getNameAsString().equals(annotation.substring(1)));
-        
-        if (!exists) {
-            AnnotationExpr annotationExpr = new MarkerAnnotationExpr(annotation);
-            field.addAnnotation(annotationExpr);
-            result.addAnnotation(annotation);
-            result.addModification("Added " + annotation + " to field " + field.getVariable(0).getNameAsString());
+    /**
+     * Adds a marker annotation unless the node already has an annotation of that name.
+     */
+    private void addMarkerAnnotation(ClassMemberIndex members, NodeWithAnnotations<?> node, String annotation,
+                                     String target, ConversionResult result) {
+        String name = annotation.substring(1);
+        if (members.hasAnnotation(node, name)) {
+            return;
         }
+        
+        node.addAnnotation(new MarkerAnnotationExpr(new Name(importAnnotation((Node) node, name))));
+        members.annotationAdded(node, name);
+        result.addAnnotation(annotation);
+        result.addModification("Added " + annotation + " to " + target);
     }
 
-    private void addAnnotationIfNotExists(MethodDeclaration method, String annotation, ConversionResult result) {
-        boolean exists = method.getAnnotations().stream()
-                .anyMatch(ann -> ann.getNameAsString().equals(annotation.substring(1)));
-        
-        if (!exists) {
-            AnnotationExpr annotationExpr = new MarkerAnnotationExpr(annotation);
-            method.addAnnotation(annotationExpr);
-            result.addAnnotation(annotation);
-            result.addModification("Added " + annotation + " to constructor");
+    /**
+     * Adds an annotation with a single string value unless the node already has an
+     * annotation of that name. A different existing value is reported, not overwritten.
+     */
+    private void addSingleMemberAnnotation(ClassMemberIndex members, NodeWithAnnotations<?> node, String annotation,
+                                           String value, String target, ConversionResult result) {
+        String name = annotation.substring(1);
+        if (members.hasAnnotation(node, name)) {
+            Optional<AnnotationExpr> existing = node.getAnnotations().stream()
+                    .filter(candidate -> candidate.getName().getIdentifier().equals(name))
+                    .findFirst();
+            if (existing.isPresent() && !isSingleStringValue(existing.get(), value)) {
+                result.addModification("TODO: " + target + " already has " + existing.get() 
+                        + "; not adding " + annotation + "(\"" + value + "\")");
+            }
+            return;
         }
+        
+        node.addAnnotation(new SingleMemberAnnotationExpr(new Name(importAnnotation((Node) node, name)),
+                new StringLiteralExpr().setString(value)));
+        members.annotationAdded(node, name);
+        result.addAnnotation(annotation + "(\"" + value + "\")");
+        result.addModification("Added " + annotation + " to " + target);
     }
 
-    private void addQualifierAnnotation(FieldDeclaration field, String qualifier, ConversionResult result) {
-        SingleMemberAnnotationExpr qualifierAnnotation = new SingleMemberAnnotationExpr();
-        qualifierAnnotation.setName("Qualifier");
-        qualifierAnnotation.setMemberValue(new NameExpr("\"" + qualifier + "\""));
-        field.addAnnotation(qualifierAnnotation);
-        result.addAnnotation("@Qualifier(\"" + qualifier + "\")");
-        result.addModification("Added @Qualifier annotation");
+    /**
+     * Adds the import for a Spring annotation and returns the name to use for it: the simple
+     * name, or the qualified name if another type of the same simple name is already imported.
+     */
+    private static String importAnnotation(Node node, String simpleName) {
+        String packageName = annotationPackage(simpleName);
+        Optional<CompilationUnit> cuOpt = node.findCompilationUnit();
+        if (packageName == null || cuOpt.isEmpty()) {
+            return simpleName;
+        }
+        
+        CompilationUnit cu = cuOpt.get();
+        String qualifiedName = packageName + "." + simpleName;
+        for (ImportDeclaration importDecl : cu.getImports()) {
+            if (importDecl.isStatic()) {
+                continue;
+            }
+            String imported = importDecl.getNameAsString();
+            if (importDecl.isAsterisk() ? imported.equals(packageName) : imported.equals(qualifiedName)) {
+                return simpleName;
+            }
+            if (!importDecl.isAsterisk() && imported.endsWith("." + simpleName)) {
+                return qualifiedName;
+            }
+        }
+        
+        cu.addImport(qualifiedName);
+        return simpleName;
     }
 
-    private void addQualifierAnnotation(Parameter parameter, String qualifier, ConversionResult result) {
-        SingleMemberAnnotationExpr qualifierAnnotation = new SingleMemberAnnotationExpr();
-        qualifierAnnotation.setName("Qualifier");
-        qualifierAnnotation.setMemberValue(new NameExpr("\"" + qualifier + "\""));
-        parameter.addAnnotation(qualifierAnnotation);
-        result.addAnnotation("@Qualifier(\"" + qualifier + "\")");
-        result.addModification("Added @Qualifier annotation to parameter");
+    /**
+     * Gets the package of a Spring annotation this modifier adds, or null if it is unknown.
+     */
+    static String annotationPackage(String simpleName) {
+        return "Value".equals(simpleName) ? VALUE_PACKAGE : ANNOTATION_PACKAGES.get(simpleName);
     }
 
-    private void addValueAnnotation(FieldDeclaration field, String value, ConversionResult result) {
-        SingleMemberAnnotationExpr valueAnnotation = new SingleMemberAnnotationExpr();
-        valueAnnotation.setName("Value");
-        valueAnnotation.setMemberValue(new NameExpr("\"" + value + "\""));
-        field.addAnnotation(valueAnnotation);
-        result.addAnnotation("@Value(\"" + value + "\")");
-        result.addModification("Added @Value annotation");
+    private static boolean isSingleStringValue(AnnotationExpr annotation, String value) {
+        return annotation.isSingleMemberAnnotationExpr()
+                && annotation.asSingleMemberAnnotationExpr().getMemberValue().isStringLiteralExpr()
+                && value.equals(annotation.asSingleMemberAnnotationExpr().getMemberValue().asStringLiteralExpr().asString());
     }
 
-    private void writeModifiedFile(CompilationUnit cu, String filePath) throws IOException {
-        String modifiedContent = cu.toString();
-        Files.write(Path.of(filePath), modifiedContent.getBytes());
-        logger.debug("Successfully wrote modified file: {}", filePath);
+    /**
+     * Finds Java source files that correspond to a given class name.
+     */
+    public List<String> findJavaFilesForClass(ProjectIndex projectIndex, String className) {
+        return projectIndex.findJavaFiles(className);
     }
 
     /**
-     * Finds Java source files that correspond to a given class name.
+     * The outcome of applying beans to one Java file: a result per bean, and the modified
+     * source if the file needs writing.
      */
-    public List<String> findJavaFilesForClass(String projectDirectory, String className) {
-        List<String> javaFiles = new ArrayList<>();
-        
-        if (className == null || className.isEmpty()) {
-            return javaFiles;
+    public static final class Edit {
+        private final Path file;
+        private final List<ConversionResult> results;
+        private byte[] content;
+        private boolean modified;
+        // Length and checksum of the source the edit was made from
+        private int originalLength = -1;
+        private long originalChecksum;
+
+        private Edit(Path file, List<ConversionResult> results) {
+            this.file = file;
+            this.results = results;
         }
-        
-        final String simpleClassName = className.contains(".") ? 
-                className.substring(className.lastIndexOf('.') + 1) : className;
-        
-        try {
-            Files.walk(Path.of(projectDirectory))
-                    .filter(path -> path.toString().endsWith(".java"))
-                    .filter(path -> path.getFileName().toString().equals(simpleClassName + ".java"))
-                    .forEach(path -> javaFiles.add(path.toString()));
-        } catch (IOException e) {
-            logger.error("Error searching for Java files", e);
+
+        /**
+         * Gets one result per bean, in the order the beans were given.
+         */
+        public List<ConversionResult> getResults() {
+            return results;
+        }
+
+        /**
+         * Checks whether the file has to be written.
+         */
+        public boolean isModified() {
+            return modified;
+        }
+
+        /**
+         * Fails the beans that were applied, since their annotations never reached disk.
+         */
+        public void failWrite(IOException e) {
+            for (ConversionResult result : results) {
+                if (result.isSuccessful()) {
+                    result.setStatus(ConversionResult.ConversionStatus.FAILED);
+                    result.setErrorMessage("Error writing file: " + e.getMessage());
+                }
+            }
+        }
+
+        private void setContent(byte[] content) {
+            this.content = content;
+            this.modified = true;
+        }
+
+        private void setOriginal(byte[] original) {
+            this.originalLength = original.length;
+            this.originalChecksum = checksum(original);
+        }
+
+        /**
+         * Checks whether the edit was made from the given source.
+         */
+        private boolean readFrom(byte[] source) {
+            return source.length == originalLength && checksum(source) == originalChecksum;
+        }
+
+        private static long checksum(byte[] bytes) {
+            CRC32C crc = new CRC32C();
+            crc.update(bytes);
+            return crc.getValue();
         }
-        
-        return javaFiles;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package com.springconverter.java;
+
+import com.github.javaparser.resolution.cache.Cache;
+import com.github.javaparser.resolution.cache.CacheStats;
+import com.github.javaparser.symbolsolver.cache.DefaultCacheStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A cache for the symbol solver that holds at most a fixed number of entries, evicting the
+ * least recently used one to make room, and counts its hits, misses and evictions. Safe for
+ * use from several threads.
+ */
+final class LruCache<K, V> implements Cache<K, V> {
+    private final Map<K, V> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    LruCache(int maxEntries) {
+        int limit = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() <= limit) {
+                    return false;
+                }
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    @Override
+    public synchronized Optional<V> get(K key) {
+        V value = entries.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return Optional.ofNullable(value);
+    }
+
+    @Override
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized void removeAll() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public synchronized long size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public synchronized CacheStats stats() {
+        return new DefaultCacheStats(hits, misses, 0, 0, 0, evictions);
+    }
+}
@@ -0,0 +1,243 @@
+package com.springconverter.java;
+
+import com.github.javaparser.ast.expr.StringLiteralExpr;
+import com.springconverter.file.Splice;
+import com.springconverter.model.ConversionResult;
+import com.springconverter.model.Property;
+import com.springconverter.model.SpringBean;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds class and field annotations to a skimmed source file as splice edits, producing the
+ * same results a full parse would for the common cases: stereotypes and scope on a top-level
+ * class, and injection annotations on fields it declares one per statement. Beans needing
+ * anything else, such as constructor injection or a setter, are declined so the caller can
+ * fall back to a full parse.
+ */
+final class SkimAnnotator {
+    private final String text;
+    private final SkimLexer.Outline outline;
+    private final String lineSeparator;
+    private final Map<SkimLexer.Declaration, Map<String, String>> added = new IdentityHashMap<>();
+    private final Map<String, String> namesToWrite = new LinkedHashMap<>();
+    private final List<String> addedImports = new ArrayList<>();
+
+    private SkimAnnotator(String text, SkimLexer.Outline outline) {
+        this.text = text;
+        this.outline = outline;
+        this.lineSeparator = text.contains("\r\n") ? "\r\n" : "\n";
+    }
+
+    /**
+     * Applies the beans to the source text, filling in their results. Returns the new text,
+     * or null without touching the results if a full parse is needed for any bean.
+     */
+    static String annotate(String text, List<SpringBean> beans, List<ConversionResult> results) {
+        SkimLexer.Outline outline = SkimLexer.skim(text);
+        if (outline == null) {
+            return null;
+        }
+        SkimAnnotator annotator = new SkimAnnotator(text, outline);
+        for (SpringBean bean : beans) {
+            if (!annotator.canApply(bean)) {
+                return null;
+            }
+        }
+        for (int i = 0; i < beans.size(); i++) {
+            annotator.apply(beans.get(i), results.get(i));
+        }
+        return annotator.splice();
+    }
+
+    private boolean canApply(SpringBean bean) {
+        String className = bean.getClassName();
+        if (className == null || className.isEmpty() || bean.getScope() == null
+                || !bean.getConstructorArgs().isEmpty()) {
+            return false;
+        }
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        if (className.contains(".") && !outline.packageName.isEmpty()
+                && !className.startsWith(outline.packageName + ".")) {
+            return false;
+        }
+        SkimLexer.TypeDeclaration type = outline.types.get(simpleName);
+        if (type == null || outline.ambiguousTypes.contains(simpleName) || type.insertAt < 0
+                || !("class".equals(type.kind) || "interface".equals(type.kind))) {
+            return false;
+        }
+        if (!"singleton".equals(bean.getScope()) && conflicts(type, "Scope", bean.getScope())) {
+            return false;
+        }
+        for (Property property : bean.getProperties()) {
+            if (!property.isReference() && !property.isValue()) {
+                continue;
+            }
+            SkimLexer.Declaration field = type.fields.get(property.getName());
+            if (field == null || field.insertAt < 0 || type.ambiguousFields.contains(property.getName())) {
+                return false;
+            }
+            if (property.isReference() && property.getRef() != null && !property.getRef().isEmpty()
+                    && conflicts(field, "Qualifier", property.getRef())) {
+                return false;
+            }
+            if (property.isValue() && conflicts(field, "Value", property.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a declaration already carries the annotation with some other value, a
+     * conflict the full parse reports in detail.
+     */
+    private static boolean conflicts(SkimLexer.Declaration declaration, String name, String value) {
+        String existing = declaration.annotations.get(name);
+        return existing != null && !existing.endsWith("(" + literal(value) + ")");
+    }
+
+    private void apply(SpringBean bean, ConversionResult result) {
+        String className = bean.getClassName();
+        SkimLexer.TypeDeclaration type = outline.types.get(className.substring(className.lastIndexOf('.') + 1));
+
+        String stereotype = JavaSourceModifier.determineClassAnnotation(bean);
+        if (stereotype != null) {
+            addMarker(type, stereotype, "class", result);
+        }
+        if (bean.isPrimary()) {
+            addMarker(type, "@Primary", "class", result);
+        }
+        if (bean.isLazyInit()) {
+            addMarker(type, "@Lazy", "class", result);
+        }
+        if (!"singleton".equals(bean.getScope())) {
+            addSingleMember(type, "@Scope", bean.getScope(), "class", result);
+        }
+
+        for (Property property : bean.getProperties()) {
+            if (!property.isReference() && !property.isValue()) {
+                continue;
+            }
+            SkimLexer.Declaration field = type.fields.get(property.getName());
+            String target = "field " + property.getName();
+            if (property.isReference()) {
+                addMarker(field, "@Autowired", target, result);
+                if (property.getRef() != null && !property.getRef().isEmpty()) {
+                    addSingleMember(field, "@Qualifier", property.getRef(), target, result);
+                }
+            } else {
+                addSingleMember(field, "@Value", property.getValue(), target, result);
+            }
+        }
+
+        result.setStatus(ConversionResult.ConversionStatus.SUCCESS);
+        result.setTargetFile(result.getSourceFile());
+    }
+
+    private void addMarker(SkimLexer.Declaration declaration, String annotation, String target,
+                           ConversionResult result) {
+        String name = annotation.substring(1);
+        if (declaration.annotations.containsKey(name) || addedTo(declaration).containsKey(name)) {
+            return;
+        }
+        addedTo(declaration).put(name, "@" + nameToWrite(name));
+        result.addAnnotation(annotation);
+        result.addModification("Added " + annotation + " to " + target);
+    }
+
+    private void addSingleMember(SkimLexer.Declaration declaration, String annotation, String value, String target,
+                                 ConversionResult result) {
+        String name = annotation.substring(1);
+        String existing = declaration.annotations.containsKey(name)
+                ? declaration.annotations.get(name) : addedTo(declaration).get(name);
+        if (existing != null) {
+            if (!existing.endsWith("(" + literal(value) + ")")) {
+                result.addModification("TODO: " + target + " already has " + existing
+                        + "; not adding " + annotation + "(\"" + value + "\")");
+            }
+            return;
+        }
+        addedTo(declaration).put(name, "@" + nameToWrite(name) + "(" + literal(value) + ")");
+        result.addAnnotation(annotation + "(\"" + value + "\")");
+        result.addModification("Added " + annotation + " to " + target);
+    }
+
+    private Map<String, String> addedTo(SkimLexer.Declaration declaration) {
+        return added.computeIfAbsent(declaration, key -> new LinkedHashMap<>());
+    }
+
+    /**
+     * Gets the name to write an annotation with, adding its import unless a different type
+     * of the same simple name is already imported, in which case the qualified name is used.
+     */
+    private String nameToWrite(String simpleName) {
+        return namesToWrite.computeIfAbsent(simpleName, key -> {
+            String packageName = JavaSourceModifier.annotationPackage(simpleName);
+            if (packageName == null) {
+                return simpleName;
+            }
+            String qualifiedName = packageName + "." + simpleName;
+            for (SkimLexer.Import importDecl : outline.imports) {
+                if (importDecl.isStatic) {
+                    continue;
+                }
+                if (importDecl.isAsterisk ? importDecl.name.equals(packageName) : importDecl.name.equals(qualifiedName)) {
+                    return simpleName;
+                }
+                if (!importDecl.isAsterisk && importDecl.name.endsWith("." + simpleName)) {
+                    return qualifiedName;
+                }
+            }
+            addedImports.add(qualifiedName);
+            return simpleName;
+        });
+    }
+
+    private String splice() {
+        List<Splice> splices = new ArrayList<>();
+        if (!addedImports.isEmpty()) {
+            splices.add(importSplice());
+        }
+        added.forEach((declaration, annotations) -> {
+            if (annotations.isEmpty()) {
+                return;
+            }
+            StringBuilder insertion = new StringBuilder();
+            for (String annotation : annotations.values()) {
+                insertion.append(annotation).append(lineSeparator).append(declaration.indent);
+            }
+            splices.add(Splice.insert(declaration.insertAt, insertion.toString()));
+        });
+        return splices.isEmpty() ? text : Splice.apply(text, splices);
+    }
+
+    private Splice importSplice() {
+        StringBuilder imports = new StringBuilder();
+        if (!outline.imports.isEmpty()) {
+            for (String qualifiedName : addedImports) {
+                imports.append(lineSeparator).append("import ").append(qualifiedName).append(';');
+            }
+            return Splice.insert(outline.imports.get(outline.imports.size() - 1).end, imports.toString());
+        }
+        if (outline.packageEnd >= 0) {
+            imports.append(lineSeparator);
+            for (String qualifiedName : addedImports) {
+                imports.append(lineSeparator).append("import ").append(qualifiedName).append(';');
+            }
+            return Splice.insert(outline.packageEnd, imports.toString());
+        }
+        for (String qualifiedName : addedImports) {
+            imports.append("import ").append(qualifiedName).append(';').append(lineSeparator);
+        }
+        return Splice.insert(0, imports.append(lineSeparator).toString());
+    }
+
+    private static String literal(String value) {
+        return new StringLiteralExpr().setString(value).toString();
+    }
+}
@@ -0,0 +1,534 @@
+package com.springconverter.java;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A hand-written lexer that skims Java source for what annotation insertion needs: the
+ * package and import declarations, the top-level types, and the fields declared directly in
+ * each of them, with their annotations and offsets. Comments, literals and the contents of
+ * method bodies and initializers are skipped over, not understood. Anything it cannot follow
+ * makes {@link #skim} return null, so the caller falls back to a full parse.
+ */
+final class SkimLexer {
+
+    /**
+     * An import declaration and the offset just past its semicolon.
+     */
+    static final class Import {
+        final String name;
+        final boolean isStatic;
+        final boolean isAsterisk;
+        final int end;
+
+        private Import(String name, boolean isStatic, boolean isAsterisk, int end) {
+            this.name = name;
+            this.isStatic = isStatic;
+            this.isAsterisk = isAsterisk;
+            this.end = end;
+        }
+    }
+
+    /**
+     * A declaration's annotations and where new annotations can be inserted in front of it.
+     * The insertion offset is -1 when the declaration does not start its own line.
+     */
+    static class Declaration {
+        final Map<String, String> annotations = new LinkedHashMap<>();
+        int start = -1;
+        int afterAnnotations = -1;
+        int insertAt = -1;
+        String indent = "";
+    }
+
+    /**
+     * A top-level class, interface, enum or record.
+     */
+    static final class TypeDeclaration extends Declaration {
+        String kind;
+        String name;
+        final Map<String, Declaration> fields = new LinkedHashMap<>();
+        final Set<String> ambiguousFields = new HashSet<>();
+    }
+
+    /**
+     * The skimmed outline of one source file.
+     */
+    static final class Outline {
+        String packageName = "";
+        int packageEnd = -1;
+        final List<Import> imports = new ArrayList<>();
+        final Map<String, TypeDeclaration> types = new LinkedHashMap<>();
+        final Set<String> ambiguousTypes = new HashSet<>();
+    }
+
+    /**
+     * Thrown internally when the source cannot be followed.
+     */
+    private static final class LowConfidence extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private LowConfidence(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private final String text;
+    private final Outline outline = new Outline();
+    private int pos;
+    private int depth;
+
+    // The declaration being read at the top level or directly in a type body
+    private Declaration current = new Declaration();
+    private TypeDeclaration pendingType;
+    private TypeDeclaration openType;
+    private int angleDepth;
+    private boolean sawParen;
+    private boolean sawEquals;
+    private boolean sawComma;
+    private boolean hasBody;
+    private boolean nestedType;
+    private String lastIdentifier;
+    private String fieldName;
+    private int lastSignificant = -1;
+
+    private SkimLexer(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Skims a source file, or returns null if it uses anything the lexer cannot follow.
+     */
+    static Outline skim(String text) {
+        SkimLexer lexer = new SkimLexer(text);
+        try {
+            lexer.run();
+            return lexer.outline;
+        } catch (LowConfidence e) {
+            return null;
+        }
+    }
+
+    private void run() {
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (isWhitespace(c)) {
+                pos++;
+            } else if (c == '/' && peekAt(1) == '/') {
+                skipLineComment();
+            } else if (c == '/' && peekAt(1) == '*') {
+                skipBlockComment();
+            } else if (c == '"') {
+                skipStringLiteral();
+                significant(c);
+            } else if (c == '\'') {
+                skipQuoted('\'');
+                significant(c);
+            } else if (c == '@') {
+                readAnnotation();
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = pos;
+                String word = readIdentifier();
+                if (isTracked()) {
+                    handleWord(word, start);
+                }
+                lastSignificant = 'a';
+            } else if (Character.isDigit(c)) {
+                while (pos < text.length() && (Character.isJavaIdentifierPart(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                    pos++;
+                }
+                lastSignificant = '0';
+            } else {
+                pos++;
+                handlePunctuation(c);
+                significant(c);
+            }
+        }
+        if (depth != 0 || pendingType != null) {
+            throw new LowConfidence("Unbalanced braces");
+        }
+    }
+
+    private boolean isTracked() {
+        return depth == 0 || (depth == 1 && openType != null);
+    }
+
+    private void handleWord(String word, int start) {
+        boolean afterDot = lastSignificant == '.';
+        markToken(start, true);
+        if (sawEquals || afterDot) {
+            return;
+        }
+        switch (word) {
+            case "package":
+                if (depth == 0) {
+                    outline.packageName = readQualifiedName();
+                    expect(';');
+                    outline.packageEnd = pos;
+                    reset();
+                }
+                return;
+            case "import":
+                if (depth == 0) {
+                    readImport();
+                    reset();
+                }
+                return;
+            case "class":
+            case "interface":
+            case "enum":
+            case "record":
+                declareType(word);
+                return;
+            default:
+                if (!sawParen && angleDepth == 0) {
+                    lastIdentifier = word;
+                }
+        }
+    }
+
+    private void declareType(String kind) {
+        skipTrivia();
+        if (pos >= text.length() || !Character.isJavaIdentifierStart(text.charAt(pos))) {
+            throw new LowConfidence("Type keyword without a name");
+        }
+        String name = readIdentifier();
+        if (depth > 0) {
+            nestedType = true;
+            return;
+        }
+        TypeDeclaration type = new TypeDeclaration();
+        type.kind = kind;
+        type.name = name;
+        type.annotations.putAll(current.annotations);
+        type.start = current.start;
+        type.afterAnnotations = current.afterAnnotations;
+        type.insertAt = current.insertAt;
+        type.indent = current.indent;
+        pendingType = type;
+    }
+
+    private void handlePunctuation(char c) {
+        if (c == '{') {
+            openBrace();
+        } else if (c == '}') {
+            closeBrace();
+        } else if (!isTracked()) {
+            if (c == '(') {
+                skipParentheses();
+            }
+        } else if (c == '(') {
+            if (!sawEquals) {
+                sawParen = true;
+            }
+            skipParentheses();
+        } else if (c == '<' && !sawEquals) {
+            angleDepth++;
+        } else if (c == '>' && !sawEquals && angleDepth > 0) {
+            angleDepth--;
+        } else if (c == '=' && angleDepth == 0 && !sawEquals) {
+            sawEquals = true;
+            fieldName = lastIdentifier;
+        } else if (c == ',' && angleDepth == 0) {
+            sawComma = true;
+        } else if (c == ';') {
+            endDeclaration();
+        }
+    }
+
+    private void openBrace() {
+        if (depth == 0) {
+            if (pendingType == null) {
+                throw new LowConfidence("Block outside a type");
+            }
+            if (outline.types.containsKey(pendingType.name)) {
+                outline.ambiguousTypes.add(pendingType.name);
+            }
+            outline.types.put(pendingType.name, pendingType);
+            openType = pendingType;
+            pendingType = null;
+            depth = 1;
+            reset();
+            return;
+        }
+        if (depth == 1 && openType != null && !sawEquals) {
+            // A method, constructor, initializer or nested type body
+            hasBody = true;
+        }
+        depth++;
+    }
+
+    private void closeBrace() {
+        if (depth == 0) {
+            throw new LowConfidence("Unbalanced closing brace");
+        }
+        depth--;
+        if (depth == 0) {
+            openType = null;
+            reset();
+        } else if (depth == 1 && openType != null && hasBody) {
+            reset();
+        }
+    }
+
+    private void endDeclaration() {
+        if (depth == 1 && openType != null && !sawParen && !hasBody && !nestedType) {
+            String name = sawEquals ? fieldName : lastIdentifier;
+            if (name != null) {
+                if (sawComma || openType.fields.containsKey(name)) {
+                    openType.ambiguousFields.add(name);
+                }
+                openType.fields.put(name, current);
+            }
+        }
+        reset();
+    }
+
+    private void reset() {
+        current = new Declaration();
+        angleDepth = 0;
+        sawParen = false;
+        sawEquals = false;
+        sawComma = false;
+        hasBody = false;
+        nestedType = false;
+        lastIdentifier = null;
+        fieldName = null;
+    }
+
+    /**
+     * Notes the start of a token in the current declaration: the first token starts the
+     * declaration, and the first one that is not an annotation is where new annotations go.
+     */
+    private void markToken(int start, boolean afterAnnotations) {
+        if (!isTracked()) {
+            return;
+        }
+        if (current.start < 0) {
+            current.start = start;
+        }
+        if (afterAnnotations && current.afterAnnotations < 0) {
+            current.afterAnnotations = start;
+            int candidate = startsLine(start) ? start : (startsLine(current.start) ? current.start : -1);
+            current.insertAt = candidate;
+            current.indent = candidate >= 0 ? indentBefore(candidate) : "";
+        }
+    }
+
+    private void readAnnotation() {
+        int start = pos;
+        pos++;
+        skipTrivia();
+        if (pos >= text.length() || !Character.isJavaIdentifierStart(text.charAt(pos))) {
+            throw new LowConfidence("Annotation without a name");
+        }
+        if (text.startsWith("interface", pos)) {
+            // An annotation type declaration
+            readIdentifier();
+            markToken(start, true);
+            if (isTracked()) {
+                declareType("@interface");
+            }
+            lastSignificant = 'a';
+            return;
+        }
+        String name = readQualifiedName();
+        int end = pos;
+        skipTrivia();
+        if (pos < text.length() && text.charAt(pos) == '(') {
+            pos++;
+            skipParentheses();
+            end = pos;
+        }
+        if (isTracked() && !sawEquals) {
+            markToken(start, false);
+            current.annotations.putIfAbsent(name.substring(name.lastIndexOf('.') + 1), text.substring(start, end));
+        }
+        lastSignificant = ')';
+    }
+
+    private void readImport() {
+        skipTrivia();
+        boolean isStatic = false;
+        if (text.startsWith("static", pos) && !Character.isJavaIdentifierPart(charAt(pos + 6))) {
+            readIdentifier();
+            isStatic = true;
+        }
+        String name = readQualifiedName();
+        boolean isAsterisk = false;
+        skipTrivia();
+        if (pos < text.length() && text.charAt(pos) == '*') {
+            pos++;
+            isAsterisk = true;
+            name = name.endsWith(".") ? name.substring(0, name.length() - 1) : name;
+        }
+        expect(';');
+        outline.imports.add(new Import(name, isStatic, isAsterisk, pos));
+    }
+
+    private String readQualifiedName() {
+        StringBuilder name = new StringBuilder();
+        while (true) {
+            skipTrivia();
+            if (pos >= text.length() || !Character.isJavaIdentifierStart(text.charAt(pos))) {
+                break;
+            }
+            name.append(readIdentifier());
+            skipTrivia();
+            if (pos >= text.length() || text.charAt(pos) != '.') {
+                break;
+            }
+            pos++;
+            name.append('.');
+        }
+        if (name.length() == 0) {
+            throw new LowConfidence("Expected a name");
+        }
+        return name.toString();
+    }
+
+    private String readIdentifier() {
+        int start = pos;
+        pos++;
+        while (pos < text.length() && Character.isJavaIdentifierPart(text.charAt(pos))) {
+            pos++;
+        }
+        return text.substring(start, pos);
+    }
+
+    private void expect(char c) {
+        skipTrivia();
+        if (pos >= text.length() || text.charAt(pos) != c) {
+            throw new LowConfidence("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    private void skipParentheses() {
+        int parens = 1;
+        while (parens > 0) {
+            if (pos >= text.length()) {
+                throw new LowConfidence("Unbalanced parentheses");
+            }
+            char c = text.charAt(pos);
+            if (c == '/' && peekAt(1) == '/') {
+                skipLineComment();
+            } else if (c == '/' && peekAt(1) == '*') {
+                skipBlockComment();
+            } else if (c == '"') {
+                skipStringLiteral();
+            } else if (c == '\'') {
+                skipQuoted('\'');
+            } else {
+                pos++;
+                if (c == '(') {
+                    parens++;
+                } else if (c == ')') {
+                    parens--;
+                }
+            }
+        }
+    }
+
+    private void skipTrivia() {
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (isWhitespace(c)) {
+                pos++;
+            } else if (c == '/' && peekAt(1) == '/') {
+                skipLineComment();
+            } else if (c == '/' && peekAt(1) == '*') {
+                skipBlockComment();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void skipLineComment() {
+        int end = text.indexOf('\n', pos);
+        pos = end < 0 ? text.length() : end + 1;
+    }
+
+    private void skipBlockComment() {
+        int end = text.indexOf("*/", pos + 2);
+        if (end < 0) {
+            throw new LowConfidence("Unterminated comment");
+        }
+        pos = end + 2;
+    }
+
+    private void skipStringLiteral() {
+        if (text.startsWith("\"\"\"", pos)) {
+            pos += 3;
+            while (pos < text.length()) {
+                if (text.charAt(pos) == '\\') {
+                    pos += 2;
+                } else if (text.startsWith("\"\"\"", pos)) {
+                    pos += 3;
+                    return;
+                } else {
+                    pos++;
+                }
+            }
+            throw new LowConfidence("Unterminated text block");
+        }
+        skipQuoted('"');
+    }
+
+    private void skipQuoted(char quote) {
+        pos++;
+        while (pos < text.length()) {
+            char c = text.charAt(pos++);
+            if (c == '\\') {
+                pos++;
+            } else if (c == quote) {
+                return;
+            } else if (c == '\n') {
+                break;
+            }
+        }
+        throw new LowConfidence("Unterminated literal");
+    }
+
+    private void significant(char c) {
+        lastSignificant = c;
+    }
+
+    private boolean startsLine(int offset) {
+        for (int i = offset - 1; i >= 0; i--) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                return true;
+            }
+            if (c != ' ' && c != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String indentBefore(int offset) {
+        int lineStart = offset;
+        while (lineStart > 0 && text.charAt(lineStart - 1) != '\n') {
+            lineStart--;
+        }
+        return text.substring(lineStart, offset);
+    }
+
+    private int peekAt(int ahead) {
+        return charAt(pos + ahead);
+    }
+
+    private int charAt(int index) {
+        return index < text.length() ? text.charAt(index) : -1;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+}
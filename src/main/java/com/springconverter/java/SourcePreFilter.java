@@ -0,0 +1,352 @@
+package com.springconverter.java;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A byte-level scan of a Java source file that finds its package, the types it declares and
+ * the annotations written on each, without building a syntax tree. Comments, string and
+ * character literals are skipped, so a class name in a comment is not taken for a
+ * declaration. Used to decide whether a file needs a full parse at all.
+ */
+final class SourcePreFilter {
+
+    // Files up to this size are read into a pooled buffer; larger ones get a buffer of their own
+    static final int POOLED_BUFFER_BYTES = 256 * 1024;
+
+    private static final ConcurrentLinkedQueue<ByteBuffer> BUFFER_POOL = new ConcurrentLinkedQueue<>();
+
+    /**
+     * What a scan found in one source file.
+     */
+    static final class Summary {
+        private final String packageName;
+        private final Map<String, Set<String>> annotationsByType;
+
+        private Summary(String packageName, Map<String, Set<String>> annotationsByType) {
+            this.packageName = packageName;
+            this.annotationsByType = annotationsByType;
+        }
+
+        /**
+         * Gets the declared package, or an empty string for the default package.
+         */
+        String getPackageName() {
+            return packageName;
+        }
+
+        /**
+         * Checks whether the file declares a class, interface, enum or record of that simple
+         * name, at any nesting level.
+         */
+        boolean declaresType(String simpleName) {
+            return annotationsByType.containsKey(simpleName);
+        }
+
+        /**
+         * Gets the simple names of the annotations written on a declared type.
+         */
+        Set<String> getAnnotations(String simpleName) {
+            return annotationsByType.getOrDefault(simpleName, Collections.emptySet());
+        }
+    }
+
+    private final ByteBuffer source;
+    private final Map<String, Set<String>> annotationsByType = new HashMap<>();
+    private Set<String> pendingAnnotations = new HashSet<>();
+    private String packageName = "";
+    private int lastSignificant = -1;
+
+    private SourcePreFilter(ByteBuffer source) {
+        this.source = source;
+    }
+
+    /**
+     * Scans a source file, reading it into a buffer. The file is not mapped, since a mapping
+     * stays open until it is garbage collected and on Windows keeps the file from being
+     * written.
+     */
+    static Summary scan(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to scan: " + file);
+            }
+            ByteBuffer buffer = acquireBuffer((int) size);
+            try {
+                while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                    // Keep reading until the buffer is full or the file ends
+                }
+                buffer.flip();
+                return scan(buffer);
+            } finally {
+                releaseBuffer(buffer);
+            }
+        }
+    }
+
+    static Summary scan(ByteBuffer source) {
+        SourcePreFilter filter = new SourcePreFilter(source.duplicate());
+        filter.run();
+        return new Summary(filter.packageName, filter.annotationsByType);
+    }
+
+    private void run() {
+        while (source.hasRemaining()) {
+            int c = next();
+            if (c == '/' && peek() == '/') {
+                skipLineComment();
+            } else if (c == '/' && peek() == '*') {
+                next();
+                skipBlockComment();
+            } else if (c == '"') {
+                skipStringLiteral();
+            } else if (c == '\'') {
+                skipQuoted('\'');
+            } else if (c == '@') {
+                readAnnotation();
+            } else if (isIdentifierStart(c)) {
+                String word = readIdentifierRest();
+                handleWord(word);
+                continue;
+            } else if (c == ';' || c == '{' || c == '}' || c == '=') {
+                // Annotations never carry over a statement or block boundary
+                pendingAnnotations = new HashSet<>();
+            }
+            if (!isWhitespace(c)) {
+                lastSignificant = c;
+            }
+        }
+    }
+
+    private void handleWord(String word) {
+        boolean afterDot = lastSignificant == '.';
+        lastSignificant = 'a';
+        if (afterDot) {
+            // Foo.class, or part of a qualified name
+            return;
+        }
+        switch (word) {
+            case "package":
+                packageName = readQualifiedName();
+                break;
+            case "class":
+            case "interface":
+            case "enum":
+            case "record":
+                declareType();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void declareType() {
+        skipTrivia();
+        if (!source.hasRemaining() || !isIdentifierStart(peek())) {
+            return;
+        }
+        next();
+        String name = readIdentifierRest();
+        annotationsByType.computeIfAbsent(name, key -> new HashSet<>()).addAll(pendingAnnotations);
+        pendingAnnotations = new HashSet<>();
+    }
+
+    private void readAnnotation() {
+        skipTrivia();
+        if (!source.hasRemaining() || !isIdentifierStart(peek())) {
+            return;
+        }
+        String name = readQualifiedName();
+        if ("interface".equals(name)) {
+            // An annotation type declaration, not an annotation
+            declareType();
+            return;
+        }
+        pendingAnnotations.add(name.substring(name.lastIndexOf('.') + 1));
+        skipTrivia();
+        if (source.hasRemaining() && peek() == '(') {
+            next();
+            skipArguments();
+        }
+        lastSignificant = ')';
+    }
+
+    private String readQualifiedName() {
+        StringBuilder name = new StringBuilder();
+        while (true) {
+            skipTrivia();
+            if (!source.hasRemaining() || !isIdentifierStart(peek())) {
+                break;
+            }
+            next();
+            name.append(readIdentifierRest());
+            skipTrivia();
+            if (!source.hasRemaining() || peek() != '.') {
+                break;
+            }
+            next();
+            name.append('.');
+        }
+        return name.toString();
+    }
+
+    private void skipArguments() {
+        int depth = 1;
+        while (depth > 0 && source.hasRemaining()) {
+            int c = next();
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '"') {
+                skipStringLiteral();
+            } else if (c == '\'') {
+                skipQuoted('\'');
+            } else if (c == '/' && peek() == '/') {
+                skipLineComment();
+            } else if (c == '/' && peek() == '*') {
+                next();
+                skipBlockComment();
+            }
+        }
+    }
+
+    private void skipTrivia() {
+        while (source.hasRemaining()) {
+            int c = peek();
+            if (isWhitespace(c)) {
+                next();
+            } else if (c == '/' && peekAt(1) == '/') {
+                skipLineComment();
+            } else if (c == '/' && peekAt(1) == '*') {
+                next();
+                next();
+                skipBlockComment();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void skipLineComment() {
+        while (source.hasRemaining() && next() != '\n') {
+            // Skip to end of line
+        }
+    }
+
+    private void skipBlockComment() {
+        int previous = 0;
+        while (source.hasRemaining()) {
+            int c = next();
+            if (previous == '*' && c == '/') {
+                return;
+            }
+            previous = c;
+        }
+    }
+
+    private void skipStringLiteral() {
+        if (peek() == '"' && peekAt(1) == '"') {
+            // Text block: skip to the closing triple quote
+            next();
+            next();
+            int quotes = 0;
+            while (source.hasRemaining()) {
+                int c = next();
+                if (c == '\\') {
+                    next();
+                    quotes = 0;
+                } else if (c == '"') {
+                    if (++quotes == 3) {
+                        return;
+                    }
+                } else {
+                    quotes = 0;
+                }
+            }
+            return;
+        }
+        skipQuoted('"');
+    }
+
+    private void skipQuoted(int quote) {
+        while (source.hasRemaining()) {
+            int c = next();
+            if (c == '\\') {
+                if (source.hasRemaining()) {
+                    next();
+                }
+            } else if (c == quote || c == '\n') {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads the rest of an identifier whose first character was just consumed.
+     */
+    private String readIdentifierRest() {
+        int start = source.position() - 1;
+        while (source.hasRemaining() && isIdentifierPart(peek())) {
+            next();
+        }
+        byte[] bytes = new byte[source.position() - start];
+        source.duplicate().position(start).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int next() {
+        return source.get() & 0xFF;
+    }
+
+    private int peek() {
+        return source.hasRemaining() ? source.get(source.position()) & 0xFF : -1;
+    }
+
+    private int peekAt(int ahead) {
+        int index = source.position() + ahead;
+        return index < source.limit() ? source.get(index) & 0xFF : -1;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    private static boolean isIdentifierStart(int c) {
+        // Bytes of multi-byte UTF-8 sequences are taken as identifier characters
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$' || c >= 0x80;
+    }
+
+    private static boolean isIdentifierPart(int c) {
+        return isIdentifierStart(c) || (c >= '0' && c <= '9');
+    }
+
+    private static ByteBuffer acquireBuffer(int size) {
+        if (size > POOLED_BUFFER_BYTES) {
+            return ByteBuffer.allocate(size);
+        }
+        ByteBuffer buffer = BUFFER_POOL.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(POOLED_BUFFER_BYTES);
+        }
+        buffer.clear().limit(size);
+        return buffer;
+    }
+
+    private static void releaseBuffer(ByteBuffer buffer) {
+        if (buffer.capacity() == POOLED_BUFFER_BYTES && buffer.isDirect()) {
+            BUFFER_POOL.offer(buffer);
+        }
+    }
+}
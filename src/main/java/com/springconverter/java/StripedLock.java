@@ -0,0 +1,33 @@
+package com.springconverter.java;
+
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared by all files, each file always mapping to the same lock. Two
+ * threads working on the same file are serialized without keeping a lock per file.
+ */
+class StripedLock {
+    static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] stripes;
+
+    StripedLock(int stripes) {
+        // Round up to a power of two so the stripe is picked with a mask
+        int count = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Gets the lock guarding the given file.
+     */
+    ReentrantLock forFile(Path file) {
+        int hash = file.toAbsolutePath().normalize().hashCode();
+        // Spread the high bits, as HashMap does
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+}
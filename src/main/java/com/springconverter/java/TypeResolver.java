@@ -0,0 +1,291 @@
+package com.springconverter.java;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.cache.Cache;
+import com.github.javaparser.resolution.cache.CacheStats;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.resolution.types.ResolvedReferenceType;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import com.springconverter.model.SpringBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the types written in Java sources against the project's source roots, the JDK
+ * and any dependency JARs, and relates them to the beans of the run. It is built once per run
+ * and shared by all files and threads: every answer is kept in a memo table, and the
+ * underlying solver, which is not thread-safe, is only consulted on a miss. The sources the
+ * solver parses are kept in one cache for all source roots, within a budget of entries.
+ */
+public class TypeResolver {
+    private static final Logger logger = LoggerFactory.getLogger(TypeResolver.class);
+
+    public static final int DEFAULT_PARSE_CACHE_ENTRIES = 4096;
+
+    private static final String UNRESOLVED = "";
+
+    private final TypeSolver typeSolver;
+    private final Cache<Path, Optional<CompilationUnit>> parsedFiles;
+    private final Map<String, String> beanClassesById = new HashMap<>();
+    private final List<String> beanClasses = new ArrayList<>();
+    private final Map<String, String> resolvedNames = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> supertypes = new ConcurrentHashMap<>();
+    private final Map<String, Integer> candidateCounts = new ConcurrentHashMap<>();
+    private final Object solverLock = new Object();
+
+    TypeResolver(TypeSolver typeSolver, Cache<Path, Optional<CompilationUnit>> parsedFiles,
+                 Collection<SpringBean> beans) {
+        this.typeSolver = typeSolver;
+        this.parsedFiles = parsedFiles;
+        for (SpringBean bean : beans) {
+            if (bean.getClassName() == null || bean.getClassName().isEmpty()) {
+                continue;
+            }
+            beanClasses.add(bean.getClassName());
+            if (bean.getId() != null) {
+                beanClassesById.putIfAbsent(bean.getId(), bean.getClassName());
+            }
+        }
+    }
+
+    /**
+     * Builds a resolver over the given source roots and dependency JARs, plus the JDK.
+     * JARs that cannot be opened are skipped with a warning.
+     */
+    public static TypeResolver create(List<Path> sourceRoots, List<Path> dependencyJars, LanguageLevel languageLevel,
+                                      Collection<SpringBean> beans) {
+        return create(sourceRoots, dependencyJars, languageLevel, DEFAULT_PARSE_CACHE_ENTRIES, beans);
+    }
+
+    /**
+     * Builds a resolver that keeps at most the given number of parsed source files, and as
+     * many parsed directories and looked-up types per source root, evicting the least
+     * recently used.
+     */
+    public static TypeResolver create(List<Path> sourceRoots, List<Path> dependencyJars, LanguageLevel languageLevel,
+                                      int parseCacheEntries, Collection<SpringBean> beans) {
+        CombinedTypeSolver combined = new CombinedTypeSolver();
+        combined.add(new ReflectionTypeSolver(true));
+        JavaParser parser = new JavaParser(new ParserConfiguration().setLanguageLevel(languageLevel));
+        // Keyed by absolute path, so one cache serves every root
+        Cache<Path, Optional<CompilationUnit>> parsedFiles = new LruCache<>(parseCacheEntries);
+        Cache<Path, List<CompilationUnit>> parsedDirectories = new LruCache<>(parseCacheEntries);
+        for (Path root : sourceRoots) {
+            if (Files.isDirectory(root)) {
+                // A type a root does not have may be in another, so found types are kept per root
+                combined.add(new JavaParserTypeSolver(root, parser, parsedFiles, parsedDirectories,
+                        new LruCache<>(parseCacheEntries)));
+            }
+        }
+        for (Path jar : dependencyJars) {
+            try {
+                combined.add(new JarTypeSolver(jar));
+            } catch (IOException e) {
+                logger.warn("Skipping dependency JAR that cannot be read: {}", jar, e);
+            }
+        }
+        logger.info("Type resolution over {} source roots and {} dependency JARs", sourceRoots.size(), dependencyJars.size());
+        return new TypeResolver(combined, parsedFiles, beans);
+    }
+
+    /**
+     * Gets the hits, misses and evictions of the cache of parsed source files so far.
+     */
+    public CacheStats getParseCacheStats() {
+        return parsedFiles.stats();
+    }
+
+    /**
+     * Gets the qualified name of a class or interface type as written in a source file,
+     * without type arguments, if it can be resolved.
+     */
+    public Optional<String> resolve(Type type, Node context) {
+        if (!type.isClassOrInterfaceType()) {
+            return Optional.empty();
+        }
+        ClassOrInterfaceType classType = type.asClassOrInterfaceType();
+        String written = classType.getNameWithScope();
+        Optional<CompilationUnit> cu = context.findCompilationUnit();
+        // Files with the same package and imports resolve a name the same way
+        String key = (cu.isPresent() ? importContext(cu.get()) : "") + "#" + written;
+
+        String resolved = resolvedNames.get(key);
+        if (resolved == null) {
+            synchronized (solverLock) {
+                resolved = resolvedNames.computeIfAbsent(key, k -> resolveName(written, cu.orElse(null)));
+            }
+        }
+        return resolved.isEmpty() ? Optional.empty() : Optional.of(resolved);
+    }
+
+    /**
+     * Gets the class of the bean with the given id, if the run defines it.
+     */
+    public Optional<String> getBeanClass(String beanId) {
+        return Optional.ofNullable(beanClassesById.get(beanId));
+    }
+
+    /**
+     * Checks whether a value of the given class can be assigned to the given type. Classes
+     * that cannot be resolved are only assignable to themselves.
+     */
+    public boolean isAssignable(String targetType, String className) {
+        return targetType.equals(className) || supertypesOf(className).contains(targetType);
+    }
+
+    /**
+     * Counts the beans of the run whose class can be assigned to the given type.
+     */
+    public int countCandidates(String targetType) {
+        Integer count = candidateCounts.get(targetType);
+        if (count == null) {
+            int matches = 0;
+            for (String beanClass : beanClasses) {
+                if (isAssignable(targetType, beanClass)) {
+                    matches++;
+                }
+            }
+            candidateCounts.putIfAbsent(targetType, matches);
+            count = matches;
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether injecting into the given type needs a qualifier, which is the case
+     * unless the type resolves and at most one bean of the run can be assigned to it.
+     */
+    public boolean needsQualifier(Type type, Node context) {
+        Optional<String> resolved = resolve(type, context);
+        return resolved.isEmpty() || countCandidates(resolved.get()) > 1;
+    }
+
+    private Set<String> supertypesOf(String className) {
+        Set<String> known = supertypes.get(className);
+        if (known == null) {
+            synchronized (solverLock) {
+                known = supertypes.computeIfAbsent(className, this::collectSupertypes);
+            }
+        }
+        return known;
+    }
+
+    /**
+     * Walks every ancestor of a class that can be resolved, keeping the ones found when a
+     * superclass or interface is missing from the classpath.
+     */
+    private Set<String> collectSupertypes(String className) {
+        Set<String> names = new LinkedHashSet<>();
+        SymbolReference<ResolvedReferenceTypeDeclaration> root = tryToSolve(className);
+        if (!root.isSolved()) {
+            return Collections.emptySet();
+        }
+        Deque<ResolvedReferenceTypeDeclaration> pending = new ArrayDeque<>();
+        pending.add(root.getCorrespondingDeclaration());
+        while (!pending.isEmpty()) {
+            ResolvedReferenceTypeDeclaration declaration = pending.poll();
+            List<ResolvedReferenceType> ancestors;
+            try {
+                ancestors = declaration.getAncestors(true);
+            } catch (RuntimeException e) {
+                logger.debug("Cannot resolve ancestors of {}", declaration.getQualifiedName(), e);
+                continue;
+            }
+            for (ResolvedReferenceType ancestor : ancestors) {
+                if (names.add(ancestor.getQualifiedName())) {
+                    ancestor.getTypeDeclaration().ifPresent(pending::add);
+                }
+            }
+        }
+        return names;
+    }
+
+    private String resolveName(String written, CompilationUnit cu) {
+        if (cu == null) {
+            return isType(written) ? written : UNRESOLVED;
+        }
+
+        String first = written.contains(".") ? written.substring(0, written.indexOf('.')) : written;
+        String rest = written.substring(first.length());
+
+        // Single-type imports, then the file's own package, then on-demand imports
+        for (ImportDeclaration importDecl : cu.getImports()) {
+            if (!importDecl.isStatic() && !importDecl.isAsterisk()
+                    && importDecl.getName().getIdentifier().equals(first)) {
+                String candidate = importDecl.getNameAsString() + rest;
+                return isType(candidate) ? candidate : UNRESOLVED;
+            }
+        }
+        String packageName = cu.getPackageDeclaration().map(PackageDeclaration::getNameAsString).orElse("");
+        String samePackage = packageName.isEmpty() ? written : packageName + "." + written;
+        if (isType(samePackage)) {
+            return samePackage;
+        }
+        for (ImportDeclaration importDecl : cu.getImports()) {
+            if (!importDecl.isStatic() && importDecl.isAsterisk()) {
+                String candidate = importDecl.getNameAsString() + "." + written;
+                if (isType(candidate)) {
+                    return candidate;
+                }
+            }
+        }
+        if (isType("java.lang." + written)) {
+            return "java.lang." + written;
+        }
+        // Already fully qualified
+        return isType(written) ? written : UNRESOLVED;
+    }
+
+    private boolean isType(String qualifiedName) {
+        return tryToSolve(qualifiedName).isSolved();
+    }
+
+    private SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolve(String qualifiedName) {
+        try {
+            return typeSolver.tryToSolveType(qualifiedName);
+        } catch (RuntimeException e) {
+            logger.debug("Cannot resolve type {}", qualifiedName, e);
+            return SymbolReference.unsolved();
+        }
+    }
+
+    private static String importContext(CompilationUnit cu) {
+        StringBuilder context = new StringBuilder();
+        cu.getPackageDeclaration().ifPresent(pkg -> context.append(pkg.getNameAsString()));
+        for (ImportDeclaration importDecl : cu.getImports()) {
+            if (!importDecl.isStatic()) {
+                context.append(';').append(importDecl.getNameAsString()).append(importDecl.isAsterisk() ? ".*" : "");
+            }
+        }
+        return context.toString();
+    }
+}
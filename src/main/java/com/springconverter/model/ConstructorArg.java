@@ -9,6 +9,8 @@ public class ConstructorArg {
     private String type;
     private int index;
     private String name;
+    private SourcePosition startPosition;
+    private SourcePosition endPosition;
 
     public ConstructorArg() {
     }
@@ -66,6 +68,28 @@ public class ConstructorArg {
         this.name = name;
     }
 
+    /**
+     * Position of the start of the element's start tag, or null if unknown.
+     */
+    public SourcePosition getStartPosition() {
+        return startPosition;
+    }
+
+    public void setStartPosition(SourcePosition startPosition) {
+        this.startPosition = startPosition;
+    }
+
+    /**
+     * Position just past the element's end tag, or null if unknown.
+     */
+    public SourcePosition getEndPosition() {
+        return endPosition;
+    }
+
+    public void setEndPosition(SourcePosition endPosition) {
+        this.endPosition = endPosition;
+    }
+
     public boolean isReference() {
         return ref != null && !ref.isEmpty();
     }
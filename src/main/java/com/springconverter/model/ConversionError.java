@@ -1,11 +1,15 @@
 package com.springconverter.model;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents an error that occurred during the conversion process.
  */
 public class ConversionError {
+    // Ids count up across all threads, so two errors never share one
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
     private String id;
     private String message;
     private String filePath;
@@ -30,7 +34,7 @@ public class ConversionError {
     }
 
     private String generateId() {
-        return "ERROR_" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
+        return "ERROR_" + NEXT_ID.incrementAndGet();
     }
 
     // Getters and Setters
@@ -142,6 +146,7 @@ public class ConversionError {
         UNSUPPORTED_XML_ELEMENT,
         CONFIGURATION_ERROR,
         BACKUP_ERROR,
-        WRITE_ERROR
+        WRITE_ERROR,
+        COMPILE_ERROR
     }
 } 
\ No newline at end of file
@@ -2,43 +2,53 @@ package com.springconverter.model;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Comprehensive report of the XML to annotation conversion process.
+ * <p>
+ * Safe to fill from many threads at once: counters are {@link LongAdder}s, which are bumped
+ * with the increment and add methods rather than read and set, and results, TODOs and errors
+ * are collected in lock-free queues. The list getters return snapshots in insertion order.
  */
 public class ConversionReport {
-    private LocalDateTime startTime;
-    private LocalDateTime endTime;
-    private String projectDirectory;
-    private String backupDirectory;
+    private volatile LocalDateTime startTime;
+    private volatile LocalDateTime endTime;
+    private volatile String projectDirectory;
+    private volatile String backupDirectory;
     
     // Statistics
-    private int totalXmlFilesProcessed;
-    private int totalJavaFilesModified;
-    private int totalBeansConverted;
-    private int totalPropertiesConverted;
-    private int totalConstructorArgsConverted;
-    private int totalTODOsGenerated;
-    private int totalErrors;
+    private final LongAdder totalXmlFilesProcessed = new LongAdder();
+    private final LongAdder totalJavaFilesModified = new LongAdder();
+    private final LongAdder totalBeansConverted = new LongAdder();
+    private final LongAdder totalPropertiesConverted = new LongAdder();
+    private final LongAdder totalConstructorArgsConverted = new LongAdder();
+    private final LongAdder totalTODOsGenerated = new LongAdder();
+    private final LongAdder totalErrors = new LongAdder();
+    private final LongAdder totalJavaFilesVerified = new LongAdder();
+    private final LongAdder totalCompileErrors = new LongAdder();
+    private final LongAdder parseCacheHits = new LongAdder();
+    private final LongAdder parseCacheMisses = new LongAdder();
+    private final LongAdder parseCacheEvictions = new LongAdder();
     
     // Detailed tracking
-    private List<ConversionResult> conversionResults;
-    private List<TodoItem> todoItems;
-    private List<ConversionError> errors;
-    private Map<String, String> fileBackups;
+    private final ConcurrentLinkedQueue<ConversionResult> conversionResults = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<TodoItem> todoItems = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<ConversionError> errors = new ConcurrentLinkedQueue<>();
+    private volatile Map<String, String> fileBackups;
     
     // Configuration used
-    private Map<String, Object> configuration;
+    private volatile Map<String, Object> configuration;
 
     public ConversionReport() {
         this.startTime = LocalDateTime.now();
-        this.conversionResults = new ArrayList<>();
-        this.todoItems = new ArrayList<>();
-        this.errors = new ArrayList<>();
-        this.fileBackups = new HashMap<>();
+        this.fileBackups = new ConcurrentHashMap<>();
         this.configuration = new HashMap<>();
     }
 
@@ -76,67 +86,123 @@ public class ConversionReport {
     }
 
     public int getTotalXmlFilesProcessed() {
-        return totalXmlFilesProcessed;
+        return totalXmlFilesProcessed.intValue();
     }
 
     public void setTotalXmlFilesProcessed(int totalXmlFilesProcessed) {
-        this.totalXmlFilesProcessed = totalXmlFilesProcessed;
+        set(this.totalXmlFilesProcessed, totalXmlFilesProcessed);
     }
 
     public int getTotalJavaFilesModified() {
-        return totalJavaFilesModified;
+        return totalJavaFilesModified.intValue();
     }
 
     public void setTotalJavaFilesModified(int totalJavaFilesModified) {
-        this.totalJavaFilesModified = totalJavaFilesModified;
+        set(this.totalJavaFilesModified, totalJavaFilesModified);
+    }
+
+    public void incrementTotalJavaFilesModified() {
+        totalJavaFilesModified.increment();
     }
 
     public int getTotalBeansConverted() {
-        return totalBeansConverted;
+        return totalBeansConverted.intValue();
     }
 
     public void setTotalBeansConverted(int totalBeansConverted) {
-        this.totalBeansConverted = totalBeansConverted;
+        set(this.totalBeansConverted, totalBeansConverted);
+    }
+
+    public void incrementTotalBeansConverted() {
+        totalBeansConverted.increment();
     }
 
     public int getTotalPropertiesConverted() {
-        return totalPropertiesConverted;
+        return totalPropertiesConverted.intValue();
     }
 
     public void setTotalPropertiesConverted(int totalPropertiesConverted) {
-        this.totalPropertiesConverted = totalPropertiesConverted;
+        set(this.totalPropertiesConverted, totalPropertiesConverted);
+    }
+
+    public void addTotalPropertiesConverted(int count) {
+        totalPropertiesConverted.add(count);
     }
 
     public int getTotalConstructorArgsConverted() {
-        return totalConstructorArgsConverted;
+        return totalConstructorArgsConverted.intValue();
     }
 
     public void setTotalConstructorArgsConverted(int totalConstructorArgsConverted) {
-        this.totalConstructorArgsConverted = totalConstructorArgsConverted;
+        set(this.totalConstructorArgsConverted, totalConstructorArgsConverted);
+    }
+
+    public void addTotalConstructorArgsConverted(int count) {
+        totalConstructorArgsConverted.add(count);
     }
 
     public int getTotalTODOsGenerated() {
-        return totalTODOsGenerated;
+        return totalTODOsGenerated.intValue();
     }
 
     public void setTotalTODOsGenerated(int totalTODOsGenerated) {
-        this.totalTODOsGenerated = totalTODOsGenerated;
+        set(this.totalTODOsGenerated, totalTODOsGenerated);
     }
 
     public int getTotalErrors() {
-        return totalErrors;
+        return totalErrors.intValue();
     }
 
     public void setTotalErrors(int totalErrors) {
-        this.totalErrors = totalErrors;
+        set(this.totalErrors, totalErrors);
+    }
+
+    public int getTotalJavaFilesVerified() {
+        return totalJavaFilesVerified.intValue();
+    }
+
+    public void setTotalJavaFilesVerified(int totalJavaFilesVerified) {
+        set(this.totalJavaFilesVerified, totalJavaFilesVerified);
+    }
+
+    public int getTotalCompileErrors() {
+        return totalCompileErrors.intValue();
+    }
+
+    public void setTotalCompileErrors(int totalCompileErrors) {
+        set(this.totalCompileErrors, totalCompileErrors);
+    }
+
+    public long getParseCacheHits() {
+        return parseCacheHits.sum();
+    }
+
+    public void setParseCacheHits(long parseCacheHits) {
+        set(this.parseCacheHits, parseCacheHits);
+    }
+
+    public long getParseCacheMisses() {
+        return parseCacheMisses.sum();
+    }
+
+    public void setParseCacheMisses(long parseCacheMisses) {
+        set(this.parseCacheMisses, parseCacheMisses);
+    }
+
+    public long getParseCacheEvictions() {
+        return parseCacheEvictions.sum();
+    }
+
+    public void setParseCacheEvictions(long parseCacheEvictions) {
+        set(this.parseCacheEvictions, parseCacheEvictions);
     }
 
     public List<ConversionResult> getConversionResults() {
-        return conversionResults;
+        return new ArrayList<>(conversionResults);
     }
 
     public void setConversionResults(List<ConversionResult> conversionResults) {
-        this.conversionResults = conversionResults;
+        replace(this.conversionResults, conversionResults);
     }
 
     public void addConversionResult(ConversionResult result) {
@@ -144,29 +210,29 @@ public class ConversionReport {
     }
 
     public List<TodoItem> getTodoItems() {
-        return todoItems;
+        return new ArrayList<>(todoItems);
     }
 
     public void setTodoItems(List<TodoItem> todoItems) {
-        this.todoItems = todoItems;
+        replace(this.todoItems, todoItems);
     }
 
     public void addTodoItem(TodoItem todo) {
         this.todoItems.add(todo);
-        this.totalTODOsGenerated++;
+        this.totalTODOsGenerated.increment();
     }
 
     public List<ConversionError> getErrors() {
-        return errors;
+        return new ArrayList<>(errors);
     }
 
     public void setErrors(List<ConversionError> errors) {
-        this.errors = errors;
+        replace(this.errors, errors);
     }
 
     public void addError(ConversionError error) {
         this.errors.add(error);
-        this.totalErrors++;
+        this.totalErrors.increment();
     }
 
     public Map<String, String> getFileBackups() {
@@ -201,10 +267,24 @@ public class ConversionReport {
     }
 
     public boolean isSuccessful() {
-        return totalErrors == 0;
+        return totalErrors.sum() == 0;
     }
 
     public void finalize() {
         this.endTime = LocalDateTime.now();
     }
+
+    /**
+     * Sets a counter outright. Counts added meanwhile by other threads may be lost, so
+     * setters are meant for totals known up front, not for counting as work completes.
+     */
+    private static void set(LongAdder counter, long value) {
+        counter.reset();
+        counter.add(value);
+    }
+
+    private static <T> void replace(ConcurrentLinkedQueue<T> buffer, Collection<T> contents) {
+        buffer.clear();
+        buffer.addAll(contents);
+    }
 } 
\ No newline at end of file
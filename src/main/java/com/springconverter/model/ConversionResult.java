@@ -16,6 +16,7 @@ public class ConversionResult {
     private LocalDateTime timestamp;
     private List<String> annotationsAdded;
     private List<String> modifications;
+    private List<String> compileDiagnostics;
     private String errorMessage;
     private ConversionType type;
 
@@ -23,6 +24,7 @@ public class ConversionResult {
         this.timestamp = LocalDateTime.now();
         this.annotationsAdded = new ArrayList<>();
         this.modifications = new ArrayList<>();
+        this.compileDiagnostics = new ArrayList<>();
     }
 
     public ConversionResult(String sourceFile, String beanId, ConversionType type) {
@@ -105,6 +107,18 @@ public class ConversionResult {
         this.modifications.add(modification);
     }
 
+    public List<String> getCompileDiagnostics() {
+        return compileDiagnostics;
+    }
+
+    public void setCompileDiagnostics(List<String> compileDiagnostics) {
+        this.compileDiagnostics = compileDiagnostics;
+    }
+
+    public void addCompileDiagnostic(String diagnostic) {
+        this.compileDiagnostics.add(diagnostic);
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
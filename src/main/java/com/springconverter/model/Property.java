@@ -11,6 +11,8 @@ public class Property {
     private boolean isList;
     private boolean isMap;
     private boolean isSet;
+    private SourcePosition startPosition;
+    private SourcePosition endPosition;
 
     public Property() {
     }
@@ -90,6 +92,28 @@ public class Property {
         isSet = set;
     }
 
+    /**
+     * Position of the start of the element's start tag, or null if unknown.
+     */
+    public SourcePosition getStartPosition() {
+        return startPosition;
+    }
+
+    public void setStartPosition(SourcePosition startPosition) {
+        this.startPosition = startPosition;
+    }
+
+    /**
+     * Position just past the element's end tag, or null if unknown.
+     */
+    public SourcePosition getEndPosition() {
+        return endPosition;
+    }
+
+    public void setEndPosition(SourcePosition endPosition) {
+        this.endPosition = endPosition;
+    }
+
     public boolean isReference() {
         return ref != null && !ref.isEmpty();
     }
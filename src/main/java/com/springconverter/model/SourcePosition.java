@@ -0,0 +1,45 @@
+package com.springconverter.model;
+
+/**
+ * A position in a source file: 1-based line and column plus 0-based character and byte offsets.
+ * An offset of -1 means it could not be determined.
+ */
+public class SourcePosition {
+    private final int line;
+    private final int column;
+    private final long charOffset;
+    private final long byteOffset;
+
+    public SourcePosition(int line, int column, long charOffset, long byteOffset) {
+        this.line = line;
+        this.column = column;
+        this.charOffset = charOffset;
+        this.byteOffset = byteOffset;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public long getCharOffset() {
+        return charOffset;
+    }
+
+    public long getByteOffset() {
+        return byteOffset;
+    }
+
+    @Override
+    public String toString() {
+        return "SourcePosition{" +
+                "line=" + line +
+                ", column=" + column +
+                ", charOffset=" + charOffset +
+                ", byteOffset=" + byteOffset +
+                '}';
+    }
+}
@@ -21,6 +21,9 @@ public class SpringBean {
     private Map<String, String> attributes;
     private String sourceFile;
     private int lineNumber;
+    private SourcePosition startPosition;
+    private SourcePosition endPosition;
+    private SpringBean enclosingBean;
 
     public SpringBean() {
         this.properties = new ArrayList<>();
@@ -143,6 +146,39 @@ public class SpringBean {
         this.lineNumber = lineNumber;
     }
 
+    /**
+     * Position of the start of the element's start tag, or null if unknown.
+     */
+    public SourcePosition getStartPosition() {
+        return startPosition;
+    }
+
+    public void setStartPosition(SourcePosition startPosition) {
+        this.startPosition = startPosition;
+    }
+
+    /**
+     * Position just past the element's end tag, or null if unknown.
+     */
+    public SourcePosition getEndPosition() {
+        return endPosition;
+    }
+
+    public void setEndPosition(SourcePosition endPosition) {
+        this.endPosition = endPosition;
+    }
+
+    /**
+     * Bean whose definition this inner bean is nested in, or null for a top-level bean.
+     */
+    public SpringBean getEnclosingBean() {
+        return enclosingBean;
+    }
+
+    public void setEnclosingBean(SpringBean enclosingBean) {
+        this.enclosingBean = enclosingBean;
+    }
+
     @Override
     public String toString() {
         return "SpringBean{" +
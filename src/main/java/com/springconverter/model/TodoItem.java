@@ -1,11 +1,15 @@
 package com.springconverter.model;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a TODO item that requires manual intervention during conversion.
  */
 public class TodoItem {
+    // Numbers every TODO created in this JVM, so ids stay unique however many threads report
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
     private String id;
     private String description;
     private String filePath;
@@ -30,7 +34,7 @@ public class TodoItem {
     }
 
     private String generateId() {
-        return "TODO_" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
+        return "TODO_" + NEXT_ID.incrementAndGet();
     }
 
     // Getters and Setters
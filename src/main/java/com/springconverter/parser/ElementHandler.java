@@ -0,0 +1,22 @@
+package com.springconverter.parser;
+
+import org.w3c.dom.Element;
+
+/**
+ * Handles one kind of XML element during the parser's single tree walk. Handlers are
+ * registered with {@link XmlParser#registerHandler} by namespace URI and local name.
+ */
+@FunctionalInterface
+public interface ElementHandler {
+
+    /**
+     * Called when the walk enters the element, before any of its children.
+     */
+    void start(Element element, ParseContext context);
+
+    /**
+     * Called when the walk leaves the element, after all of its children.
+     */
+    default void end(Element element, ParseContext context) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.springconverter.parser;
+
+import com.springconverter.model.SpringBean;
+import com.springconverter.parser.XmlParser.XmlParsingException;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The XML files reachable from the discovered Spring configuration files through
+ * {@code <import>} elements, each parsed exactly once.
+ */
+public class ImportGraph {
+    private final Map<String, Node> nodesByFile;
+    private final Map<SpringBean, List<Path>> importTargets = new IdentityHashMap<>();
+    private final List<List<String>> cycles;
+
+    ImportGraph(List<Node> rootNodes, Map<Path, Node> nodesByKey) {
+        this.nodesByFile = orderNodes(rootNodes, nodesByKey);
+        for (Node node : nodesByFile.values()) {
+            importTargets.putAll(node.importTargets);
+        }
+        this.cycles = findCycles(nodesByFile.values(), nodesByKey);
+    }
+
+    /**
+     * Gets the parsed files: the discovered files in the order given, then the files they
+     * import in the order they are first reached.
+     */
+    public List<String> getFiles() {
+        return new ArrayList<>(nodesByFile.keySet());
+    }
+
+    /**
+     * Gets the definitions parsed from a file, or throws the exception its parse failed with.
+     */
+    public List<SpringBean> getBeans(String filePath) throws XmlParsingException {
+        Node node = nodesByFile.get(filePath);
+        if (node == null) {
+            throw new XmlParsingException("File is not part of the import graph: " + filePath);
+        }
+        if (node.failure != null) {
+            throw node.failure;
+        }
+        return node.beans;
+    }
+
+    /**
+     * Gets the files an import definition resolved to; empty if it could not be resolved.
+     */
+    public List<Path> getImportTargets(SpringBean importBean) {
+        return importTargets.getOrDefault(importBean, Collections.emptyList());
+    }
+
+    /**
+     * Gets each import cycle as the chain of files that closes it, starting and ending with
+     * the same file.
+     */
+    public List<List<String>> getCycles() {
+        return cycles;
+    }
+
+    private static Map<String, Node> orderNodes(List<Node> rootNodes, Map<Path, Node> nodesByKey) {
+        Map<String, Node> ordered = new LinkedHashMap<>();
+        Deque<Node> queue = new ArrayDeque<>(rootNodes);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            if (ordered.putIfAbsent(node.filePath, node) == null) {
+                for (Path imported : node.imports) {
+                    queue.add(nodesByKey.get(imported));
+                }
+            }
+        }
+        return ordered;
+    }
+
+    private static List<List<String>> findCycles(Iterable<Node> nodes, Map<Path, Node> nodesByKey) {
+        List<List<String>> cycles = new ArrayList<>();
+        Map<Node, Boolean> onPath = new HashMap<>();
+        for (Node node : nodes) {
+            if (!onPath.containsKey(node)) {
+                findCycles(node, nodesByKey, onPath, new ArrayList<>(), cycles);
+            }
+        }
+        return cycles;
+    }
+
+    private static void findCycles(Node node, Map<Path, Node> nodesByKey, Map<Node, Boolean> onPath,
+                                   List<Node> path, List<List<String>> cycles) {
+        onPath.put(node, Boolean.TRUE);
+        path.add(node);
+        for (Path imported : node.imports) {
+            Node next = nodesByKey.get(imported);
+            Boolean state = onPath.get(next);
+            if (state == null) {
+                findCycles(next, nodesByKey, onPath, path, cycles);
+            } else if (state) {
+                List<String> cycle = new ArrayList<>();
+                for (Node member : path.subList(path.indexOf(next), path.size())) {
+                    cycle.add(member.filePath);
+                }
+                cycle.add(next.filePath);
+                cycles.add(cycle);
+            }
+        }
+        path.remove(path.size() - 1);
+        onPath.put(node, Boolean.FALSE);
+    }
+
+    /**
+     * The parse result for one file and the files its imports resolved to.
+     */
+    static final class Node {
+        final String filePath;
+        final List<SpringBean> beans;
+        final XmlParsingException failure;
+        final List<Path> imports = new ArrayList<>();
+        final Map<SpringBean, List<Path>> importTargets = new IdentityHashMap<>();
+
+        Node(String filePath, List<SpringBean> beans, XmlParsingException failure) {
+            this.filePath = filePath;
+            this.beans = beans;
+            this.failure = failure;
+        }
+    }
+}
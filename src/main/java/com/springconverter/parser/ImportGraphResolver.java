@@ -0,0 +1,349 @@
+package com.springconverter.parser;
+
+import com.springconverter.model.Property;
+import com.springconverter.model.SpringBean;
+import com.springconverter.parser.XmlParser.XmlParsingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Follows {@code <import resource="..."/>} elements from the discovered Spring XML files.
+ * Every file is parsed at most once, however many files import it: parses are recorded in a
+ * memo table keyed by normalized path, and the imports of each file are scheduled on the
+ * executor as soon as that file has been parsed, so independent branches are parsed in
+ * parallel. Cycles are reported once the whole graph is known.
+ */
+public class ImportGraphResolver {
+    private static final Logger logger = LoggerFactory.getLogger(ImportGraphResolver.class);
+
+    private static final String IMPORT_CLASS = "org.springframework.context.annotation.Import";
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final String CLASSPATH_ALL_PREFIX = "classpath*:";
+    private static final String FILE_PREFIX = "file:";
+
+    /**
+     * Supplies the bean definitions of one XML file.
+     */
+    @FunctionalInterface
+    public interface DefinitionSource {
+        List<SpringBean> parse(String filePath) throws XmlParsingException;
+    }
+
+    private final DefinitionSource parser;
+    private final List<Path> resourceRoots;
+    private final Predicate<Path> fileFilter;
+    private final Executor executor;
+
+    /**
+     * Creates a resolver.
+     *
+     * @param resourceRoots directories that classpath: locations are resolved against, in order
+     * @param fileFilter    decides which resolved files are followed and parsed
+     * @param executor      runs the parses
+     */
+    public ImportGraphResolver(XmlParser parser, List<Path> resourceRoots, Predicate<Path> fileFilter,
+                               Executor executor) {
+        this(parser::parseXmlFile, resourceRoots, fileFilter, executor);
+    }
+
+    /**
+     * Creates a resolver that takes definitions from the given source, which may hand out
+     * files that were parsed ahead of time.
+     */
+    public ImportGraphResolver(DefinitionSource parser, List<Path> resourceRoots, Predicate<Path> fileFilter,
+                               Executor executor) {
+        this.parser = parser;
+        this.resourceRoots = resourceRoots;
+        this.fileFilter = fileFilter;
+        this.executor = executor;
+    }
+
+    /**
+     * Parses the given files and everything they import, directly or indirectly.
+     */
+    public ImportGraph resolve(List<String> xmlFiles) {
+        Map<Path, CompletableFuture<ImportGraph.Node>> memo = new ConcurrentHashMap<>();
+
+        // Claim every discovered file before any parse starts, so a file that is both
+        // discovered and imported keeps the path it was discovered under
+        Map<String, CompletableFuture<ImportGraph.Node>> rootParses = new LinkedHashMap<>();
+        for (String xmlFile : xmlFiles) {
+            CompletableFuture<ImportGraph.Node> future = claim(keyOf(xmlFile), memo);
+            if (future != null) {
+                rootParses.put(xmlFile, future);
+            }
+        }
+        rootParses.forEach((xmlFile, future) -> start(xmlFile, future, memo));
+
+        // A file's imports are scheduled before its own parse completes, so once every
+        // scheduled parse has completed without the table growing, the graph is complete
+        int scheduled;
+        do {
+            scheduled = memo.size();
+            CompletableFuture.allOf(memo.values().toArray(new CompletableFuture<?>[0])).join();
+        } while (memo.size() != scheduled);
+
+        Map<Path, ImportGraph.Node> nodesByKey = new ConcurrentHashMap<>();
+        memo.forEach((key, future) -> nodesByKey.put(key, future.join()));
+
+        List<ImportGraph.Node> rootNodes = new ArrayList<>();
+        for (String xmlFile : xmlFiles) {
+            rootNodes.add(nodesByKey.get(keyOf(xmlFile)));
+        }
+
+        ImportGraph graph = new ImportGraph(rootNodes, nodesByKey);
+        logger.info("Parsed {} XML files ({} reached through imports)", nodesByKey.size(),
+                nodesByKey.size() - new LinkedHashSet<>(rootNodes).size());
+        return graph;
+    }
+
+    /**
+     * Checks if a definition is the placeholder the parser creates for an {@code <import>}.
+     */
+    public static boolean isImportDefinition(SpringBean bean) {
+        return IMPORT_CLASS.equals(bean.getClassName()) && "import".equals(bean.getId());
+    }
+
+    /**
+     * Gets the resource location of an import definition.
+     */
+    public static String getImportResource(SpringBean importBean) {
+        for (Property property : importBean.getProperties()) {
+            if ("resource".equals(property.getName())) {
+                return property.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the resource roots of a project from its Spring XML files: every src/main/resources
+     * or src/test/resources directory that contains one of them, plus the project's own
+     * src/main/resources.
+     */
+    public static List<Path> resourceRootsFor(Path projectDirectory, Collection<String> xmlFiles) {
+        Set<Path> roots = new LinkedHashSet<>();
+        Path mainResources = projectDirectory.resolve("src/main/resources");
+        if (Files.isDirectory(mainResources)) {
+            roots.add(mainResources.toAbsolutePath().normalize());
+        }
+        for (String xmlFile : xmlFiles) {
+            for (Path directory = Path.of(xmlFile).toAbsolutePath().normalize().getParent();
+                 directory != null; directory = directory.getParent()) {
+                if (isResourceRoot(directory)) {
+                    roots.add(directory);
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(roots);
+    }
+
+    /**
+     * Resolves an import location to the files it names. Relative locations are relative to
+     * the importing file, classpath: locations use the first resource root that has a match,
+     * classpath*: locations use all of them, and Ant-style wildcards are expanded.
+     */
+    List<Path> resolveLocation(Path importingFile, String location) {
+        String trimmed = location != null ? location.trim() : "";
+        if (trimmed.isEmpty() || trimmed.contains("${")) {
+            return Collections.emptyList();
+        }
+
+        if (trimmed.startsWith(CLASSPATH_ALL_PREFIX)) {
+            return resolveAgainst(resourceRoots, stripLeadingSlashes(trimmed.substring(CLASSPATH_ALL_PREFIX.length())), true);
+        }
+        if (trimmed.startsWith(CLASSPATH_PREFIX)) {
+            return resolveAgainst(resourceRoots, stripLeadingSlashes(trimmed.substring(CLASSPATH_PREFIX.length())), false);
+        }
+
+        Path baseDirectory = importingFile.getParent();
+        if (trimmed.startsWith(FILE_PREFIX)) {
+            try {
+                Path file = trimmed.startsWith(FILE_PREFIX + "/") ?
+                        Paths.get(URI.create(trimmed)) : Path.of(trimmed.substring(FILE_PREFIX.length()));
+                if (file.isAbsolute()) {
+                    return existing(file);
+                }
+                trimmed = file.toString();
+            } catch (IllegalArgumentException e) {
+                logger.debug("Cannot resolve import location {}", location, e);
+                return Collections.emptyList();
+            }
+        }
+
+        // Like Spring, treat a leading slash as relative to the importing file
+        return resolveAgainst(Collections.singletonList(baseDirectory), stripLeadingSlashes(trimmed), false);
+    }
+
+    private void schedule(String filePath, Map<Path, CompletableFuture<ImportGraph.Node>> memo) {
+        CompletableFuture<ImportGraph.Node> future = claim(keyOf(filePath), memo);
+        if (future != null) {
+            start(filePath, future, memo);
+        }
+    }
+
+    private static CompletableFuture<ImportGraph.Node> claim(Path key, Map<Path, CompletableFuture<ImportGraph.Node>> memo) {
+        CompletableFuture<ImportGraph.Node> future = new CompletableFuture<>();
+        return memo.putIfAbsent(key, future) == null ? future : null;
+    }
+
+    private void start(String filePath, CompletableFuture<ImportGraph.Node> future,
+                       Map<Path, CompletableFuture<ImportGraph.Node>> memo) {
+        executor.execute(() -> {
+            try {
+                future.complete(parse(filePath, memo));
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+            }
+        });
+    }
+
+    private ImportGraph.Node parse(String filePath, Map<Path, CompletableFuture<ImportGraph.Node>> memo) {
+        List<SpringBean> beans;
+        try {
+            beans = parser.parse(filePath);
+        } catch (XmlParsingException e) {
+            return new ImportGraph.Node(filePath, Collections.emptyList(), e);
+        } catch (RuntimeException e) {
+            return new ImportGraph.Node(filePath, Collections.emptyList(),
+                    new XmlParsingException("Failed to parse XML file: " + filePath, e));
+        }
+
+        ImportGraph.Node node = new ImportGraph.Node(filePath, beans, null);
+        for (SpringBean bean : beans) {
+            if (!isImportDefinition(bean)) {
+                continue;
+            }
+
+            List<Path> targets = resolveLocation(keyOf(filePath), getImportResource(bean));
+            node.importTargets.put(bean, targets);
+            if (targets.isEmpty()) {
+                logger.warn("Could not resolve import '{}' in {}", getImportResource(bean), filePath);
+            }
+            for (Path target : targets) {
+                if (fileFilter.test(target)) {
+                    node.imports.add(target);
+                    schedule(target.toString(), memo);
+                } else {
+                    logger.debug("Not following import of {} from {}", target, filePath);
+                }
+            }
+        }
+        return node;
+    }
+
+    private static List<Path> resolveAgainst(List<Path> roots, String location, boolean allRoots) {
+        Set<Path> matches = new LinkedHashSet<>();
+        for (Path root : roots) {
+            matches.addAll(isPattern(location) ? expand(root, location) : existing(root.resolve(location)));
+            if (!allRoots && !matches.isEmpty()) {
+                break;
+            }
+        }
+        return new ArrayList<>(matches);
+    }
+
+    private static List<Path> expand(Path root, String pattern) {
+        int firstWildcard = firstWildcard(pattern);
+        int directoryEnd = pattern.lastIndexOf('/', firstWildcard);
+        Path base = directoryEnd < 0 ? root : root.resolve(pattern.substring(0, directoryEnd));
+        String relativePattern = pattern.substring(directoryEnd + 1);
+        if (!Files.isDirectory(base)) {
+            return Collections.emptyList();
+        }
+
+        Pattern regex = Pattern.compile(antPatternToRegex(relativePattern));
+        int maxDepth = relativePattern.contains("**") ? Integer.MAX_VALUE : relativePattern.split("/").length;
+        try (Stream<Path> files = Files.walk(base, maxDepth)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> regex.matcher(base.relativize(file).toString().replace('\\', '/')).matches())
+                    .map(file -> file.toAbsolutePath().normalize())
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Failed to expand import pattern {} under {}", pattern, root, e);
+            return Collections.emptyList();
+        }
+    }
+
+    static String antPatternToRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' && pattern.startsWith("**/", i)) {
+                regex.append("(?:.*/)?");
+                i += 2;
+            } else if (c == '*' && pattern.startsWith("**", i)) {
+                regex.append(".*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return regex.toString();
+    }
+
+    private static boolean isPattern(String location) {
+        return firstWildcard(location) >= 0;
+    }
+
+    private static int firstWildcard(String location) {
+        int star = location.indexOf('*');
+        int question = location.indexOf('?');
+        return star < 0 ? question : question < 0 ? star : Math.min(star, question);
+    }
+
+    private static List<Path> existing(Path file) {
+        return Files.isRegularFile(file) ?
+                Collections.singletonList(file.toAbsolutePath().normalize()) : Collections.emptyList();
+    }
+
+    private static String stripLeadingSlashes(String location) {
+        int start = 0;
+        while (start < location.length() && location.charAt(start) == '/') {
+            start++;
+        }
+        return location.substring(start);
+    }
+
+    private static boolean isResourceRoot(Path directory) {
+        Path parent = directory.getParent();
+        Path grandparent = parent != null ? parent.getParent() : null;
+        return grandparent != null
+                && "resources".equals(String.valueOf(directory.getFileName()))
+                && ("main".equals(String.valueOf(parent.getFileName())) || "test".equals(String.valueOf(parent.getFileName())))
+                && "src".equals(String.valueOf(grandparent.getFileName()));
+    }
+
+    private static Path keyOf(String filePath) {
+        return Path.of(filePath).toAbsolutePath().normalize();
+    }
+}
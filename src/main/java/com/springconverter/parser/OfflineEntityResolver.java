@@ -0,0 +1,87 @@
+package com.springconverter.parser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves DTDs and schemas referenced by Spring XML files from a catalog bundled in the jar.
+ * Anything not in the catalog resolves to empty content, so parsing never reaches the network.
+ */
+public class OfflineEntityResolver implements EntityResolver, XMLResolver {
+    private static final Logger logger = LoggerFactory.getLogger(OfflineEntityResolver.class);
+
+    private static final String CATALOG_DIRECTORY = "/META-INF/spring-converter/catalog/";
+    private static final String CATALOG_FILE = CATALOG_DIRECTORY + "catalog.properties";
+    private static final Pattern VERSION_SUFFIX = Pattern.compile("-\\d+(\\.\\d+)*(?=\\.(dtd|xsd)$)");
+
+    private final Properties catalog;
+
+    public OfflineEntityResolver() {
+        this.catalog = loadCatalog();
+    }
+
+    @Override
+    public InputSource resolveEntity(String publicId, String systemId) {
+        InputSource source = new InputSource(openEntity(publicId, systemId));
+        source.setPublicId(publicId);
+        return source;
+    }
+
+    @Override
+    public Object resolveEntity(String publicId, String systemId, String baseUri, String namespace)
+            throws XMLStreamException {
+        return openEntity(publicId, systemId);
+    }
+
+    private InputStream openEntity(String publicId, String systemId) {
+        String resource = lookup(publicId, systemId);
+        if (resource != null) {
+            InputStream stream = OfflineEntityResolver.class.getResourceAsStream(CATALOG_DIRECTORY + resource);
+            if (stream != null) {
+                logger.debug("Resolved {} from bundled catalog: {}", systemId != null ? systemId : publicId, resource);
+                return stream;
+            }
+        }
+
+        logger.debug("No bundled entity for public id '{}', system id '{}'; using empty content", publicId, systemId);
+        return new ByteArrayInputStream(new byte[0]);
+    }
+
+    private String lookup(String publicId, String systemId) {
+        if (publicId != null && catalog.containsKey(publicId)) {
+            return catalog.getProperty(publicId);
+        }
+        if (systemId == null) {
+            return null;
+        }
+        if (catalog.containsKey(systemId)) {
+            return catalog.getProperty(systemId);
+        }
+        return catalog.getProperty(VERSION_SUFFIX.matcher(systemId).replaceFirst(""));
+    }
+
+    private static Properties loadCatalog() {
+        Properties catalog = new Properties();
+        try (InputStream input = OfflineEntityResolver.class.getResourceAsStream(CATALOG_FILE)) {
+            if (input == null) {
+                logger.warn("Bundled entity catalog not found: {}", CATALOG_FILE);
+            } else {
+                catalog.load(input);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load bundled entity catalog", e);
+        }
+        return catalog;
+    }
+}
@@ -0,0 +1,70 @@
+package com.springconverter.parser;
+
+import com.springconverter.model.SpringBean;
+import org.w3c.dom.Element;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * State shared by the element handlers during one tree walk: the file being parsed, the
+ * definitions found so far in document order, and the beans whose elements are still open.
+ */
+public class ParseContext {
+    private final String sourceFile;
+    private final List<SpringBean> beans = new ArrayList<>();
+    private final Deque<Element> openBeanElements = new ArrayDeque<>();
+    private final Deque<SpringBean> openBeans = new ArrayDeque<>();
+
+    public ParseContext(String sourceFile) {
+        this.sourceFile = sourceFile;
+    }
+
+    public String getSourceFile() {
+        return sourceFile;
+    }
+
+    /**
+     * Records a definition that has no nested content of its own.
+     */
+    public void addBean(SpringBean bean) {
+        beans.add(bean);
+    }
+
+    /**
+     * Records a bean whose element may contain properties and constructor arguments.
+     * It stays open until {@link #closeBean} is called for the same element, and a bean
+     * opened meanwhile is recorded as nested in it.
+     */
+    public void openBean(Element element, SpringBean bean) {
+        bean.setEnclosingBean(openBeans.peek());
+        beans.add(bean);
+        openBeanElements.push(element);
+        openBeans.push(bean);
+    }
+
+    public void closeBean(Element element) {
+        if (openBeanElements.peek() == element) {
+            openBeanElements.pop();
+            openBeans.pop();
+        }
+    }
+
+    /**
+     * Gets the bean whose element is the direct parent of the given element, or null.
+     * Children of inner beans therefore belong to the inner bean only.
+     */
+    public SpringBean getEnclosingBean(Element element) {
+        return openBeanElements.peek() != null && element.getParentNode() == openBeanElements.peek() ?
+                openBeans.peek() : null;
+    }
+
+    /**
+     * Gets the definitions found so far, in the order their elements start in the document.
+     */
+    public List<SpringBean> getBeans() {
+        return beans;
+    }
+}
@@ -0,0 +1,291 @@
+package com.springconverter.parser;
+
+import com.springconverter.model.SourcePosition;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decodes an XML byte stream and remembers, for a sliding window of the most recently read
+ * characters, the line, column and byte offset of each one. The XML parser reports where an
+ * event ends as a character offset; this reader turns that into a full source position and
+ * finds where the event's markup started, without a second pass over the file.
+ */
+public class PositionTrackingReader extends Reader {
+    static final int WINDOW_SIZE = 64 * 1024;
+
+    private static final int PROLOG_SNIFF_LENGTH = 1024;
+    private static final Pattern ENCODING_DECLARATION =
+            Pattern.compile("^<\\?xml[^>]*encoding\\s*=\\s*[\"']([A-Za-z0-9._:-]+)[\"']");
+
+    private enum ByteLength { UTF_8, TWO_BYTES, ONE_BYTE, UNKNOWN }
+
+    private final InputStream input;
+    private final Charset charset;
+    private final boolean byteOrderMark;
+    private final CharsetDecoder decoder;
+    private final ByteLength byteLength;
+    private final ByteBuffer bytes = ByteBuffer.allocate(8192);
+    private final CharBuffer chars = CharBuffer.allocate(8192);
+    private boolean endOfInput;
+    private boolean flushed;
+
+    private final char[] windowChars = new char[WINDOW_SIZE];
+    private final long[] windowBytes = new long[WINDOW_SIZE];
+    private final int[] windowLines = new int[WINDOW_SIZE];
+    private final int[] windowColumns = new int[WINDOW_SIZE];
+
+    private long delivered;
+    private long byteOffset;
+    private int line = 1;
+    private int column = 1;
+    private boolean afterCarriageReturn;
+
+    private PositionTrackingReader(InputStream input, Charset charset, int byteOrderMarkLength) {
+        this.input = input;
+        this.charset = charset;
+        this.byteOrderMark = byteOrderMarkLength > 0;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        this.byteLength = byteLengthOf(charset);
+        this.byteOffset = byteLength == ByteLength.UNKNOWN ? -1 : byteOrderMarkLength;
+        this.bytes.flip();
+        this.chars.flip();
+    }
+
+    /**
+     * Opens a reader over an XML byte stream, detecting the encoding from the byte order
+     * mark or the XML declaration and defaulting to UTF-8.
+     */
+    public static PositionTrackingReader open(InputStream stream) throws IOException {
+        BufferedInputStream input = new BufferedInputStream(stream);
+        input.mark(PROLOG_SNIFF_LENGTH);
+        byte[] prolog = input.readNBytes(PROLOG_SNIFF_LENGTH);
+        input.reset();
+
+        Charset charset = StandardCharsets.UTF_8;
+        int byteOrderMarkLength = 0;
+        if (startsWith(prolog, 0xEF, 0xBB, 0xBF)) {
+            byteOrderMarkLength = 3;
+        } else if (startsWith(prolog, 0xFE, 0xFF)) {
+            charset = StandardCharsets.UTF_16BE;
+            byteOrderMarkLength = 2;
+        } else if (startsWith(prolog, 0xFF, 0xFE)) {
+            charset = StandardCharsets.UTF_16LE;
+            byteOrderMarkLength = 2;
+        } else if (startsWith(prolog, 0x00, 0x3C, 0x00, 0x3F)) {
+            charset = StandardCharsets.UTF_16BE;
+        } else if (startsWith(prolog, 0x3C, 0x00, 0x3F, 0x00)) {
+            charset = StandardCharsets.UTF_16LE;
+        } else {
+            Matcher declaration = ENCODING_DECLARATION.matcher(new String(prolog, StandardCharsets.ISO_8859_1));
+            if (declaration.find() && Charset.isSupported(declaration.group(1))) {
+                charset = Charset.forName(declaration.group(1));
+            }
+        }
+
+        input.readNBytes(byteOrderMarkLength);
+        return new PositionTrackingReader(input, charset, byteOrderMarkLength);
+    }
+
+    /**
+     * Gets the encoding the stream is decoded with.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Checks whether the stream started with a byte order mark, which is skipped rather than
+     * read as a character.
+     */
+    public boolean hasByteOrderMark() {
+        return byteOrderMark;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!chars.hasRemaining() && !fill()) {
+            return -1;
+        }
+
+        int count = Math.min(length, chars.remaining());
+        chars.get(buffer, offset, count);
+        for (int i = offset; i < offset + count; i++) {
+            track(buffer[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the position of the character at the given offset, as long as it is the next
+     * character to be read or still inside the window. Unknown parts are reported as -1.
+     */
+    SourcePosition positionAt(long charOffset) {
+        if (charOffset == delivered) {
+            return new SourcePosition(line, column, charOffset, byteOffset);
+        }
+        if (!inWindow(charOffset)) {
+            return new SourcePosition(-1, -1, charOffset, -1);
+        }
+        int slot = (int) (charOffset % WINDOW_SIZE);
+        return new SourcePosition(windowLines[slot], windowColumns[slot], charOffset, windowBytes[slot]);
+    }
+
+    /**
+     * Finds the last occurrence of the character before the given offset within the window,
+     * or -1 if it is not there.
+     */
+    long lastIndexOf(char c, long beforeOffset) {
+        long limit = Math.max(0, delivered - WINDOW_SIZE);
+        for (long offset = Math.min(beforeOffset, delivered) - 1; offset >= limit; offset--) {
+            if (windowChars[(int) (offset % WINDOW_SIZE)] == c) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private boolean inWindow(long charOffset) {
+        return charOffset >= 0 && charOffset < delivered && delivered - charOffset <= WINDOW_SIZE;
+    }
+
+    private void track(char c) {
+        int slot = (int) (delivered % WINDOW_SIZE);
+        windowChars[slot] = c;
+        windowBytes[slot] = byteOffset;
+        windowLines[slot] = line;
+        windowColumns[slot] = column;
+        delivered++;
+
+        if (byteOffset >= 0) {
+            byteOffset += encodedLength(c);
+        }
+
+        if (c == '\n') {
+            if (!afterCarriageReturn) {
+                line++;
+            }
+            column = 1;
+        } else if (c == '\r') {
+            line++;
+            column = 1;
+        } else {
+            column++;
+        }
+        afterCarriageReturn = c == '\r';
+    }
+
+    private int encodedLength(char c) {
+        switch (byteLength) {
+            case UTF_8:
+                if (c < 0x80) {
+                    return 1;
+                } else if (c < 0x800) {
+                    return 2;
+                } else if (Character.isHighSurrogate(c)) {
+                    return 4;
+                } else if (Character.isLowSurrogate(c)) {
+                    return 0;
+                }
+                return 3;
+            case TWO_BYTES:
+                return 2;
+            default:
+                return 1;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (flushed) {
+            // The decoder cannot be used again once flushed; keep reporting the end
+            return false;
+        }
+        chars.clear();
+        while (chars.position() == 0) {
+            if (!bytes.hasRemaining() && !endOfInput) {
+                bytes.clear();
+                int read = input.read(bytes.array(), 0, bytes.capacity());
+                if (read < 0) {
+                    endOfInput = true;
+                    bytes.limit(0);
+                } else {
+                    bytes.limit(read);
+                }
+            } else if (bytes.hasRemaining() && !endOfInput) {
+                // Keep a partial multi-byte sequence and top it up
+                bytes.compact();
+                int read = input.read(bytes.array(), bytes.position(), bytes.remaining());
+                if (read < 0) {
+                    endOfInput = true;
+                } else {
+                    bytes.position(bytes.position() + read);
+                }
+                bytes.flip();
+            }
+
+            throwIfError(decoder.decode(bytes, chars, endOfInput));
+            if (endOfInput) {
+                throwIfError(decoder.flush(chars));
+                flushed = true;
+                if (chars.position() == 0) {
+                    chars.flip();
+                    return false;
+                }
+            }
+        }
+        chars.flip();
+        return true;
+    }
+
+    private static void throwIfError(CoderResult result) throws IOException {
+        if (result.isError()) {
+            result.throwException();
+        }
+    }
+
+    private static ByteLength byteLengthOf(Charset charset) {
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            return ByteLength.UTF_8;
+        }
+        if (StandardCharsets.UTF_16BE.equals(charset) || StandardCharsets.UTF_16LE.equals(charset)) {
+            return ByteLength.TWO_BYTES;
+        }
+        if (charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1.0f) {
+            return ByteLength.ONE_BYTE;
+        }
+        return ByteLength.UNKNOWN;
+    }
+
+    private static boolean startsWith(byte[] data, int... prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((data[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -4,68 +4,381 @@ import com.springconverter.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.*;
-import org.xml.sax.SAXException;
 
+import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import java.io.File;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Parser for Spring XML configuration files.
+ * Files below the streaming threshold are read into a full DOM; larger files are streamed
+ * and only one top-level definition at a time is materialized, so memory is bounded by the
+ * largest single bean definition rather than by the file. Both modes read the file once
+ * through StAX and record the source position of every bean, property and constructor-arg.
+ * Definitions are extracted in one depth-first walk that dispatches each element to the
+ * {@link ElementHandler} registered for its namespace URI and local name.
  */
 public class XmlParser {
     private static final Logger logger = LoggerFactory.getLogger(XmlParser.class);
+    
+    public static final long DEFAULT_STREAMING_THRESHOLD_BYTES = 16L * 1024 * 1024;
+    
+    public static final String BEANS_NAMESPACE = "http://www.springframework.org/schema/beans";
+    public static final String CONTEXT_NAMESPACE = "http://www.springframework.org/schema/context";
+    
+    private static final String NO_NAMESPACE = "";
+    private static final String BEAN_TAG = "bean";
+    private static final String COMPONENT_SCAN_TAG = "component-scan";
+    private static final String IMPORT_TAG = "import";
+    private static final String PROPERTY_TAG = "property";
+    private static final String CONSTRUCTOR_ARG_TAG = "constructor-arg";
+    private static final String XMLNS_NAMESPACE = "http://www.w3.org/2000/xmlns/";
+    private static final String START_POSITION = "springconverter.startPosition";
+    private static final String END_POSITION = "springconverter.endPosition";
+    
+    private static final OfflineEntityResolver ENTITY_RESOLVER = new OfflineEntityResolver();
+    private static final DocumentBuilderFactory DOCUMENT_FACTORY = createDocumentFactory();
+    private static final XMLInputFactory STREAM_FACTORY = createStreamFactory();
+    
+    // DocumentBuilder is not thread-safe, so each thread reuses its own
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = ThreadLocal.withInitial(() -> {
+        try {
+            return DOCUMENT_FACTORY.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("XML parser configuration is not supported", e);
+        }
+    });
+    
+    private final long streamingThresholdBytes;
+    private final Map<String, Map<String, ElementHandler>> handlers = new HashMap<>();
+
+    public XmlParser() {
+        this(DEFAULT_STREAMING_THRESHOLD_BYTES);
+    }
+
+    /**
+     * Creates a parser that streams files of at least the given size instead of building a DOM.
+     */
+    public XmlParser(long streamingThresholdBytes) {
+        this.streamingThresholdBytes = streamingThresholdBytes;
+        registerDefaultHandlers();
+    }
+
+    /**
+     * Registers the handler for an element, replacing any handler registered for it before.
+     * An empty or null namespace URI registers the handler for elements in no namespace,
+     * as found in DTD-based files.
+     */
+    public void registerHandler(String namespaceUri, String localName, ElementHandler handler) {
+        handlers.computeIfAbsent(namespaceUri != null ? namespaceUri : NO_NAMESPACE, key -> new HashMap<>())
+                .put(localName, handler);
+    }
+
+    private void registerDefaultHandlers() {
+        ElementHandler beanHandler = new ElementHandler() {
+            @Override
+            public void start(Element element, ParseContext context) {
+                context.openBean(element, parseBeanElement(element, context.getSourceFile()));
+            }
+
+            @Override
+            public void end(Element element, ParseContext context) {
+                context.closeBean(element);
+            }
+        };
+        ElementHandler propertyHandler = (element, context) -> {
+            SpringBean bean = context.getEnclosingBean(element);
+            if (bean != null) {
+                bean.addProperty(parsePropertyElement(element));
+            }
+        };
+        ElementHandler constructorArgHandler = (element, context) -> {
+            SpringBean bean = context.getEnclosingBean(element);
+            if (bean != null) {
+                bean.addConstructorArg(parseConstructorArgElement(element));
+            }
+        };
+        ElementHandler importHandler = (element, context) ->
+                context.addBean(parseImportElement(element, context.getSourceFile()));
+        
+        for (String namespace : new String[] {BEANS_NAMESPACE, NO_NAMESPACE}) {
+            registerHandler(namespace, BEAN_TAG, beanHandler);
+            registerHandler(namespace, PROPERTY_TAG, propertyHandler);
+            registerHandler(namespace, CONSTRUCTOR_ARG_TAG, constructorArgHandler);
+            registerHandler(namespace, IMPORT_TAG, importHandler);
+        }
+        registerHandler(CONTEXT_NAMESPACE, COMPONENT_SCAN_TAG, (element, context) ->
+                context.addBean(parseComponentScanElement(element, context.getSourceFile())));
+    }
 
     /**
      * Parses a Spring XML configuration file and extracts all bean definitions.
      */
     public List<SpringBean> parseXmlFile(String filePath) throws XmlParsingException {
+        if (shouldStream(filePath)) {
+            List<SpringBean> beans = new ArrayList<>();
+            streamXmlFile(filePath, beans::add);
+            return beans;
+        }
+        
         logger.info("Parsing XML file: {}", filePath);
         
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(new File(filePath));
+            Document document = readDocument(filePath);
             
-            List<SpringBean> beans = new ArrayList<>();
+            ParseContext context = new ParseContext(filePath);
+            walk(document.getDocumentElement(), context);
+            List<SpringBean> beans = context.getBeans();
             
-            // Parse beans
-            NodeList beanNodes = document.getElementsByTagName("bean");
-            for (int i = 0; i < beanNodes.getLength(); i++) {
-                Element beanElement = (Element) beanNodes.item(i);
-                SpringBean bean = parseBeanElement(beanElement, filePath);
-                beans.add(bean);
-            }
+            logger.info("Parsed {} beans from {}", beans.size(), filePath);
+            return beans;
             
-            // Parse context:component-scan
-            NodeList componentScanNodes = document.getElementsByTagName("context:component-scan");
-            for (int i = 0; i < componentScanNodes.getLength(); i++) {
-                Element componentScanElement = (Element) componentScanNodes.item(i);
-                SpringBean componentScanBean = parseComponentScanElement(componentScanElement, filePath);
-                beans.add(componentScanBean);
-            }
+        } catch (XMLStreamException | IOException e) {
+            throw new XmlParsingException("Failed to parse XML file: " + filePath, e);
+        }
+    }
+
+    /**
+     * Parses a Spring XML configuration file as a stream, handing each bean definition to the
+     * consumer as soon as its element has been read. Only the element currently being read is
+     * held in memory.
+     */
+    public void streamXmlFile(String filePath, Consumer<SpringBean> beanConsumer) throws XmlParsingException {
+        logger.info("Streaming XML file: {}", filePath);
+        
+        int[] beanCount = new int[1];
+        Consumer<SpringBean> countingConsumer = bean -> {
+            beanCount[0]++;
+            beanConsumer.accept(bean);
+        };
+        
+        XMLStreamReader reader = null;
+        try (PositionTrackingReader positions = PositionTrackingReader.open(Files.newInputStream(Path.of(filePath)))) {
+            reader = STREAM_FACTORY.createXMLStreamReader(filePath, positions);
+            Document fragmentDocument = DOCUMENT_BUILDER.get().newDocument();
             
-            // Parse import elements
-            NodeList importNodes = document.getElementsByTagName("import");
-            for (int i = 0; i < importNodes.getLength(); i++) {
-                Element importElement = (Element) importNodes.item(i);
-                SpringBean importBean = parseImportElement(importElement, filePath);
-                beans.add(importBean);
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                
+                if (handlerFor(reader.getNamespaceURI(), reader.getLocalName()) != null) {
+                    ParseContext context = new ParseContext(filePath);
+                    walk(readElement(reader, positions, fragmentDocument), context);
+                    context.getBeans().forEach(countingConsumer);
+                }
             }
             
-            logger.info("Parsed {} beans from {}", beans.size(), filePath);
-            return beans;
+            logger.info("Parsed {} beans from {}", beanCount[0], filePath);
             
-        } catch (ParserConfigurationException | SAXException | IOException e) {
+        } catch (XMLStreamException | IOException e) {
             throw new XmlParsingException("Failed to parse XML file: " + filePath, e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * Reads the whole file into a DOM document in a single StAX pass, recording the source
+     * position of every element as it goes.
+     */
+    private Document readDocument(String filePath) throws XMLStreamException, IOException {
+        XMLStreamReader reader = null;
+        try (PositionTrackingReader positions = PositionTrackingReader.open(Files.newInputStream(Path.of(filePath)))) {
+            reader = STREAM_FACTORY.createXMLStreamReader(filePath, positions);
+            Document document = DOCUMENT_BUILDER.get().newDocument();
+            
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    document.appendChild(readElement(reader, positions, document));
+                    break;
+                }
+            }
+            // Read to the end so trailing content is still checked for well-formedness
+            while (reader.hasNext()) {
+                reader.next();
+            }
+            return document;
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    private boolean shouldStream(String filePath) {
+        try {
+            return Files.size(Path.of(filePath)) >= streamingThresholdBytes;
+        } catch (IOException e) {
+            // Let the parse itself report the problem
+            return false;
+        }
+    }
+
+    /**
+     * Walks the tree below the element depth-first, once, handing every element with a
+     * registered handler to it on the way in and on the way out.
+     */
+    private void walk(Element root, ParseContext context) {
+        Node node = root;
+        while (node != null) {
+            ElementHandler handler = handlerFor(node);
+            if (handler != null) {
+                handler.start((Element) node, context);
+            }
+            
+            Node child = node.getFirstChild();
+            if (child != null) {
+                node = child;
+                continue;
+            }
+            
+            // Leave finished elements until one has a next sibling
+            while (node != null) {
+                handler = handlerFor(node);
+                if (handler != null) {
+                    handler.end((Element) node, context);
+                }
+                if (node == root) {
+                    node = null;
+                } else if (node.getNextSibling() != null) {
+                    node = node.getNextSibling();
+                    break;
+                } else {
+                    node = node.getParentNode();
+                }
+            }
         }
     }
 
+    private ElementHandler handlerFor(Node node) {
+        return node.getNodeType() == Node.ELEMENT_NODE ? handlerFor(node.getNamespaceURI(), node.getLocalName()) : null;
+    }
+
+    private ElementHandler handlerFor(String namespaceUri, String localName) {
+        Map<String, ElementHandler> namespaceHandlers =
+                handlers.get(namespaceUri != null ? namespaceUri : NO_NAMESPACE);
+        return namespaceHandlers != null ? namespaceHandlers.get(localName) : null;
+    }
+
+    /**
+     * Materializes the element the reader is positioned on, and everything inside it, as a
+     * detached DOM element. On return the reader is positioned on the element's end tag.
+     */
+    private Element readElement(XMLStreamReader reader, PositionTrackingReader positions, Document document)
+            throws XMLStreamException {
+        Element root = createElement(reader, positions, document);
+        Element current = root;
+        
+        while (current != null) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    Element child = createElement(reader, positions, document);
+                    current.appendChild(child);
+                    current = child;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    current.setUserData(END_POSITION, positions.positionAt(characterOffset(reader)), null);
+                    current = current == root ? null : (Element) current.getParentNode();
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    current.appendChild(document.createTextNode(reader.getText()));
+                    break;
+                default:
+                    // Comments and processing instructions carry no bean definition data
+                    break;
+            }
+        }
+        return root;
+    }
+
+    private Element createElement(XMLStreamReader reader, PositionTrackingReader positions, Document document) {
+        String namespace = reader.getNamespaceURI();
+        Element element = document.createElementNS(namespace != null && !namespace.isEmpty() ? namespace : null, 
+                qualifiedName(reader.getPrefix(), reader.getLocalName()));
+        
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            String declaration = prefix != null && !prefix.isEmpty() ? "xmlns:" + prefix : "xmlns";
+            element.setAttributeNS(XMLNS_NAMESPACE, declaration, reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String attributeNamespace = reader.getAttributeNamespace(i);
+            element.setAttributeNS(attributeNamespace != null && !attributeNamespace.isEmpty() ? attributeNamespace : null,
+                    qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                    reader.getAttributeValue(i));
+        }
+        
+        // The reader is just past the start tag; the tag itself begins at the last '<' before it
+        long startOffset = positions.lastIndexOf('<', characterOffset(reader));
+        element.setUserData(START_POSITION, positions.positionAt(startOffset), null);
+        return element;
+    }
+
+    private static long characterOffset(XMLStreamReader reader) {
+        return reader.getLocation().getCharacterOffset();
+    }
+
+    private static void applyPositions(Element element, Consumer<SourcePosition> start, Consumer<SourcePosition> end) {
+        start.accept((SourcePosition) element.getUserData(START_POSITION));
+        end.accept((SourcePosition) element.getUserData(END_POSITION));
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        return prefix != null && !prefix.isEmpty() ? prefix + ":" + localName : localName;
+    }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                logger.debug("Failed to close XML stream reader", e);
+            }
+        }
+    }
+
+    /**
+     * Configures the DOM factory once. It only creates the documents StAX events are read
+     * into, so it never loads external resources itself.
+     */
+    private static DocumentBuilderFactory createDocumentFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setValidating(false);
+        factory.setXIncludeAware(false);
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        return factory;
+    }
+
+    /**
+     * Configures the StAX factory once. External DTDs and schemas are only ever read through
+     * the bundled catalog; direct access to external resources is disabled.
+     */
+    private static XMLInputFactory createStreamFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setXMLResolver(ENTITY_RESOLVER);
+        return factory;
+    }
+
     private SpringBean parseBeanElement(Element beanElement, String sourceFile) {
         String id = beanElement.getAttribute("id");
         String className = beanElement.getAttribute("class");
@@ -82,21 +395,9 @@ public class XmlParser {
         bean.setPrimary("true".equalsIgnoreCase(primary));
         bean.setInitMethod(initMethod);
         bean.setDestroyMethod(destroyMethod);
-        
-        // Parse properties
-        NodeList propertyNodes = beanElement.getElementsByTagName("property");
-        for (int i = 0; i < propertyNodes.getLength(); i++) {
-            Element propertyElement = (Element) propertyNodes.item(i);
-            Property property = parsePropertyElement(propertyElement);
-            bean.addProperty(property);
-        }
-        
-        // Parse constructor arguments
-        NodeList constructorArgNodes = beanElement.getElementsByTagName("constructor-arg");
-        for (int i = 0; i < constructorArgNodes.getLength(); i++) {
-            Element constructorArgElement = (Element) constructorArgNodes.item(i);
-            ConstructorArg constructorArg = parseConstructorArgElement(constructorArgElement);
-            bean.addConstructorArg(constructorArg);
+        applyPositions(beanElement, bean::setStartPosition, bean::setEndPosition);
+        if (bean.getStartPosition() != null && bean.getStartPosition().getLine() > 0) {
+            bean.setLineNumber(bean.getStartPosition().getLine());
         }
         
         // Store all attributes
@@ -117,6 +418,7 @@ public class XmlParser {
         
         Property property = new Property(name);
         property.setType(type);
+        applyPositions(propertyElement, property::setStartPosition, property::setEndPosition);
         
         if (!value.isEmpty()) {
             property.setValue(value);
@@ -169,6 +471,7 @@ public class XmlParser {
         ConstructorArg constructorArg = new ConstructorArg();
         constructorArg.setType(type);
         constructorArg.setName(name);
+        applyPositions(constructorArgElement, constructorArg::setStartPosition, constructorArg::setEndPosition);
         
         if (!index.isEmpty()) {
             try {
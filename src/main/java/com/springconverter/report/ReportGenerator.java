@@ -58,6 +58,36 @@ public class ReportGenerator {
         content.append("| Errors | ").append(report.getTotalErrors()).append(" |\n");
         content.append("| Success | ").append(report.isSuccessful() ? "✅ Yes" : "❌ No").append(" |\n\n");
         
+        // Type resolution
+        if (report.getParseCacheHits() + report.getParseCacheMisses() > 0) {
+            content.append("## Type Resolution\n\n");
+            content.append("| Metric | Count |\n");
+            content.append("|--------|-------|\n");
+            content.append("| Parse Cache Hits | ").append(report.getParseCacheHits()).append(" |\n");
+            content.append("| Parse Cache Misses | ").append(report.getParseCacheMisses()).append(" |\n");
+            content.append("| Parse Cache Evictions | ").append(report.getParseCacheEvictions()).append(" |\n\n");
+        }
+        
+        // Compile verification
+        if (report.getTotalJavaFilesVerified() > 0) {
+            content.append("## Compile Verification\n\n");
+            content.append("| Metric | Count |\n");
+            content.append("|--------|-------|\n");
+            content.append("| Java Files Compiled | ").append(report.getTotalJavaFilesVerified()).append(" |\n");
+            content.append("| Compile Errors | ").append(report.getTotalCompileErrors()).append(" |\n\n");
+            
+            for (ConversionResult result : report.getConversionResults()) {
+                if (result.getCompileDiagnostics().isEmpty()) {
+                    continue;
+                }
+                content.append("### ").append(result.getBeanId()).append(" (").append(result.getTargetFile()).append(")\n\n");
+                for (String diagnostic : result.getCompileDiagnostics()) {
+                    content.append("- ").append(diagnostic).append("\n");
+                }
+                content.append("\n");
+            }
+        }
+        
         // Configuration
         content.append("## Configuration\n\n");
         content.append("| Setting | Value |\n");
@@ -202,6 +232,14 @@ public class ReportGenerator {
         logger.info("Constructor Args Converted: {}", report.getTotalConstructorArgsConverted());
         logger.info("TODOs Generated: {}", report.getTotalTODOsGenerated());
         logger.info("Errors: {}", report.getTotalErrors());
+        if (report.getParseCacheHits() + report.getParseCacheMisses() > 0) {
+            logger.info("Type Resolution Parse Cache: {} hits, {} misses, {} evictions", report.getParseCacheHits(),
+                    report.getParseCacheMisses(), report.getParseCacheEvictions());
+        }
+        if (report.getTotalJavaFilesVerified() > 0) {
+            logger.info("Compile Verification: {} files compiled, {} errors", report.getTotalJavaFilesVerified(),
+                    report.getTotalCompileErrors());
+        }
         logger.info("Duration: {} seconds", report.getDurationInSeconds());
         logger.info("Success: {}", report.isSuccessful() ? "Yes" : "No");
         
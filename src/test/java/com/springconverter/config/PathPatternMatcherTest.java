@@ -0,0 +1,63 @@
+package com.springconverter.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathPatternMatcherTest {
+
+    @Test
+    void testRegexPatternsMatchLikeStringMatches() {
+        PathPatternMatcher matcher = PathPatternMatcher.compile(Arrays.asList(".*test.*", "/repo/legacy/.*\\.xml"));
+
+        assertTrue(matcher.matches("/repo/src/test/resources/context.xml"));
+        assertTrue(matcher.matches("/repo/legacy/old-context.xml"));
+        assertFalse(matcher.matches("/repo/src/main/resources/applicationContext.xml"));
+        assertFalse(matcher.matches("/repo/legacy/readme.txt"));
+    }
+
+    @Test
+    void testGlobPatterns() {
+        PathPatternMatcher matcher = PathPatternMatcher.compile(Arrays.asList(
+                "glob:/repo/**/applicationContext*.xml", "glob:/repo/conf/{dev,prod}/*.xml"));
+
+        assertTrue(matcher.matches("/repo/module/src/main/resources/applicationContext-security.xml"));
+        assertTrue(matcher.matches("/repo/conf/prod/beans.xml"));
+        assertFalse(matcher.matches("/repo/conf/test/beans.xml"));
+        assertFalse(matcher.matches("/repo/conf/prod/nested/beans.xml"));
+    }
+
+    @Test
+    void testLiteralPrefixes() {
+        assertEquals("/repo/legacy/", PathPatternMatcher.regexLiteralPrefix("/repo/legacy/.*"));
+        assertEquals("/repo/", PathPatternMatcher.regexLiteralPrefix("/repo/x?/.*"));
+        assertEquals("a.b", PathPatternMatcher.regexLiteralPrefix("^a\\.b\\d"));
+        assertEquals("", PathPatternMatcher.regexLiteralPrefix("/a/.*|/b/.*"));
+        assertEquals("/repo/", PathPatternMatcher.globLiteralPrefix("/repo/*.xml"));
+    }
+
+    @Test
+    void testCanMatchUnder() {
+        PathPatternMatcher matcher = PathPatternMatcher.compile(Collections.singletonList("/repo/config/.*\\.xml"));
+
+        assertTrue(matcher.canMatchUnder("/repo"));
+        assertTrue(matcher.canMatchUnder("/repo/config"));
+        assertTrue(matcher.canMatchUnder("/repo/config/nested"));
+        assertFalse(matcher.canMatchUnder("/repo/src"));
+        assertFalse(matcher.canMatchUnder("/repo/configuration"));
+    }
+
+    @Test
+    void testMatchesEverythingUnder() {
+        PathPatternMatcher matcher = PathPatternMatcher.compile(Arrays.asList(".*/generated/.*", "glob:/repo/tmp/**"));
+
+        assertTrue(matcher.matchesEverythingUnder("/repo/module/generated"));
+        assertTrue(matcher.matchesEverythingUnder("/repo/module/generated/deeper"));
+        assertTrue(matcher.matchesEverythingUnder("/repo/tmp"));
+        assertFalse(matcher.matchesEverythingUnder("/repo/module"));
+        assertFalse(PathPatternMatcher.compile(Collections.singletonList(".*\\.xml")).matchesEverythingUnder("/repo"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.springconverter.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineStageTest {
+
+    @Test
+    void testSubmitWaitsWhileQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Integer> handled = new ConcurrentLinkedQueue<>();
+        AtomicBoolean thirdQueued = new AtomicBoolean();
+
+        try (PipelineStage<Integer> stage = new PipelineStage<>("test", 1, 1, item -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            handled.add(item);
+        })) {
+            stage.submit(1);
+            Thread producer = new Thread(() -> {
+                stage.submit(2);
+                stage.submit(3);
+                thirdQueued.set(true);
+            });
+            producer.start();
+
+            // One item is being handled and one fills the queue, so the third has to wait
+            producer.join(200);
+            assertFalse(thirdQueued.get());
+
+            release.countDown();
+            producer.join(TimeUnit.SECONDS.toMillis(10));
+            assertTrue(thirdQueued.get());
+        }
+        assertEquals(3, handled.size());
+    }
+
+    @Test
+    void testCloseRethrowsAfterDraining() {
+        ConcurrentLinkedQueue<Integer> handled = new ConcurrentLinkedQueue<>();
+        PipelineStage<Integer> stage = new PipelineStage<>("test", 2, 4, item -> {
+            if (item == 2) {
+                throw new IllegalArgumentException("bad item");
+            }
+            handled.add(item);
+        });
+        for (int i = 1; i <= 5; i++) {
+            stage.submit(i);
+        }
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, stage::close);
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+        assertEquals(4, handled.size());
+    }
+
+    @Test
+    void testFailedItemIsPublishedInPlaceOfLostOne() {
+        // Takes items strictly in order, like the merge stage, so a lost item would stall it
+        List<String> merged = new ArrayList<>();
+        Map<Integer, String> waiting = new HashMap<>();
+        int[] next = {1};
+        PipelineStage<Map.Entry<Integer, String>> mergeStage = new PipelineStage<>("merge", 1, 4, entry -> {
+            waiting.put(entry.getKey(), entry.getValue());
+            for (String ready = waiting.remove(next[0]); ready != null; ready = waiting.remove(next[0])) {
+                next[0]++;
+                merged.add(ready);
+            }
+        });
+        PipelineStage<Integer> stage = new PipelineStage<>("test", 2, 4, null, item -> {
+            if (item == 2) {
+                throw new AssertionError("lost before it was published");
+            }
+            mergeStage.submit(Map.entry(item, "ok " + item));
+        }, (item, e) -> mergeStage.submit(Map.entry(item, "failed " + item)));
+        for (int i = 1; i <= 5; i++) {
+            stage.submit(i);
+        }
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, stage::close);
+        assertTrue(e.getCause() instanceof AssertionError);
+        mergeStage.close();
+        assertEquals(List.of("ok 1", "failed 2", "ok 3", "ok 4", "ok 5"), merged);
+    }
+}
@@ -0,0 +1,282 @@
+package com.springconverter.file;
+
+import com.springconverter.config.ConverterConfig;
+import com.springconverter.model.ConversionReport;
+import com.springconverter.model.SpringBean;
+import com.springconverter.parser.XmlParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FileManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCommentsOutConvertedBeansByOffset() throws Exception {
+        String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<beans xmlns=\"http://www.springframework.org/schema/beans\">\n" +
+                "    <!-- Entwürfe -->\n" +
+                "    <bean id=\"userService\"\n" +
+                "          class=\"com.example.UserService\">\n" +
+                "        <!-- the dao -->\n" +
+                "        <property name=\"userDao\" ref=\"userDao\"/>\n" +
+                "    </bean>\n" +
+                "    <bean id=\"userDao\" class=\"com.example.UserDao\"/>\n" +
+                "    <bean id=\"mailer\" class=\"com.example.Mailer\"/>\n" +
+                "</beans>\n";
+        Path xmlFile = Files.writeString(tempDir.resolve("beans.xml"), xmlContent);
+        List<SpringBean> beans = new XmlParser().parseXmlFile(xmlFile.toString());
+        List<SpringBean> converted = beans.stream()
+                .filter(bean -> !"mailer".equals(bean.getId()))
+                .collect(Collectors.toList());
+
+        ConverterConfig config = new ConverterConfig();
+        config.setCreateBackups(false);
+        assertFalse(new FileManager(config, new ConversionReport()).updateXmlFile(xmlFile.toString(), converted));
+
+        String content = Files.readString(xmlFile);
+        assertTrue(content.contains("    <!-- Entwürfe -->\n"));
+        assertTrue(content.contains("    <!-- Converted to annotation: <bean id=\"userService\"\n" +
+                "          class=\"com.example.UserService\">\n" +
+                "        <!- - the dao - ->\n"));
+        assertTrue(content.contains("    </bean> -->\n"));
+        assertTrue(content.contains("    <!-- Converted to annotation: <bean id=\"userDao\" class=\"com.example.UserDao\"/> -->\n"));
+        assertTrue(content.contains("    <bean id=\"mailer\" class=\"com.example.Mailer\"/>\n"));
+        // Still well-formed, with only the unconverted bean left
+        assertEquals(Arrays.asList("mailer"), new XmlParser().parseXmlFile(xmlFile.toString()).stream()
+                .map(SpringBean::getId).collect(Collectors.toList()));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testStreamingRewriteDecidesEmptinessInSamePass() throws Exception {
+        String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<beans xmlns=\"http://www.springframework.org/schema/beans\">\n" +
+                "    <bean id=\"userService\" class=\"com.example.UserService\">\n" +
+                "        <!-- the dao -->\n" +
+                "        <property name=\"userDao\" ref=\"userDao\"/>\n" +
+                "    </bean>\n" +
+                "    <bean id=\"userDao\" class=\"com.example.UserDao\"/>\n" +
+                "</beans>\n";
+        Path xmlFile = Files.writeString(tempDir.resolve("beans.xml"), xmlContent);
+        List<SpringBean> beans = new XmlParser().parseXmlFile(xmlFile.toString());
+
+        ConverterConfig config = new ConverterConfig();
+        config.setCreateBackups(false);
+        config.setStreamingThresholdBytes(1);
+        FileManager fileManager = new FileManager(config, new ConversionReport());
+
+        assertFalse(fileManager.updateXmlFile(xmlFile.toString(), beans.subList(0, 1)));
+        String content = Files.readString(xmlFile);
+        assertTrue(content.contains("<!-- Converted to annotation: <bean id=\"userService\""));
+        assertTrue(content.contains("<!- - the dao - ->"));
+        List<SpringBean> left = new XmlParser().parseXmlFile(xmlFile.toString());
+        assertEquals(Arrays.asList("userDao"), left.stream().map(SpringBean::getId).collect(Collectors.toList()));
+
+        // Offsets are those of the file as last parsed
+        assertTrue(fileManager.updateXmlFile(xmlFile.toString(), left));
+        fileManager.removeEmptyXmlFile(xmlFile.toString(), true);
+        assertFalse(Files.exists(xmlFile));
+    }
+
+    @Test
+    void testLeavesInnerBeanOfUnconvertedBeanInPlace() throws Exception {
+        String xmlContent = "<beans xmlns=\"http://www.springframework.org/schema/beans\">\n" +
+                "    <bean id=\"outer\" class=\"lib.ThirdParty\">\n" +
+                "        <property name=\"helper\"><bean class=\"p.Helper\"/></property>\n" +
+                "    </bean>\n" +
+                "    <bean id=\"converted\" class=\"p.Service\">\n" +
+                "        <property name=\"helper\"><bean class=\"p.Helper\"/></property>\n" +
+                "    </bean>\n" +
+                "</beans>\n";
+        for (long threshold : new long[] {Long.MAX_VALUE, 1}) {
+            Path xmlFile = Files.writeString(tempDir.resolve("beans.xml"), xmlContent);
+            List<SpringBean> beans = new XmlParser().parseXmlFile(xmlFile.toString());
+            assertEquals(4, beans.size());
+            assertSame(beans.get(0), beans.get(1).getEnclosingBean());
+            // Everything but the third-party bean was converted
+            List<SpringBean> converted = beans.subList(1, 4);
+
+            ConverterConfig config = new ConverterConfig();
+            config.setCreateBackups(false);
+            config.setStreamingThresholdBytes(threshold);
+            assertFalse(new FileManager(config, new ConversionReport()).updateXmlFile(xmlFile.toString(), converted));
+
+            assertEquals("<beans xmlns=\"http://www.springframework.org/schema/beans\">\n" +
+                    "    <bean id=\"outer\" class=\"lib.ThirdParty\">\n" +
+                    "        <property name=\"helper\"><bean class=\"p.Helper\"/></property>\n" +
+                    "    </bean>\n" +
+                    "    <!-- Converted to annotation: <bean id=\"converted\" class=\"p.Service\">\n" +
+                    "        <property name=\"helper\"><bean class=\"p.Helper\"/></property>\n" +
+                    "    </bean> -->\n" +
+                    "</beans>\n", Files.readString(xmlFile));
+        }
+    }
+
+    @Test
+    void testStreamingRewriteMatchesBeansWithoutId() throws Exception {
+        String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<beans xmlns=\"http://www.springframework.org/schema/beans\">\n" +
+                "    <bean class=\"com.example.Größe\"/>\n" +
+                "    <bean class=\"com.example.Mailer\"/>\n" +
+                "    <bean class=\"com.example.Größe\"/>\n" +
+                "</beans>\n";
+        List<String> rewritten = new ArrayList<>();
+        for (long threshold : new long[] {Long.MAX_VALUE, 1}) {
+            Path xmlFile = Files.writeString(tempDir.resolve("beans.xml"), xmlContent);
+            List<SpringBean> beans = new XmlParser().parseXmlFile(xmlFile.toString());
+            // Two beans of the same class, and no ids, told apart by where they start
+            List<SpringBean> converted = List.of(beans.get(0), beans.get(2));
+
+            ConverterConfig config = new ConverterConfig();
+            config.setCreateBackups(false);
+            config.setStreamingThresholdBytes(threshold);
+            assertFalse(new FileManager(config, new ConversionReport()).updateXmlFile(xmlFile.toString(), converted));
+            rewritten.add(Files.readString(xmlFile));
+        }
+
+        assertEquals(xmlContent.replace("    <bean class=\"com.example.Größe\"/>",
+                "    <!-- Converted to annotation: <bean class=\"com.example.Größe\"/> -->"), rewritten.get(0));
+        assertEquals(rewritten.get(0), rewritten.get(1));
+    }
+
+    @Test
+    void testKeepsUtf16EncodingWhenCommentingOut() throws Exception {
+        String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-16\"?>\n" +
+                "<beans xmlns=\"http://www.springframework.org/schema/beans\">\n" +
+                "    <bean id=\"a\" class=\"com.example.Größe\"/>\n" +
+                "    <bean id=\"b\" class=\"com.example.Mailer\"/>\n" +
+                "</beans>\n";
+        String expected = xmlContent.replace("    <bean id=\"a\" class=\"com.example.Größe\"/>",
+                "    <!-- Converted to annotation: <bean id=\"a\" class=\"com.example.Größe\"/> -->");
+        // With a byte order mark, and without one, where the declaration gives the byte order away
+        Object[][] encodings = {{StandardCharsets.UTF_16LE, "\uFEFF"}, {StandardCharsets.UTF_16BE, ""}};
+        for (Object[] encoding : encodings) {
+            Charset charset = (Charset) encoding[0];
+            String byteOrderMark = (String) encoding[1];
+            for (long threshold : new long[] {Long.MAX_VALUE, 1}) {
+                Path xmlFile = Files.write(tempDir.resolve("beans.xml"), (byteOrderMark + xmlContent).getBytes(charset));
+                List<SpringBean> beans = new XmlParser().parseXmlFile(xmlFile.toString());
+                assertEquals(2, beans.size());
+
+                ConverterConfig config = new ConverterConfig();
+                config.setCreateBackups(false);
+                config.setStreamingThresholdBytes(threshold);
+                assertFalse(new FileManager(config, new ConversionReport()).updateXmlFile(xmlFile.toString(), beans.subList(0, 1)));
+
+                assertEquals(byteOrderMark + expected, new String(Files.readAllBytes(xmlFile), charset));
+                assertEquals(Arrays.asList("b"), new XmlParser().parseXmlFile(xmlFile.toString()).stream()
+                        .map(SpringBean::getId).collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    void testKeepsFilePermissionsWhenRewriting() throws Exception {
+        String xmlContent = "<beans xmlns=\"http://www.springframework.org/schema/beans\">\n" +
+                "    <bean id=\"a\" class=\"com.example.A\"/>\n" +
+                "    <bean id=\"b\" class=\"com.example.B\"/>\n" +
+                "</beans>\n";
+        Set<PosixFilePermission> mode = PosixFilePermissions.fromString("rw-r--r--");
+        // In memory, and streamed
+        for (long threshold : new long[] {Long.MAX_VALUE, 0}) {
+            Path xmlFile = Files.writeString(tempDir.resolve("beans.xml"), xmlContent);
+            assumeTrue(Files.getFileStore(xmlFile).supportsFileAttributeView(PosixFileAttributeView.class));
+            Files.setPosixFilePermissions(xmlFile, mode);
+            List<SpringBean> beans = new XmlParser().parseXmlFile(xmlFile.toString());
+
+            ConverterConfig config = new ConverterConfig();
+            config.setCreateBackups(false);
+            config.setStreamingThresholdBytes(threshold);
+            assertFalse(new FileManager(config, new ConversionReport()).updateXmlFile(xmlFile.toString(), beans.subList(0, 1)));
+
+            assertTrue(Files.readString(xmlFile).contains("<!-- Converted to annotation: <bean id=\"a\""));
+            assertEquals(mode, Files.getPosixFilePermissions(xmlFile));
+        }
+    }
+
+    @Test
+    void testFindsBeansWithoutOffsetsInText() throws Exception {
+        String xmlContent = "<beans>\n" +
+                "    <bean id=\"userService\" class=\"com.example.UserService\">\n" +
+                "        <property name=\"userDao\" ref=\"userDao\"/>\n" +
+                "    </bean>\n" +
+                "</beans>\n";
+        Path xmlFile = Files.writeString(tempDir.resolve("beans.xml"), xmlContent);
+        List<SpringBean> converted = new ArrayList<>();
+        converted.add(new SpringBean("userService", "com.example.UserService"));
+
+        ConverterConfig config = new ConverterConfig();
+        config.setCreateBackups(false);
+        new FileManager(config, new ConversionReport()).updateXmlFile(xmlFile.toString(), converted);
+
+        assertEquals("<beans>\n" +
+                "    <!-- Converted to annotation: <bean id=\"userService\" class=\"com.example.UserService\">\n" +
+                "        <property name=\"userDao\" ref=\"userDao\"/>\n" +
+                "    </bean> -->\n" +
+                "</beans>\n", Files.readString(xmlFile));
+    }
+
+    @Test
+    void testPrunesBuildDirectoriesOnlyAtModuleRoots() throws Exception {
+        String beans = "<beans xmlns=\"http://www.springframework.org/schema/beans\"/>\n";
+        Path module = Files.createDirectories(tempDir.resolve("service"));
+        Files.writeString(module.resolve("pom.xml"), "<project/>");
+        Files.writeString(Files.createDirectories(tempDir.resolve("target")).resolve("beans.xml"), beans);
+        Files.writeString(Files.createDirectories(module.resolve("target/classes")).resolve("beans.xml"), beans);
+        Path sourcePackage = Files.createDirectories(module.resolve("src/main/java/com/acme/build"));
+        Files.writeString(sourcePackage.resolve("Builder.java"), "package com.acme.build;\nclass Builder {}\n");
+        Path resources = Files.createDirectories(module.resolve("src/main/resources/build"));
+        Path kept = Files.writeString(resources.resolve("beans.xml"), beans);
+
+        ConverterConfig config = new ConverterConfig();
+        config.setUseScanCache(false);
+        FileManager fileManager = new FileManager(config, new ConversionReport());
+
+        assertEquals(List.of(kept.toString()), fileManager.findXmlFiles(tempDir.toString()));
+        assertEquals(1, fileManager.getProjectIndex().getJavaFileCount());
+    }
+
+    @Test
+    void testWritesScanCacheOnlyOutsideProjectAndNotOnDryRun() throws Exception {
+        Path project = Files.createDirectories(tempDir.resolve("project"));
+        Path kept = Files.writeString(project.resolve("beans.xml"), "<beans xmlns=\"http://www.springframework.org/schema/beans\"/>\n");
+        Path backups = tempDir.resolve("backups");
+
+        ConverterConfig config = new ConverterConfig();
+        config.setUseScanCache(true);
+        assertEquals(List.of(kept.toString()), new FileManager(config, new ConversionReport()).findXmlFiles(project.toString()));
+        config.setBackupDirectory(project.resolve("backup").toString());
+        new FileManager(config, new ConversionReport()).findXmlFiles(project.toString());
+        assertFalse(Files.exists(project.resolve(ScanCache.CACHE_FILE_NAME)));
+        assertFalse(Files.exists(project.resolve("backup").resolve(ScanCache.CACHE_FILE_NAME)));
+
+        config.setBackupDirectory(backups.toString());
+        config.setDryRun(true);
+        new FileManager(config, new ConversionReport()).findXmlFiles(project.toString());
+        assertFalse(Files.exists(backups.resolve(ScanCache.CACHE_FILE_NAME)));
+
+        config.setDryRun(false);
+        new FileManager(config, new ConversionReport()).findXmlFiles(project.toString());
+        assertTrue(Files.exists(backups.resolve(ScanCache.CACHE_FILE_NAME)));
+    }
+}
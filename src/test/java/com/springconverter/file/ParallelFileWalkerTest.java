@@ -0,0 +1,60 @@
+package com.springconverter.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelFileWalkerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testExecutorWalkFindsWhatPoolWalkFinds() throws IOException {
+        Set<String> expected = new TreeSet<>();
+        for (int i = 0; i < 20; i++) {
+            Path directory = Files.createDirectories(tempDir.resolve("module" + i).resolve("src/main/resources"));
+            expected.add(Files.writeString(directory.resolve("beans.xml"), "<beans/>").toString());
+        }
+        Files.writeString(Files.createDirectories(tempDir.resolve("target")).resolve("copy.xml"), "<beans/>");
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Set<String> poolFound = new ConcurrentSkipListSet<>();
+        try {
+            new ParallelFileWalker(pool, directory -> !directory.endsWith("target"))
+                    .walk(tempDir, (file, attrs) -> poolFound.add(file.toString()));
+        } finally {
+            pool.shutdown();
+        }
+
+        // Virtual threads where the runtime has them, platform threads otherwise
+        ThreadFactory virtualThreads = VirtualThreads.factory("walker-test-");
+        assertEquals(VirtualThreads.isSupported(), virtualThreads != null);
+        ExecutorService executor = virtualThreads != null
+                ? Executors.newCachedThreadPool(virtualThreads) : Executors.newCachedThreadPool();
+        Set<String> executorFound = new ConcurrentSkipListSet<>();
+        try {
+            List<IOException> failures = new ParallelFileWalker(executor, 2, directory -> !directory.endsWith("target"))
+                    .walk(tempDir, (file, attrs) -> executorFound.add(file.toString()));
+            assertTrue(failures.isEmpty());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(expected, poolFound);
+        assertEquals(expected, executorFound);
+    }
+}
@@ -0,0 +1,61 @@
+package com.springconverter.file;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectIndexTest {
+
+    @Test
+    void testDeriveQualifiedNameFromMavenSourceRoot() {
+        Path javaFile = Path.of("/work/app/module/src/main/java/com/example/service/UserServiceImpl.java");
+
+        assertEquals("com.example.service.UserServiceImpl",
+                ProjectIndex.deriveQualifiedName(javaFile, "UserServiceImpl"));
+    }
+
+    @Test
+    void testDeriveQualifiedNameFromPlainSourceRoot() {
+        Path javaFile = Path.of("/work/app/src/com/example/dao/UserDao.java");
+
+        assertEquals("com.example.dao.UserDao", ProjectIndex.deriveQualifiedName(javaFile, "UserDao"));
+    }
+
+    @Test
+    void testAmbiguousSimpleNameSettledByQualifiedName() {
+        ProjectIndex index = new ProjectIndex();
+        index.addJavaFile(Path.of("/work/a/src/main/java/com/example/a/UserService.java"));
+        index.addJavaFile(Path.of("/work/b/src/main/java/com/example/b/UserService.java"));
+
+        List<String> files = index.findJavaFiles("com.example.b.UserService");
+
+        assertEquals(1, files.size());
+        assertTrue(files.get(0).endsWith("b/UserService.java".replace('/', java.io.File.separatorChar)));
+    }
+
+    @Test
+    void testKeepsEveryFileForDuplicateQualifiedName() {
+        Path first = Path.of("/work/a/src/main/java/com/example/UserService.java");
+        Path second = Path.of("/work/b/src/main/java/com/example/UserService.java");
+        ProjectIndex index = new ProjectIndex();
+        index.addJavaFile(first);
+        index.addJavaFile(second);
+
+        // Both are returned, so the bean is reported as ambiguous rather than mapped to either
+        assertEquals(List.of(first.toString(), second.toString()), index.findJavaFiles("com.example.UserService"));
+    }
+
+    @Test
+    void testFallsBackToSimpleNameMatches() {
+        ProjectIndex index = new ProjectIndex();
+        index.addJavaFile(Path.of("/work/a/src/main/java/com/example/a/UserService.java"));
+        index.addJavaFile(Path.of("/work/b/src/main/java/com/example/b/UserService.java"));
+
+        assertEquals(2, index.findJavaFiles("com.other.UserService").size());
+        assertTrue(index.findJavaFiles("com.example.MissingService").isEmpty());
+        assertEquals(2, index.getJavaFileCount());
+    }
+}
@@ -0,0 +1,89 @@
+package com.springconverter.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScanCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testHitsOnUnchangedSizeAndModificationTime() throws Exception {
+        Path xmlFile = Files.writeString(tempDir.resolve("applicationContext.xml"), "<beans/>");
+        Path pom = Files.writeString(tempDir.resolve("pom.xml"), "<project/>");
+        Path cacheFile = tempDir.resolve(ScanCache.CACHE_FILE_NAME);
+        ScanCache cache = new ScanCache();
+        cache.put(new ScanCache.Entry(xmlFile.toString(), attributes(xmlFile), true));
+        cache.put(new ScanCache.Entry(pom.toString(), attributes(pom), false));
+        cache.save(cacheFile);
+
+        ScanCache loaded = ScanCache.load(cacheFile);
+
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.lookup(xmlFile.toString(), attributes(xmlFile)).isSpringXml());
+        assertFalse(loaded.lookup(pom.toString(), attributes(pom)).isSpringXml());
+        assertNull(loaded.lookup(tempDir.resolve("other.xml").toString(), attributes(xmlFile)));
+    }
+
+    @Test
+    void testMissesAfterFileIsEdited() throws Exception {
+        Path xmlFile = Files.writeString(tempDir.resolve("beans.xml"), "<beans/>");
+        FileTime modified = Files.getLastModifiedTime(xmlFile);
+        ScanCache cache = new ScanCache();
+        cache.put(new ScanCache.Entry(xmlFile.toString(), attributes(xmlFile), true));
+        assertNotNull(cache.lookup(xmlFile.toString(), attributes(xmlFile)));
+
+        // Same size, new modification time
+        Files.writeString(xmlFile, "<bean/>X");
+        Files.setLastModifiedTime(xmlFile, FileTime.fromMillis(modified.toMillis() + 1000));
+        assertNull(cache.lookup(xmlFile.toString(), attributes(xmlFile)));
+
+        // New size, same modification time
+        Files.writeString(xmlFile, "<beans></beans>");
+        Files.setLastModifiedTime(xmlFile, modified);
+        assertNull(cache.lookup(xmlFile.toString(), attributes(xmlFile)));
+
+        // A fresh entry replaces the stale one
+        cache.put(new ScanCache.Entry(xmlFile.toString(), attributes(xmlFile), true));
+        assertEquals(1, cache.size());
+        assertNotNull(cache.lookup(xmlFile.toString(), attributes(xmlFile)));
+    }
+
+    @Test
+    void testIgnoresCorruptOrOutdatedCacheFile() throws Exception {
+        Path source = Files.writeString(tempDir.resolve("beans.xml"), "<beans/>");
+        Path cacheFile = tempDir.resolve(ScanCache.CACHE_FILE_NAME);
+        ScanCache cache = new ScanCache();
+        cache.put(new ScanCache.Entry(source.toString(), attributes(source), true));
+        cache.save(cacheFile);
+        List<String> saved = Files.readAllLines(cacheFile);
+
+        // Malformed lines are skipped, well-formed ones kept
+        Files.write(cacheFile, List.of(saved.get(0), "not\tenough", "x\t1\tfalse\tb.xml", saved.get(1)));
+        ScanCache partial = ScanCache.load(cacheFile);
+        assertEquals(1, partial.size());
+        assertNotNull(partial.lookup(source.toString(), attributes(source)));
+
+        // A file from another format version is ignored as a whole
+        Files.write(cacheFile, List.of("# xml-to-annotation-converter scan cache v1", saved.get(1)));
+        assertEquals(0, ScanCache.load(cacheFile).size());
+
+        Files.write(cacheFile, new byte[] {0, (byte) 0xFF, 0x13, '\n', 0x7F});
+        assertEquals(0, ScanCache.load(cacheFile).size());
+
+        assertEquals(0, ScanCache.load(tempDir.resolve("missing")).size());
+    }
+
+    private static BasicFileAttributes attributes(Path file) throws Exception {
+        return Files.readAttributes(file, BasicFileAttributes.class);
+    }
+}
@@ -0,0 +1,83 @@
+package com.springconverter.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpringXmlSnifferTest {
+
+    private static final String SPRING_XML = "<?xml version=\"1.0\"?>\n" +
+            "<beans xmlns=\"http://www.springframework.org/schema/beans\">\n" +
+            "    <bean id=\"userService\" class=\"com.example.UserService\"/>\n" +
+            "</beans>\n";
+
+    @TempDir
+    Path tempDir;
+
+    private final SpringXmlSniffer sniffer = new SpringXmlSniffer();
+
+    @Test
+    void testRecognizesSpringXmlWithAndWithoutByteOrderMark() throws Exception {
+        assertTrue(sniffer.isSpringXml(write("plain.xml", SPRING_XML.getBytes(StandardCharsets.UTF_8))));
+        assertTrue(sniffer.isSpringXml(write("utf8-bom.xml", withBom(SPRING_XML, StandardCharsets.UTF_8))));
+        assertTrue(sniffer.isSpringXml(write("utf16be-bom.xml", withBom(SPRING_XML, StandardCharsets.UTF_16BE))));
+        assertTrue(sniffer.isSpringXml(write("utf16le-bom.xml", withBom(SPRING_XML, StandardCharsets.UTF_16LE))));
+    }
+
+    @Test
+    void testRecognizesUtf16WithoutByteOrderMarkInEitherByteOrder() throws Exception {
+        assertTrue(sniffer.isSpringXml(write("utf16be.xml", SPRING_XML.getBytes(StandardCharsets.UTF_16BE))));
+        assertTrue(sniffer.isSpringXml(write("utf16le.xml", SPRING_XML.getBytes(StandardCharsets.UTF_16LE))));
+    }
+
+    @Test
+    void testRecognizesDoctypeAndLegacyRoot() throws Exception {
+        String doctype = "<?xml version=\"1.0\"?>\n" +
+                "<!DOCTYPE beans PUBLIC \"-//SPRING//DTD BEAN 2.0//EN\" \"https://www.springframework.org/dtd/spring-beans-2.0.dtd\">\n" +
+                "<beans><bean id=\"a\" class=\"A\"/></beans>\n";
+        String legacy = "<beans default-lazy-init=\"true\"><bean id=\"a\" class=\"A\"/></beans>\n";
+
+        assertTrue(sniffer.isSpringXml(write("doctype.xml", doctype.getBytes(StandardCharsets.UTF_8))));
+        assertTrue(sniffer.isSpringXml(write("legacy.xml", legacy.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void testRejectsOtherXml() throws Exception {
+        String pom = "<?xml version=\"1.0\"?>\n" +
+                "<project xmlns=\"http://maven.apache.org/POM/4.0.0\"><modelVersion>4.0.0</modelVersion></project>\n";
+        String beansLookalike = "<beansConfig><item>http://www.springframework.org/schema/beans</item></beansConfig>\n";
+
+        assertFalse(sniffer.isSpringXml(write("pom.xml", pom.getBytes(StandardCharsets.UTF_8))));
+        assertFalse(sniffer.isSpringXml(write("pom-utf16le.xml", pom.getBytes(StandardCharsets.UTF_16LE))));
+        assertFalse(sniffer.isSpringXml(write("lookalike.xml", beansLookalike.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void testDecidesFromBoundedPrefix() throws Exception {
+        // A root tag that starts past the prefix limit is never read
+        String padding = "<!--" + "x".repeat(SpringXmlSniffer.PREFIX_LIMIT) + "-->\n";
+        Path late = write("late.xml", (padding + SPRING_XML).getBytes(StandardCharsets.UTF_8));
+        assertFalse(sniffer.isSpringXml(late));
+
+        // A root tag within the prefix decides for a file of any size
+        String body = "    <bean id=\"a\" class=\"A\"/>\n".repeat(SpringXmlSniffer.PREFIX_LIMIT / 8);
+        Path large = write("large.xml", SPRING_XML.replace("</beans>", body + "</beans>")
+                .getBytes(StandardCharsets.UTF_8));
+        assertTrue(Files.size(large) > 2L * SpringXmlSniffer.PREFIX_LIMIT);
+        assertTrue(sniffer.isSpringXml(large));
+    }
+
+    private Path write(String name, byte[] content) throws Exception {
+        return Files.write(tempDir.resolve(name), content);
+    }
+
+    private static byte[] withBom(String text, Charset charset) {
+        return ("\uFEFF" + text).getBytes(charset);
+    }
+}
@@ -0,0 +1,109 @@
+package com.springconverter.file;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XmlRewriterTest {
+
+    private static final String DOCUMENT = "<?xml version=\"1.0\"?>\n" +
+            "<!DOCTYPE beans PUBLIC \"-//SPRING//DTD BEAN 2.0//EN\" \"https://www.springframework.org/dtd/spring-beans-2.0.dtd\">\n" +
+            "\n" +
+            "<!-- Entwürfe &amp; mehr -->\n" +
+            "<beans default-lazy-init='false'   default-autowire=\"no\">\n" +
+            "    <bean id=\"userService\"\n" +
+            "          class=\"com.example.UserService\" >\n" +
+            "        <property name=\"userDao\" ref=\"userDao\"/>\n" +
+            "        <property name=\"query\"><value><![CDATA[select * from users where id < 10 -- all]]></value></property>\n" +
+            "    </bean>\n" +
+            "    <bean class=\"com.example.UserDao\" id=\"userDao\" ></bean>\n" +
+            "    <bean id=\"mailer\" class=\"com.example.Mailer\"\n" +
+            "          lazy-init=\"true\"/>\n" +
+            "</beans>\n" +
+            "<!-- trailer -->\n";
+
+    @Test
+    void testUnconvertedContentRoundTripsUnchanged() throws Exception {
+        byte[] source = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertTrue(XmlRewriter.rewrite(new ByteArrayInputStream(source), output, Set.of()));
+        assertArrayEquals(source, output.toByteArray());
+    }
+
+    @Test
+    void testOnlyConvertedBeansChange() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        Set<Long> converted = Set.of(offsetOf(DOCUMENT, "<bean id=\"userService\""),
+                offsetOf(DOCUMENT, "<bean class=\"com.example.UserDao\""));
+        assertTrue(XmlRewriter.rewrite(new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.UTF_8)), output,
+                converted));
+
+        String expected = DOCUMENT
+                .replace("    <bean id=\"userService\"", "    <!-- " + XmlRewriter.COMMENT_PREFIX + "<bean id=\"userService\"")
+                .replace("id < 10 -- all", "id < 10 - - all")
+                .replace("    </bean>\n", "    </bean> -->\n")
+                .replace("<bean class=\"com.example.UserDao\" id=\"userDao\" ></bean>",
+                        "<!-- " + XmlRewriter.COMMENT_PREFIX + "<bean class=\"com.example.UserDao\" id=\"userDao\" ></bean> -->");
+        assertEquals(expected, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testKeepsDeclaredEncodingAndReportsEmptiedFile() throws Exception {
+        Charset latin1 = StandardCharsets.ISO_8859_1;
+        String document = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n" +
+                "<beans>\n" +
+                "    <!-- Größe -->\n" +
+                "    <bean id=\"größe\" class=\"com.example.Size\"/>\n" +
+                "</beans>";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertFalse(XmlRewriter.rewrite(new ByteArrayInputStream(document.getBytes(latin1)), output,
+                Set.of(offsetOf(document, "<bean id="))));
+        assertEquals(document.replace("<bean id=\"größe\" class=\"com.example.Size\"/>",
+                "<!-- " + XmlRewriter.COMMENT_PREFIX + "<bean id=\"größe\" class=\"com.example.Size\"/> -->"),
+                new String(output.toByteArray(), latin1));
+    }
+
+    @Test
+    void testFindsDefinitionsLeftOutsideCommentedRanges() {
+        String document = "<?xml version=\"1.0\"?>\n" +
+                "<!DOCTYPE beans [ <!ENTITY name \"<bean>\"> ]>\n" +
+                "<beans xmlns:context=\"http://www.springframework.org/schema/context\">\n" +
+                "    <!-- <bean id=\"old\"/> -->\n" +
+                "    <bean id=\"a\" class=\"A\"><property name=\"x\" value=\"a > b\"/></bean>\n" +
+                "    <?marker <bean/> ?>\n" +
+                "    <bean id=\"b\" class=\"B\"/>\n" +
+                "</beans>\n";
+        byte[] content = document.getBytes(StandardCharsets.UTF_8);
+        long[] a = range(document, "<bean id=\"a\"", "</bean>");
+        long[] b = range(document, "<bean id=\"b\"", "/>");
+
+        assertTrue(XmlRewriter.hasDefinitionsOutside(content, List.of()));
+        assertTrue(XmlRewriter.hasDefinitionsOutside(content, List.of(a)));
+        assertFalse(XmlRewriter.hasDefinitionsOutside(content, List.of(a, b)));
+
+        // Elements other than beans, and text, are left too
+        String withScan = document.replace("</beans>", "<context:annotation-config/></beans>");
+        assertTrue(XmlRewriter.hasDefinitionsOutside(withScan.getBytes(StandardCharsets.UTF_8), List.of(a, b)));
+        String withText = document.replace("</beans>", "<![CDATA[ x ]]></beans>");
+        assertTrue(XmlRewriter.hasDefinitionsOutside(withText.getBytes(StandardCharsets.UTF_8), List.of(a, b)));
+    }
+
+    private static long offsetOf(String document, String text) {
+        return document.indexOf(text);
+    }
+
+    private static long[] range(String document, String start, String end) {
+        int from = document.indexOf(start);
+        return new long[] {from, document.indexOf(end, from) + end.length()};
+    }
+}
@@ -0,0 +1,66 @@
+package com.springconverter.java;
+
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompileVerifierTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReportsErrorsPerFileAndResolvesUnmodifiedSources() throws IOException {
+        Path sourceRoot = tempDir.resolve("src/main/java");
+        writeSource(sourceRoot, "com/example/UserDao.java", "package com.example;\npublic interface UserDao {}\n");
+        Path good = writeSource(sourceRoot, "com/example/UserService.java", "package com.example;\n" +
+                "public class UserService {\n" +
+                "    private UserDao userDao;\n" +
+                "}\n");
+        Path bad = writeSource(sourceRoot, "com/example/MailService.java", "package com.example;\n" +
+                "\n" +
+                "@Service\n" +
+                "public class MailService {\n" +
+                "}\n");
+
+        try (CompileVerifier verifier = CompileVerifier.create(Collections.singletonList(sourceRoot),
+                Collections.emptyList(), LanguageLevel.JAVA_11)) {
+            Map<String, List<CompileVerifier.Problem>> problems =
+                    verifier.verify(Arrays.asList(good.toString(), bad.toString()));
+
+            assertTrue(problems.get(good.toString()).isEmpty());
+            List<CompileVerifier.Problem> badProblems = problems.get(bad.toString());
+            assertEquals(1, badProblems.size());
+            assertTrue(badProblems.get(0).isError());
+            assertEquals(3, badProblems.get(0).getLine());
+
+            // The same verifier compiles again once the file is fixed
+            Files.writeString(bad, "package com.example;\npublic class MailService {}\n");
+            assertTrue(verifier.verify(Collections.singletonList(bad.toString())).get(bad.toString()).isEmpty());
+        }
+        assertFalse(Files.exists(sourceRoot.resolve("com/example/UserService.class")));
+    }
+
+    @Test
+    void testReleaseFollowsLanguageLevel() {
+        assertEquals("11", CompileVerifier.releaseFor(LanguageLevel.JAVA_11));
+        assertNull(CompileVerifier.releaseFor(LanguageLevel.JAVA_1_4));
+        assertNull(CompileVerifier.releaseFor(LanguageLevel.JAVA_17_PREVIEW));
+    }
+
+    private static Path writeSource(Path sourceRoot, String relativePath, String source) throws IOException {
+        Path file = sourceRoot.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, source);
+    }
+}
@@ -0,0 +1,283 @@
+package com.springconverter.java;
+
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import com.springconverter.model.ConstructorArg;
+import com.springconverter.model.ConversionResult;
+import com.springconverter.model.Property;
+import com.springconverter.model.SpringBean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JavaSourceModifierTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testBeansForSameClassAreAppliedOnce() throws IOException {
+        Path javaFile = writeUserService();
+
+        SpringBean byProperty = new SpringBean("userService", "com.example.UserService");
+        byProperty.setScope("prototype");
+        byProperty.addProperty(new Property("userDao", "userDao", true));
+        SpringBean byConstructor = new SpringBean("userServiceWithConstructor", "com.example.UserService");
+        byConstructor.setScope("prototype");
+        byConstructor.addProperty(new Property("userDao", "userDao", true));
+        byConstructor.addConstructorArg(new ConstructorArg("userDao", true));
+
+        List<ConversionResult> results = new JavaSourceModifier()
+                .modifyJavaFile(javaFile.toString(), Arrays.asList(byProperty, byConstructor));
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(ConversionResult::isSuccessful));
+        String content = Files.readString(javaFile);
+        assertEquals(1, occurrences(content, "@Service"));
+        assertEquals(1, occurrences(content, "@Scope(\"prototype\")"));
+        assertEquals(1, occurrences(content, "@Qualifier(\"userDao\")"));
+        assertEquals(1, occurrences(content, "@Autowired"));
+    }
+
+    @Test
+    void testRerunAddsNothing() throws IOException {
+        Path javaFile = writeUserService();
+        SpringBean bean = new SpringBean("userService", "com.example.UserService");
+        bean.setScope("singleton");
+        bean.addProperty(new Property("userDao", "userDao", true));
+
+        JavaSourceModifier modifier = new JavaSourceModifier();
+        modifier.modifyJavaFile(javaFile.toString(), bean);
+        String once = Files.readString(javaFile);
+        ConversionResult second = modifier.modifyJavaFile(javaFile.toString(), bean);
+
+        assertTrue(second.isSuccessful());
+        assertTrue(second.getAnnotationsAdded().isEmpty());
+        assertEquals(once, Files.readString(javaFile));
+    }
+
+    @Test
+    void testDryRunLeavesFileUntouched() throws IOException {
+        Path javaFile = writeUserService();
+        String original = Files.readString(javaFile);
+        SpringBean bean = new SpringBean("userService", "com.example.UserService");
+        bean.setScope("singleton");
+
+        ConversionResult result = new JavaSourceModifier(true).modifyJavaFile(javaFile.toString(), bean);
+
+        assertTrue(result.isSuccessful());
+        assertTrue(result.getAnnotationsAdded().contains("@Service"));
+        assertEquals(original, Files.readString(javaFile));
+    }
+
+    @Test
+    void testEditLeavesFileUntilWritten() throws IOException {
+        Path javaFile = writeUserService();
+        String original = Files.readString(javaFile);
+        SpringBean bean = new SpringBean("userService", "com.example.UserService");
+        bean.setScope("singleton");
+        bean.addProperty(new Property("userDao", "userDao", true));
+
+        JavaSourceModifier modifier = new JavaSourceModifier();
+        modifier.setSkimMode(false);
+        JavaSourceModifier.Edit edit = modifier.editJavaFile(javaFile.toString(), List.of(bean));
+
+        assertTrue(edit.isModified());
+        assertTrue(edit.getResults().get(0).isSuccessful());
+        assertEquals(original, Files.readString(javaFile));
+
+        modifier.writeJavaFile(edit);
+        assertEquals(1, occurrences(Files.readString(javaFile), "@Autowired"));
+    }
+
+    @Test
+    void testEditFromOlderReadDoesNotOverwriteNewerWrite() throws IOException {
+        Path javaFile = writeUserService();
+        SpringBean service = new SpringBean("userService", "com.example.UserService");
+        service.setScope("singleton");
+        SpringBean prototype = new SpringBean("userServicePrototype", "com.example.UserService");
+        prototype.setScope("prototype");
+
+        // Both edits are made from the same source, as when two writers race
+        JavaSourceModifier modifier = new JavaSourceModifier();
+        JavaSourceModifier.Edit first = modifier.editJavaFile(javaFile.toString(), List.of(service));
+        JavaSourceModifier.Edit second = modifier.editJavaFile(javaFile.toString(), List.of(prototype));
+        modifier.writeJavaFile(first);
+        String written = Files.readString(javaFile);
+
+        IOException e = assertThrows(IOException.class, () -> modifier.writeJavaFile(second));
+        assertTrue(e.getMessage().contains("changed since it was read"));
+        assertEquals(written, Files.readString(javaFile));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testOnlyAddedTextDiffers() throws IOException {
+        String source = "package com.example;\n" +
+                "\n" +
+                "import java.util.List;\n" +
+                "\n" +
+                "public class UserService   {\n" +
+                "    private UserDao userDao;   // keep   this spacing\n" +
+                "\n" +
+                "    public List<String> names() { return null; }\n" +
+                "}\n";
+        Path javaFile = Files.writeString(tempDir.resolve("UserService.java"), source);
+        SpringBean bean = new SpringBean("userService", "com.example.UserService");
+        bean.setScope("singleton");
+        bean.addProperty(new Property("userDao", "userDao", true));
+
+        new JavaSourceModifier().modifyJavaFile(javaFile.toString(), bean);
+
+        String content = Files.readString(javaFile);
+        assertTrue(content.contains("import org.springframework.stereotype.Service;"));
+        assertTrue(content.contains("import org.springframework.beans.factory.annotation.Autowired;"));
+        assertTrue(content.contains("public class UserService   {\n"));
+        assertTrue(content.contains("private UserDao userDao;   // keep   this spacing\n"));
+        assertTrue(content.contains("    public List<String> names() { return null; }\n"));
+    }
+
+    @Test
+    void testConcurrentCallsForSameFileAreSerialized() throws Exception {
+        Path javaFile = writeUserService();
+        JavaSourceModifier modifier = new JavaSourceModifier(false);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ConversionResult>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                SpringBean bean = new SpringBean("userService" + i, "com.example.UserService");
+                bean.setScope("singleton");
+                bean.addProperty(new Property("userDao", "userDao", true));
+                futures.add(executor.submit(() -> modifier.modifyJavaFile(javaFile.toString(), bean)));
+            }
+            for (Future<ConversionResult> future : futures) {
+                assertTrue(future.get().isSuccessful());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        String content = Files.readString(javaFile);
+        assertEquals(1, occurrences(content, "@Service"));
+        assertEquals(1, occurrences(content, "@Autowired"));
+        assertEquals(1, occurrences(content, "import org.springframework.stereotype.Service;"));
+    }
+
+    @Test
+    void testParsesAtConfiguredLanguageLevel() throws IOException {
+        String source = "package com.example;\n" +
+                "\n" +
+                "public class UserService {\n" +
+                "    private UserDao userDao;\n" +
+                "\n" +
+                "    public String describe(Object value) {\n" +
+                "        if (value instanceof String text) {\n" +
+                "            return text;\n" +
+                "        }\n" +
+                "        return \"\"\"\n" +
+                "            none\"\"\";\n" +
+                "    }\n" +
+                "}\n";
+        Path javaFile = Files.writeString(tempDir.resolve("UserService.java"), source);
+        SpringBean bean = new SpringBean("userService", "com.example.UserService");
+        bean.setScope("singleton");
+
+        JavaSourceModifier java8Modifier = new JavaSourceModifier(false, LanguageLevel.JAVA_8);
+        java8Modifier.setSkimMode(false);
+        ConversionResult java8 = java8Modifier.modifyJavaFile(javaFile.toString(), bean);
+        assertFalse(java8.isSuccessful());
+        assertEquals(source, Files.readString(javaFile));
+
+        ConversionResult java17 = new JavaSourceModifier(false, LanguageLevel.JAVA_17)
+                .modifyJavaFile(javaFile.toString(), bean);
+        assertTrue(java17.isSuccessful());
+    }
+
+    @Test
+    void testConstructorAndSetterInjectionAreAnnotated() throws IOException {
+        String source = "package com.example;\n" +
+                "\n" +
+                "public class UserService {\n" +
+                "    private final UserDao dao;\n" +
+                "\n" +
+                "    public UserService() {\n" +
+                "        this(null);\n" +
+                "    }\n" +
+                "\n" +
+                "    public UserService(UserDao dao) {\n" +
+                "        this.dao = dao;\n" +
+                "    }\n" +
+                "\n" +
+                "    public void setMailer(Mailer m) {\n" +
+                "    }\n" +
+                "}\n";
+        Path javaFile = Files.writeString(tempDir.resolve("UserService.java"), source);
+        SpringBean bean = new SpringBean("userService", "com.example.UserService");
+        bean.setScope("singleton");
+        ConstructorArg arg = new ConstructorArg("userDao", true);
+        arg.setType("com.example.UserDao");
+        bean.addConstructorArg(arg);
+        bean.addProperty(new Property("mailer", "smtpMailer", true));
+
+        ConversionResult result = new JavaSourceModifier().modifyJavaFile(javaFile.toString(), bean);
+
+        assertTrue(result.isSuccessful());
+        String content = Files.readString(javaFile);
+        assertTrue(content.contains("@Autowired\n    public UserService(@Qualifier(\"userDao\") UserDao dao)"));
+        assertTrue(content.contains("@Autowired\n    public void setMailer(@Qualifier(\"smtpMailer\") Mailer m)"));
+        assertEquals(2, occurrences(content, "@Autowired"));
+    }
+
+    @Test
+    void testFilesNeedingNoChangeAreNotParsed() throws IOException {
+        // The trailing syntax error would fail any full parse
+        String annotated = "package com.example;\n" +
+                "\n" +
+                "@Service\n" +
+                "public class UserService {\n" +
+                "    void broken( {\n" +
+                "}\n";
+        Path javaFile = Files.writeString(tempDir.resolve("UserService.java"), annotated);
+        SpringBean bean = new SpringBean("userService", "com.example.UserService");
+        bean.setScope("singleton");
+        SpringBean elsewhere = new SpringBean("otherService", "com.other.UserService");
+
+        List<ConversionResult> results = new JavaSourceModifier(false)
+                .modifyJavaFile(javaFile.toString(), Arrays.asList(bean, elsewhere));
+
+        assertTrue(results.get(0).isSuccessful());
+        assertTrue(results.get(0).getAnnotationsAdded().isEmpty());
+        assertFalse(results.get(1).isSuccessful());
+        assertEquals("Class not found: com.other.UserService", results.get(1).getErrorMessage());
+        assertEquals(annotated, Files.readString(javaFile));
+    }
+
+    private Path writeUserService() throws IOException {
+        String source = "package com.example;\n" +
+                "\n" +
+                "public class UserService {\n" +
+                "    private UserDao userDao;\n" +
+                "}\n";
+        return Files.writeString(tempDir.resolve("UserService.java"), source);
+    }
+
+    private static int occurrences(String content, String text) {
+        int count = 0;
+        for (int i = content.indexOf(text); i >= 0; i = content.indexOf(text, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
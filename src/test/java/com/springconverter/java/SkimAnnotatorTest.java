@@ -0,0 +1,97 @@
+package com.springconverter.java;
+
+import com.springconverter.model.ConstructorArg;
+import com.springconverter.model.ConversionResult;
+import com.springconverter.model.Property;
+import com.springconverter.model.SpringBean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SkimAnnotatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMatchesFullParse() throws IOException {
+        String source = "/* Licensed under class Foo */\n" +
+                "package com.example;\n" +
+                "\n" +
+                "import java.util.List;\n" +
+                "import org.springframework.stereotype.Service;\n" +
+                "\n" +
+                "/**\n" +
+                " * Has a javadoc.\n" +
+                " */\n" +
+                "@Deprecated\n" +
+                "@Service\n" +
+                "public class UserService {\n" +
+                "    private static final String NAME = \"class Fake { int x; }\";\n" +
+                "    private UserDao userDao;\n" +
+                "    private String greeting = \"hi; there\";\n" +
+                "    private List<String> names;\n" +
+                "\n" +
+                "    public List<String> names() { return names; }\n" +
+                "}\n";
+        SpringBean bean = new SpringBean("userService", "com.example.UserService");
+        bean.setScope("prototype");
+        bean.setLazyInit(true);
+        bean.addProperty(new Property("userDao", "userDao", true));
+        bean.addProperty(new Property("greeting", "say \"hi\"", false));
+
+        ConversionResult skimmed = new ConversionResult();
+        String annotated = SkimAnnotator.annotate(source, Collections.singletonList(bean),
+                Collections.singletonList(skimmed));
+
+        Path javaFile = Files.writeString(tempDir.resolve("UserService.java"), source);
+        JavaSourceModifier modifier = new JavaSourceModifier();
+        modifier.setSkimMode(false);
+        ConversionResult parsed = modifier.modifyJavaFile(javaFile.toString(), bean);
+
+        // Same code as the parse writes; the layout may differ, as splices put each annotation on its own line
+        JavaParserFactory parser = new JavaParserFactory(JavaParserFactory.DEFAULT_LANGUAGE_LEVEL);
+        assertEquals(parser.parse(Files.readString(javaFile)), parser.parse(annotated));
+        assertTrue(annotated.contains("\n    @Autowired\n    @Qualifier(\"userDao\")\n    private UserDao userDao;\n"));
+        assertTrue(skimmed.isSuccessful());
+        assertEquals(parsed.getAnnotationsAdded(), skimmed.getAnnotationsAdded());
+        assertEquals(parsed.getModifications(), skimmed.getModifications());
+    }
+
+    @Test
+    void testDeclinesWhatItCannotFollow() {
+        String source = "package com.example;\n" +
+                "\n" +
+                "public class UserService {\n" +
+                "    private UserDao userDao, backupDao;\n" +
+                "\n" +
+                "    public UserService(UserDao userDao) {\n" +
+                "        this.userDao = userDao;\n" +
+                "    }\n" +
+                "}\n";
+        List<ConversionResult> results = Collections.singletonList(new ConversionResult());
+
+        SpringBean sharedDeclaration = new SpringBean("userService", "com.example.UserService");
+        sharedDeclaration.setScope("singleton");
+        sharedDeclaration.addProperty(new Property("userDao", "userDao", true));
+        assertNull(SkimAnnotator.annotate(source, Collections.singletonList(sharedDeclaration), results));
+
+        SpringBean byConstructor = new SpringBean("userService", "com.example.UserService");
+        byConstructor.setScope("singleton");
+        byConstructor.addConstructorArg(new ConstructorArg("userDao", true));
+        assertNull(SkimAnnotator.annotate(source, Collections.singletonList(byConstructor), results));
+
+        SpringBean otherPackage = new SpringBean("userService", "com.other.UserService");
+        otherPackage.setScope("singleton");
+        assertNull(SkimAnnotator.annotate(source, Collections.singletonList(otherPackage), results));
+
+        assertTrue(results.get(0).getAnnotationsAdded().isEmpty());
+    }
+}
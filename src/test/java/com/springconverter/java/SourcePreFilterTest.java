@@ -0,0 +1,90 @@
+package com.springconverter.java;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourcePreFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFindsPackageTypesAndTheirAnnotations() {
+        SourcePreFilter.Summary summary = scan("/* header */\n" +
+                "package com.example . service;\n" +
+                "\n" +
+                "import org.springframework.stereotype.Service;\n" +
+                "\n" +
+                "@Service\n" +
+                "@org.springframework.context.annotation.Scope(value = \"prototype\", proxyMode = ScopedProxyMode.NO)\n" +
+                "public class UserService {\n" +
+                "    @Deprecated\n" +
+                "    private UserDao userDao;\n" +
+                "\n" +
+                "    static class Helper {\n" +
+                "        Class<?> type = String.class;\n" +
+                "    }\n" +
+                "}\n" +
+                "\n" +
+                "@interface Marker {}\n");
+
+        assertEquals("com.example.service", summary.getPackageName());
+        assertEquals(Set.of("Service", "Scope"), summary.getAnnotations("UserService"));
+        assertTrue(summary.getAnnotations("Helper").isEmpty());
+        assertTrue(summary.declaresType("Marker"));
+        assertFalse(summary.declaresType("String"));
+        assertFalse(summary.declaresType("UserDao"));
+    }
+
+    @Test
+    void testIgnoresCommentsAndLiterals() {
+        SourcePreFilter.Summary summary = scan("// class Commented\n" +
+                "/* @Service class Blocked */\n" +
+                "class Real {\n" +
+                "    String s = \"class InString @Service\";\n" +
+                "    String block = \"\"\"\n" +
+                "        class InTextBlock \\\"\"\"\n" +
+                "        \"\"\";\n" +
+                "    char c = '\"';\n" +
+                "}\n");
+
+        assertEquals("", summary.getPackageName());
+        assertTrue(summary.declaresType("Real"));
+        assertTrue(summary.getAnnotations("Real").isEmpty());
+        assertFalse(summary.declaresType("Commented"));
+        assertFalse(summary.declaresType("Blocked"));
+        assertFalse(summary.declaresType("InString"));
+        assertFalse(summary.declaresType("InTextBlock"));
+    }
+
+    @Test
+    void testScansFilesOfAnySizeAndLeavesThemWritable() throws IOException {
+        Path small = Files.writeString(tempDir.resolve("Small.java"), "package a;\n@Service class Small {}\n");
+        Path large = Files.writeString(tempDir.resolve("Large.java"), "package b;\nclass Large {\n"
+                + "    int x;\n".repeat(SourcePreFilter.POOLED_BUFFER_BYTES / 10) + "}\n");
+
+        for (int i = 0; i < 2; i++) {
+            // The second round reuses the pooled buffer
+            assertEquals(Set.of("Service"), SourcePreFilter.scan(small).getAnnotations("Small"));
+            assertTrue(SourcePreFilter.scan(large).declaresType("Large"));
+        }
+        assertEquals("b", SourcePreFilter.scan(large).getPackageName());
+
+        Files.writeString(small, "package a;\nclass Renamed {}\n");
+        assertTrue(SourcePreFilter.scan(small).declaresType("Renamed"));
+        assertFalse(SourcePreFilter.scan(small).declaresType("Small"));
+    }
+
+    private static SourcePreFilter.Summary scan(String source) {
+        return SourcePreFilter.scan(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,126 @@
+package com.springconverter.java;
+
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.resolution.cache.CacheStats;
+import com.springconverter.model.ConstructorArg;
+import com.springconverter.model.ConversionResult;
+import com.springconverter.model.Property;
+import com.springconverter.model.SpringBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeResolverTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path sourceRoot;
+    private List<SpringBean> beans;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sourceRoot = tempDir.resolve("src/main/java");
+        writeSource("com/example/dao/UserDao.java", "package com.example.dao;\npublic interface UserDao {}\n");
+        writeSource("com/example/dao/JdbcUserDao.java", "package com.example.dao;\npublic class JdbcUserDao implements UserDao {}\n");
+        writeSource("com/example/dao/CachingUserDao.java", "package com.example.dao;\npublic class CachingUserDao extends JdbcUserDao {}\n");
+        writeSource("com/example/mail/Mailer.java", "package com.example.mail;\npublic class Mailer {}\n");
+        beans = Arrays.asList(
+                new SpringBean("jdbcUserDao", "com.example.dao.JdbcUserDao"),
+                new SpringBean("cachingUserDao", "com.example.dao.CachingUserDao"),
+                new SpringBean("mailer", "com.example.mail.Mailer"));
+    }
+
+    @Test
+    void testResolvesTypesAndCountsCandidates() {
+        TypeResolver resolver = TypeResolver.create(Collections.singletonList(sourceRoot), Collections.emptyList(),
+                LanguageLevel.JAVA_17, beans);
+        CompilationUnit cu = new JavaParserFactory(LanguageLevel.JAVA_17).parse("package com.example.service;\n" +
+                "import com.example.dao.*;\n" +
+                "import com.example.mail.Mailer;\n" +
+                "public class UserService {\n" +
+                "    private UserDao userDao;\n" +
+                "    private Mailer mailer;\n" +
+                "}\n");
+        FieldDeclaration userDao = cu.findFirst(FieldDeclaration.class).orElseThrow();
+        FieldDeclaration mailer = cu.findAll(FieldDeclaration.class).get(1);
+
+        assertEquals("com.example.dao.UserDao", resolver.resolve(userDao.getElementType(), userDao).orElseThrow());
+        assertTrue(resolver.isAssignable("com.example.dao.UserDao", "com.example.dao.CachingUserDao"));
+        assertFalse(resolver.isAssignable("com.example.mail.Mailer", "com.example.dao.JdbcUserDao"));
+        assertEquals(2, resolver.countCandidates("com.example.dao.UserDao"));
+        assertTrue(resolver.needsQualifier(userDao.getElementType(), userDao));
+        assertFalse(resolver.needsQualifier(mailer.getElementType(), mailer));
+    }
+
+    @Test
+    void testPicksConstructorByTypeAndSkipsUnneededQualifiers() throws IOException {
+        Path javaFile = writeSource("com/example/service/UserService.java", "package com.example.service;\n" +
+                "\n" +
+                "import com.example.dao.UserDao;\n" +
+                "import com.example.mail.Mailer;\n" +
+                "\n" +
+                "public class UserService {\n" +
+                "    private UserDao userDao;\n" +
+                "\n" +
+                "    public UserService(Mailer mailer) {\n" +
+                "    }\n" +
+                "\n" +
+                "    public UserService(UserDao dao) {\n" +
+                "    }\n" +
+                "\n" +
+                "    public void setMailer(Mailer mailer) {\n" +
+                "    }\n" +
+                "}\n");
+        SpringBean bean = new SpringBean("userService", "com.example.service.UserService");
+        bean.setScope("singleton");
+        bean.addConstructorArg(new ConstructorArg("cachingUserDao", true));
+        bean.addProperty(new Property("mailer", "mailer", true));
+
+        JavaSourceModifier modifier = new JavaSourceModifier();
+        modifier.setTypeResolver(TypeResolver.create(Collections.singletonList(sourceRoot), Collections.emptyList(),
+                LanguageLevel.JAVA_17, beans));
+        ConversionResult result = modifier.modifyJavaFile(javaFile.toString(), bean);
+
+        assertTrue(result.isSuccessful());
+        String content = Files.readString(javaFile);
+        assertTrue(content.contains("@Autowired\n    public UserService(@Qualifier(\"cachingUserDao\") UserDao dao)"));
+        assertTrue(content.contains("    public UserService(Mailer mailer) {"));
+        assertTrue(content.contains("@Autowired\n    public void setMailer(Mailer mailer)"));
+    }
+
+    @Test
+    void testKeepsParsedSourcesWithinBudget() {
+        TypeResolver resolver = TypeResolver.create(Collections.singletonList(sourceRoot), Collections.emptyList(),
+                LanguageLevel.JAVA_17, 2, beans);
+
+        // Walking the ancestors of every bean class parses all four sources, so two are evicted
+        for (SpringBean bean : beans) {
+            resolver.countCandidates(bean.getClassName());
+        }
+        CacheStats stats = resolver.getParseCacheStats();
+        assertTrue(stats.missCount() >= 4);
+        assertTrue(stats.evictionCount() >= 2);
+
+        long misses = stats.missCount();
+        assertTrue(resolver.isAssignable("com.example.dao.UserDao", "com.example.dao.CachingUserDao"));
+        assertEquals(misses, resolver.getParseCacheStats().missCount());
+    }
+
+    private Path writeSource(String relativePath, String source) throws IOException {
+        Path file = sourceRoot.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, source);
+    }
+}
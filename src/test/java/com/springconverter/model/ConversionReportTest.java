@@ -0,0 +1,57 @@
+package com.springconverter.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionReportTest {
+
+    @Test
+    void testConcurrentProducersLoseNothing() throws Exception {
+        ConversionReport report = new ConversionReport();
+        int threads = 8;
+        int perThread = 2_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        report.addConversionResult(new ConversionResult());
+                        report.addTodoItem(new TodoItem("todo", "beans.xml", TodoItem.TodoCategory.MANUAL_REVIEW_REQUIRED));
+                        report.addError(new ConversionError("error", "beans.xml", ConversionError.ErrorType.WRITE_ERROR));
+                        report.incrementTotalBeansConverted();
+                        report.addTotalPropertiesConverted(2);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int total = threads * perThread;
+        assertEquals(total, report.getConversionResults().size());
+        assertEquals(total, report.getTotalBeansConverted());
+        assertEquals(2 * total, report.getTotalPropertiesConverted());
+        assertEquals(total, report.getTotalTODOsGenerated());
+        assertEquals(total, report.getTotalErrors());
+        assertFalse(report.isSuccessful());
+
+        Set<String> ids = new HashSet<>();
+        report.getTodoItems().forEach(todo -> ids.add(todo.getId()));
+        report.getErrors().forEach(error -> ids.add(error.getId()));
+        assertEquals(2 * total, ids.size());
+    }
+}
@@ -0,0 +1,131 @@
+package com.springconverter.parser;
+
+import com.springconverter.model.SpringBean;
+import com.springconverter.parser.XmlParser.XmlParsingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportGraphResolverTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final Map<String, AtomicInteger> parseCounts = new ConcurrentHashMap<>();
+    private final XmlParser countingParser = new XmlParser() {
+        @Override
+        public List<SpringBean> parseXmlFile(String filePath) throws XmlParsingException {
+            parseCounts.computeIfAbsent(Path.of(filePath).getFileName().toString(), key -> new AtomicInteger())
+                    .incrementAndGet();
+            return super.parseXmlFile(filePath);
+        }
+    };
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testSharedImportIsParsedOnce() throws IOException, XmlParsingException {
+        Path resources = Files.createDirectories(tempDir.resolve("src/main/resources"));
+        Path first = writeContext(resources.resolve("first.xml"), "shared.xml", "a");
+        Path second = writeContext(resources.resolve("second.xml"), "classpath:shared.xml", "b");
+        writeContext(resources.resolve("shared.xml"), null, "shared");
+
+        ImportGraph graph = resolver(resources).resolve(Arrays.asList(first.toString(), second.toString()));
+
+        assertEquals(3, graph.getFiles().size());
+        assertEquals(first.toString(), graph.getFiles().get(0));
+        assertEquals(1, parseCounts.get("shared.xml").get());
+        assertTrue(graph.getCycles().isEmpty());
+
+        SpringBean importBean = graph.getBeans(first.toString()).stream()
+                .filter(ImportGraphResolver::isImportDefinition).findFirst().orElseThrow();
+        assertEquals(Collections.singletonList(resources.resolve("shared.xml").toAbsolutePath().normalize()),
+                graph.getImportTargets(importBean));
+    }
+
+    @Test
+    void testDetectsCycles() throws IOException {
+        Path a = writeContext(tempDir.resolve("a.xml"), "b.xml", "a");
+        writeContext(tempDir.resolve("b.xml"), "a.xml", "b");
+
+        ImportGraph graph = resolver(tempDir).resolve(Collections.singletonList(a.toString()));
+
+        assertEquals(2, graph.getFiles().size());
+        assertEquals(1, parseCounts.get("a.xml").get());
+        assertEquals(1, graph.getCycles().size());
+        List<String> cycle = graph.getCycles().get(0).stream()
+                .map(file -> Path.of(file).getFileName().toString())
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList("a.xml", "b.xml", "a.xml"), cycle);
+    }
+
+    @Test
+    void testExpandsWildcardsAndReportsUnresolvedImports() throws IOException, XmlParsingException {
+        Path resources = Files.createDirectories(tempDir.resolve("src/main/resources"));
+        Path modules = Files.createDirectories(resources.resolve("config/modules/nested"));
+        writeContext(resources.resolve("config/modules/one.xml"), null, "one");
+        writeContext(modules.resolve("two.xml"), null, "two");
+        Path root = writeContext(resources.resolve("root.xml"), "classpath*:config/**/*.xml", "root");
+        Path missing = writeContext(resources.resolve("missing.xml"), "classpath:nowhere.xml", "missing");
+
+        ImportGraph graph = resolver(resources).resolve(Arrays.asList(root.toString(), missing.toString()));
+
+        assertEquals(4, graph.getFiles().size());
+        SpringBean unresolved = graph.getBeans(missing.toString()).stream()
+                .filter(ImportGraphResolver::isImportDefinition).findFirst().orElseThrow();
+        assertTrue(graph.getImportTargets(unresolved).isEmpty());
+    }
+
+    @Test
+    void testParseFailureIsKeptPerFile() throws IOException {
+        Path root = writeContext(tempDir.resolve("root.xml"), "broken.xml", "root");
+        Files.write(tempDir.resolve("broken.xml"), "<beans><bean id=\"x\"></beans>".getBytes());
+
+        ImportGraph graph = resolver(tempDir).resolve(Collections.singletonList(root.toString()));
+
+        assertEquals(2, graph.getFiles().size());
+        assertThrows(XmlParsingException.class, () -> graph.getBeans(graph.getFiles().get(1)));
+    }
+
+    @Test
+    void testAntPatternToRegex() {
+        assertTrue("a.xml".matches(ImportGraphResolver.antPatternToRegex("**/*.xml")));
+        assertTrue("x/y/a.xml".matches(ImportGraphResolver.antPatternToRegex("**/*.xml")));
+        assertFalse("x/a.xml".matches(ImportGraphResolver.antPatternToRegex("*.xml")));
+        assertTrue("app-1.xml".matches(ImportGraphResolver.antPatternToRegex("app-?.xml")));
+    }
+
+    private ImportGraphResolver resolver(Path resourceRoot) {
+        return new ImportGraphResolver(countingParser, Collections.singletonList(resourceRoot.toAbsolutePath().normalize()),
+                file -> true, executor);
+    }
+
+    private static Path writeContext(Path file, String importResource, String beanId) throws IOException {
+        String content = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<beans xmlns=\"http://www.springframework.org/schema/beans\">\n" +
+                (importResource != null ? "    <import resource=\"" + importResource + "\"/>\n" : "") +
+                "    <bean id=\"" + beanId + "\" class=\"com.example." + beanId + "\"/>\n" +
+                "</beans>";
+        Files.createDirectories(file.getParent());
+        return Files.write(file, content.getBytes());
+    }
+}
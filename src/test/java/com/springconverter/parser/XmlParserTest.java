@@ -1,32 +1,41 @@
 package com.springconverter.parser;
 
+import com.springconverter.model.ConstructorArg;
+import com.springconverter.model.Property;
+import com.springconverter.model.SourcePosition;
 import com.springconverter.model.SpringBean;
 import com.springconverter.parser.XmlParser.XmlParsingException;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class XmlParserTest {
 
-    private XmlParser parser;
-    
     @TempDir
     Path tempDir;
 
-    @BeforeEach
-    void setUp() {
-        parser = new XmlParser();
+    static Stream<Arguments> parsers() {
+        return Stream.of(
+                Arguments.of("dom", new XmlParser(Long.MAX_VALUE)),
+                Arguments.of("streaming", new XmlParser(0)));
     }
 
-    @Test
-    void testParseSimpleBean() throws IOException, XmlParsingException {
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testParseSimpleBean(String mode, XmlParser parser) throws IOException, XmlParsingException {
         // Create a simple XML file
         String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
                 "<beans xmlns=\"http://www.springframework.org/schema/beans\"\n" +
@@ -50,8 +59,9 @@ class XmlParserTest {
         assertEquals("singleton", bean.getScope());
     }
 
-    @Test
-    void testParseBeanWithProperties() throws IOException, XmlParsingException {
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testParseBeanWithProperties(String mode, XmlParser parser) throws IOException, XmlParsingException {
         String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
                 "<beans xmlns=\"http://www.springframework.org/schema/beans\"\n" +
                 "       xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n" +
@@ -85,8 +95,9 @@ class XmlParserTest {
         assertTrue(bean.getProperties().get(1).isValue());
     }
 
-    @Test
-    void testParseBeanWithConstructorArgs() throws IOException, XmlParsingException {
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testParseBeanWithConstructorArgs(String mode, XmlParser parser) throws IOException, XmlParsingException {
         String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
                 "<beans xmlns=\"http://www.springframework.org/schema/beans\"\n" +
                 "       xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n" +
@@ -118,8 +129,9 @@ class XmlParserTest {
         assertTrue(bean.getConstructorArgs().get(1).isValue());
     }
 
-    @Test
-    void testParseComponentScan() throws IOException, XmlParsingException {
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testParseComponentScan(String mode, XmlParser parser) throws IOException, XmlParsingException {
         String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
                 "<beans xmlns=\"http://www.springframework.org/schema/beans\"\n" +
                 "       xmlns:context=\"http://www.springframework.org/schema/context\"\n" +
@@ -147,8 +159,9 @@ class XmlParserTest {
         assertEquals("com.example", bean.getProperties().get(0).getValue());
     }
 
-    @Test
-    void testParseImport() throws IOException, XmlParsingException {
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testParseImport(String mode, XmlParser parser) throws IOException, XmlParsingException {
         String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
                 "<beans xmlns=\"http://www.springframework.org/schema/beans\"\n" +
                 "       xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n" +
@@ -173,8 +186,9 @@ class XmlParserTest {
         assertEquals("applicationContext-security.xml", bean.getProperties().get(0).getValue());
     }
 
-    @Test
-    void testParseMultipleBeans() throws IOException, XmlParsingException {
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testParseMultipleBeans(String mode, XmlParser parser) throws IOException, XmlParsingException {
         String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
                 "<beans xmlns=\"http://www.springframework.org/schema/beans\"\n" +
                 "       xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n" +
@@ -200,8 +214,9 @@ class XmlParserTest {
         assertTrue(beans.stream().anyMatch(b -> "emailService".equals(b.getId())));
     }
 
-    @Test
-    void testParseBeanWithAttributes() throws IOException, XmlParsingException {
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testParseBeanWithAttributes(String mode, XmlParser parser) throws IOException, XmlParsingException {
         String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
                 "<beans xmlns=\"http://www.springframework.org/schema/beans\"\n" +
                 "       xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n" +
@@ -225,8 +240,9 @@ class XmlParserTest {
         assertTrue(bean.isPrimary());
     }
 
-    @Test
-    void testParseNonSpringXml() throws IOException {
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testParseNonSpringXml(String mode, XmlParser parser) throws IOException {
         String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
                 "<configuration>\n" +
                 "    <property name=\"test\" value=\"value\"/>\n" +
@@ -248,8 +264,9 @@ class XmlParserTest {
         assertEquals(0, beans.size());
     }
 
-    @Test
-    void testParseInvalidXml() {
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testParseInvalidXml(String mode, XmlParser parser) {
         String invalidXml = "This is not valid XML";
         
         Path xmlFile = tempDir.resolve("invalid.xml");
@@ -262,4 +279,204 @@ class XmlParserTest {
             fail("Failed to write test file");
         }
     }
-} 
\ No newline at end of file
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testParseNestedDefinitions(String mode, XmlParser parser) throws IOException, XmlParsingException {
+        Path xmlFile = writeNestedDefinitions();
+
+        List<SpringBean> beans = parser.parseXmlFile(xmlFile.toString());
+
+        assertEquals(4, beans.size());
+        SpringBean userService = beans.stream().filter(b -> "userService".equals(b.getId())).findFirst().orElseThrow();
+        assertEquals("a,b", userService.getProperties().get(0).getValue());
+        assertTrue(userService.getProperties().get(0).isList());
+        assertEquals("userDao", userService.getConstructorArgs().get(0).getRef());
+        assertTrue(beans.stream().anyMatch(b -> "com.example.Inner".equals(b.getClassName())));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testParseDtdBasedFileOffline(String mode, XmlParser parser) throws IOException, XmlParsingException {
+        String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<!DOCTYPE beans PUBLIC \"-//SPRING//DTD BEAN 2.0//EN\"\n" +
+                "    \"http://www.springframework.org/dtd/spring-beans-2.0.dtd\">\n" +
+                "<beans>\n" +
+                "    <bean id=\"userDao\" class=\"com.example.dao.UserDaoImpl\"/>\n" +
+                "</beans>";
+
+        Path xmlFile = tempDir.resolve("legacy.xml");
+        Files.write(xmlFile, xmlContent.getBytes());
+
+        // External access is disabled, so this only passes when the bundled catalog resolves the DTD
+        List<SpringBean> beans = parser.parseXmlFile(xmlFile.toString());
+
+        assertEquals(1, beans.size());
+        assertEquals("userDao", beans.get(0).getId());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testUnknownDtdResolvesToEmptyContent(String mode, XmlParser parser) throws IOException, XmlParsingException {
+        String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<!DOCTYPE beans SYSTEM \"http://unreachable.invalid/custom.dtd\">\n" +
+                "<beans>\n" +
+                "    <bean id=\"userDao\" class=\"com.example.dao.UserDaoImpl\"/>\n" +
+                "</beans>";
+
+        Path xmlFile = tempDir.resolve("custom.xml");
+        Files.write(xmlFile, xmlContent.getBytes());
+
+        assertEquals(1, parser.parseXmlFile(xmlFile.toString()).size());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testRecordsSourcePositions(String mode, XmlParser parser) throws IOException, XmlParsingException {
+        String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<beans xmlns=\"http://www.springframework.org/schema/beans\">\n" +
+                "    <!-- Zürich \u00e9t\u00e9 -->\n" +
+                "    <bean id=\"userService\" class=\"com.example.UserService\">\n" +
+                "        <constructor-arg ref=\"userDao\"/>\n" +
+                "        <property name=\"maxUsers\" value=\"100\"></property>\n" +
+                "    </bean>\n" +
+                "</beans>";
+        
+        Path xmlFile = tempDir.resolve("positions.xml");
+        Files.write(xmlFile, xmlContent.getBytes(StandardCharsets.UTF_8));
+        
+        SpringBean bean = parser.parseXmlFile(xmlFile.toString()).get(0);
+        
+        assertEquals(4, bean.getLineNumber());
+        assertPosition(xmlContent, xmlContent.indexOf("<bean "), 4, 5, bean.getStartPosition());
+        assertPosition(xmlContent, xmlContent.indexOf("</bean>") + 7, 7, 12, bean.getEndPosition());
+        
+        ConstructorArg constructorArg = bean.getConstructorArgs().get(0);
+        assertPosition(xmlContent, xmlContent.indexOf("<constructor-arg"), 5, 9, constructorArg.getStartPosition());
+        assertPosition(xmlContent, xmlContent.indexOf("/>") + 2, 5, 41, constructorArg.getEndPosition());
+        
+        Property property = bean.getProperties().get(0);
+        assertPosition(xmlContent, xmlContent.indexOf("<property"), 6, 9, property.getStartPosition());
+        assertPosition(xmlContent, xmlContent.indexOf("</property>") + 11, 6, 58, property.getEndPosition());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testSourcePositionsWithByteOrderMarkAndCrLf(String mode, XmlParser parser)
+            throws IOException, XmlParsingException {
+        String xmlContent = "<beans>\r\n" +
+                "  <bean id=\"a\" class=\"com.example.A\"/>\r\n" +
+                "  <bean id=\"b\" class=\"com.example.B\"/>\r\n" +
+                "</beans>";
+        
+        Path xmlFile = tempDir.resolve("crlf.xml");
+        byte[] content = xmlContent.getBytes(StandardCharsets.UTF_8);
+        byte[] withBom = new byte[content.length + 3];
+        withBom[0] = (byte) 0xEF;
+        withBom[1] = (byte) 0xBB;
+        withBom[2] = (byte) 0xBF;
+        System.arraycopy(content, 0, withBom, 3, content.length);
+        Files.write(xmlFile, withBom);
+        
+        List<SpringBean> beans = parser.parseXmlFile(xmlFile.toString());
+        
+        SourcePosition second = beans.get(1).getStartPosition();
+        assertEquals(3, second.getLine());
+        assertEquals(3, second.getColumn());
+        assertEquals(xmlContent.lastIndexOf("<bean"), second.getCharOffset());
+        assertEquals(xmlContent.lastIndexOf("<bean") + 3, second.getByteOffset());
+    }
+
+    private static void assertPosition(String content, int charOffset, int line, int column, SourcePosition position) {
+        assertNotNull(position);
+        assertEquals(line, position.getLine(), "line");
+        assertEquals(column, position.getColumn(), "column");
+        assertEquals(charOffset, position.getCharOffset(), "character offset");
+        assertEquals(content.substring(0, charOffset).getBytes(StandardCharsets.UTF_8).length,
+                position.getByteOffset(), "byte offset");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testInnerBeanChildrenStayWithInnerBean(String mode, XmlParser parser) throws IOException, XmlParsingException {
+        String xmlContent = "<beans xmlns=\"http://www.springframework.org/schema/beans\">\n" +
+                "    <bean id=\"outer\" class=\"com.example.Outer\">\n" +
+                "        <property name=\"helper\">\n" +
+                "            <bean class=\"com.example.Inner\">\n" +
+                "                <property name=\"innerOnly\" value=\"x\"/>\n" +
+                "                <constructor-arg value=\"y\"/>\n" +
+                "            </bean>\n" +
+                "        </property>\n" +
+                "    </bean>\n" +
+                "</beans>";
+        
+        Path xmlFile = tempDir.resolve("inner.xml");
+        Files.write(xmlFile, xmlContent.getBytes());
+        
+        List<SpringBean> beans = parser.parseXmlFile(xmlFile.toString());
+        
+        assertEquals(2, beans.size());
+        assertEquals("outer", beans.get(0).getId());
+        assertEquals(1, beans.get(0).getProperties().size());
+        assertTrue(beans.get(0).getConstructorArgs().isEmpty());
+        assertEquals("innerOnly", beans.get(1).getProperties().get(0).getName());
+        assertEquals(1, beans.get(1).getConstructorArgs().size());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parsers")
+    void testRegisteredHandlerIsDispatchedByNamespace(String mode, XmlParser parser)
+            throws IOException, XmlParsingException {
+        String xmlContent = "<beans xmlns=\"http://www.springframework.org/schema/beans\"\n" +
+                "       xmlns:util=\"http://www.springframework.org/schema/util\"\n" +
+                "       xmlns:other=\"urn:other\">\n" +
+                "    <util:list id=\"names\"/>\n" +
+                "    <other:list id=\"ignored\"/>\n" +
+                "    <bean id=\"a\" class=\"com.example.A\"/>\n" +
+                "</beans>";
+        
+        Path xmlFile = tempDir.resolve("util.xml");
+        Files.write(xmlFile, xmlContent.getBytes());
+        parser.registerHandler("http://www.springframework.org/schema/util", "list", (element, context) ->
+                context.addBean(new SpringBean(element.getAttribute("id"), "java.util.List")));
+        
+        List<SpringBean> beans = parser.parseXmlFile(xmlFile.toString());
+        
+        assertEquals(Arrays.asList("names", "a"), beans.stream().map(SpringBean::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testStreamingProducesSameModelAsDom() throws IOException, XmlParsingException {
+        Path xmlFile = writeNestedDefinitions();
+
+        List<SpringBean> domBeans = new XmlParser(Long.MAX_VALUE).parseXmlFile(xmlFile.toString());
+        List<SpringBean> streamedBeans = new XmlParser(0).parseXmlFile(xmlFile.toString());
+
+        assertEquals(describe(domBeans), describe(streamedBeans));
+    }
+
+    private Path writeNestedDefinitions() throws IOException {
+        String xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<beans xmlns=\"http://www.springframework.org/schema/beans\"\n" +
+                "       xmlns:context=\"http://www.springframework.org/schema/context\">\n" +
+                "    <import resource=\"other.xml\"/>\n" +
+                "    <bean id=\"userService\" class=\"com.example.service.UserServiceImpl\" scope=\"prototype\">\n" +
+                "        <constructor-arg index=\"0\"><ref bean=\"userDao\"/></constructor-arg>\n" +
+                "        <property name=\"names\"><list><value>a</value><value>b</value></list></property>\n" +
+                "        <property name=\"helper\"><bean class=\"com.example.Inner\"/></property>\n" +
+                "    </bean>\n" +
+                "    <context:component-scan base-package=\"com.example\"/>\n" +
+                "</beans>";
+
+        Path xmlFile = tempDir.resolve("nested.xml");
+        Files.write(xmlFile, xmlContent.getBytes());
+        return xmlFile;
+    }
+
+    private static List<String> describe(List<SpringBean> beans) {
+        return beans.stream()
+                .map(b -> b + " " + b.getAttributes() + " " + b.getProperties() + " " + b.getConstructorArgs())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}